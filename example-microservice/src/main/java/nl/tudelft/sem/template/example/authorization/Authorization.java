@@ -1,32 +1,54 @@
 package nl.tudelft.sem.template.example.authorization;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import nl.tudelft.sem.template.example.externalservices.UserExternalService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 
 public class Authorization extends Handler {
 
     private final UserExternalService userExternalService;
-    // Maps method names to the user types that are allowed to call them
-    protected HashMap<String, List<Authorization.UserType>> permissions;
+    private final UserTypeCache userTypeCache;
+    // created once instead of a new method reference on every lookup
+    private final Function<Long, Authorization.UserType> userTypeLoader = this::fetchUserType;
 
-    public Authorization(UserExternalService userExternalService,
-                         HashMap<String, List<Authorization.UserType>> permissions) {
+    public Authorization(UserExternalService userExternalService) {
+        this(userExternalService, UserTypeCache.disabled());
+    }
+
+    /**
+     * Constructor for an Authorization handler that looks up user types through a cache.
+     *
+     * @param userExternalService the external user service
+     * @param userTypeCache       the cache in front of the user service
+     */
+    public Authorization(UserExternalService userExternalService, UserTypeCache userTypeCache) {
+        this(userExternalService, userTypeCache, null);
+    }
+
+    /**
+     * Constructor for an Authorization handler that passes authorized calls on to the next handler.
+     *
+     * @param userExternalService the external user service
+     * @param userTypeCache       the cache in front of the user service
+     * @param next                the next handler in the chain, null if this is the last one
+     */
+    public Authorization(UserExternalService userExternalService, UserTypeCache userTypeCache, Handler next) {
+        super(next);
         this.userExternalService = userExternalService;
-        this.permissions = permissions;
+        this.userTypeCache = userTypeCache;
     }
 
     /**
-     * Authorizes a user based on the provided user ID and required user type.
+     * Authorizes a user based on the provided user ID and the user types that may call the operation.
      *
-     * @param userId     The ID of the user to be authorized.
-     * @param methodName Name of the method that was called.
+     * @param userId    The ID of the user to be authorized.
+     * @param operation The operation that was called.
      * @return An optional containing a ResponseEntity with an error message if authorization fails, or empty if authorized.
      */
     @Override
-    public Optional<ResponseEntity> check(Long userId, String methodName, Long other) {
+    public Optional<ResponseEntity> check(Long userId, Operation operation, Long other) {
 
         Authorization.UserType actualUserType = getUserType(userId);
         if (actualUserType == Authorization.UserType.NAN) {
@@ -35,10 +57,10 @@ public class Authorization extends Handler {
         if (actualUserType == Authorization.UserType.ADMIN) {
             return Optional.empty();
         }
-        if (!permissions.get(methodName).contains(actualUserType)) {
+        if (!operation.allows(actualUserType)) {
             return Optional.of(ResponseEntity.status(403).body("User with id " + userId + " does not have access rights"));
         }
-        return checkNext(userId, methodName, other);
+        return checkNext(userId, operation, other);
     }
 
     /**
@@ -60,15 +82,39 @@ public class Authorization extends Handler {
     }
 
     /**
-     * Retrieves the user type from the user microservice based on the provided user ID.
+     * Retrieves the user type based on the provided user ID, from the cache if possible.
+     * While the user service is unavailable the last known user type is used.
      *
      * @param userId The ID of the user.
-     * @return The user type obtained from the user service, or UserType.NAN if an error occurs.
+     * @return The user type obtained from the cache or user service, or UserType.NAN if an error occurs.
      */
     private Authorization.UserType getUserType(Long userId) {
         try {
-            return parseUserType(userExternalService.getUserTypeFromService(userId));
-        } catch (Exception e) {
+            return userTypeCache.get(userId, userTypeLoader);
+        } catch (RuntimeException e) {
+            // the user service is unavailable (or its circuit is open) and there is no last known user type
+            return Authorization.UserType.NAN;
+        }
+    }
+
+    /**
+     * Retrieves the user type from the user microservice based on the provided user ID.
+     *
+     * @param userId The ID of the user.
+     * @return The user type obtained from the user service, or UserType.NAN if the user has no valid user type.
+     * @throws RuntimeException if the user service is unavailable
+     */
+    private Authorization.UserType fetchUserType(Long userId) {
+        String userType;
+        try {
+            userType = userExternalService.getUserTypeFromService(userId);
+        } catch (HttpClientErrorException e) {
+            // the user service answered, the user does not exist
+            return Authorization.UserType.NAN;
+        }
+        try {
+            return parseUserType(userType);
+        } catch (RuntimeException e) {
             return Authorization.UserType.NAN;
         }
     }
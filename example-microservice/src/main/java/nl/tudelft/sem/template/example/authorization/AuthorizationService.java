@@ -1,17 +1,10 @@
 package nl.tudelft.sem.template.example.authorization;
 
-import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.COURIER;
-import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.CUSTOMER;
-import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.VENDOR;
-
-import java.util.HashMap;
-import java.util.List;
 import java.util.Optional;
-import java.util.function.BiFunction;
-import javax.annotation.PostConstruct;
 import lombok.Getter;
 import nl.tudelft.sem.template.example.externalservices.UserExternalService;
 import nl.tudelft.sem.template.example.utils.DbUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -21,26 +14,49 @@ public class AuthorizationService {
     private final UserExternalService userExternalService;
     private final DbUtils dbUtils;
     @Getter
-    private HashMap<String, List<Authorization.UserType>> permissions;
-
+    private final UserTypeCache userTypeCache;
     @Getter
-    private HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods;
+    private final DecisionCache decisionCache;
+    // built once and shared by all requests, the permissions of the operations are in Operation
+    private final Authorization chain;
 
     /**
      * Constructor for the AuthorizationService.
      *
      * @param dbUtils             the dbUtils
      * @param userExternalService the userExternalService
-     * @param permissions         the permissions
-     * @param validationMethods   the validationMethods
      */
+    public AuthorizationService(DbUtils dbUtils, UserExternalService userExternalService) {
+        this(dbUtils, userExternalService, UserTypeCache.disabled());
+    }
+
+    /**
+     * Constructor for the AuthorizationService with a cache for the user types.
+     *
+     * @param dbUtils             the dbUtils
+     * @param userExternalService the userExternalService
+     * @param userTypeCache       the cache in front of the user service
+     */
+    public AuthorizationService(DbUtils dbUtils, UserExternalService userExternalService, UserTypeCache userTypeCache) {
+        this(dbUtils, userExternalService, userTypeCache, DecisionCache.disabled());
+    }
+
+    /**
+     * Constructor for the AuthorizationService with caches for the user types and the validation decisions.
+     *
+     * @param dbUtils             the dbUtils
+     * @param userExternalService the userExternalService
+     * @param userTypeCache       the cache in front of the user service
+     * @param decisionCache       the cache for the outcome of the validation methods
+     */
+    @Autowired
     public AuthorizationService(DbUtils dbUtils, UserExternalService userExternalService,
-                                HashMap<String, List<Authorization.UserType>> permissions,
-                                HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods) {
+                                UserTypeCache userTypeCache, DecisionCache decisionCache) {
         this.userExternalService = userExternalService;
-        this.permissions = permissions;
         this.dbUtils = dbUtils;
-        this.validationMethods = validationMethods;
+        this.userTypeCache = userTypeCache;
+        this.decisionCache = decisionCache;
+        this.chain = buildChain();
     }
 
     /**
@@ -54,17 +70,15 @@ public class AuthorizationService {
     }
 
     /**
-     * Checks if the user is authorized to call the method.
+     * Checks if the user is authorized to call the operation.
      *
-     * @param userId     the id of the user
-     * @param methodName the name of the method
-     * @param other      id of order or vendor
+     * @param userId    the id of the user
+     * @param operation the operation that was called
+     * @param other     id of order or vendor
      * @return an empty optional if the user is authorized, otherwise a response entity
      */
-    public Optional<ResponseEntity> checkIfUserIsAuthorized(Long userId, String methodName, Long other) {
-        Handler handler = Handler.link(new Authorization(userExternalService, permissions),
-            new Validation(dbUtils, validationMethods));
-        return handler.check(userId, methodName, other);
+    public Optional<ResponseEntity> checkIfUserIsAuthorized(Long userId, Operation operation, Long other) {
+        return chain.check(userId, operation, other);
     }
 
     /**
@@ -74,80 +88,44 @@ public class AuthorizationService {
      * @return an empty optional if the user is authorized, otherwise a response entity
      */
     public Optional<ResponseEntity> authorizeAdminOnly(Long userId) {
-        Authorization authorization = new Authorization(userExternalService, permissions);
-        return authorization.authorizeAdminOnly(userId);
+        return chain.authorizeAdminOnly(userId);
     }
 
     /**
-     * Initializes the permissions map with default values if it is null.
-     * You do not need to add permissions for admin only methods.
-     * Initializes the validationMethods map with default values if it is null.
+     * Removes the cached user type of a user, so the next request asks the user service again.
+     *
+     * @param userId the id of the user
      */
-    @PostConstruct
-    public void init() throws NoSuchMethodException {
-        permissions = new HashMap<>();
-        validationMethods = new HashMap<>();
-
-        // OrderController
-        permissions.put("getNextOrderForVendor", List.of(COURIER));
-        validationMethods.put("getNextOrderForVendor", dbUtils::courierBelongsToVendor);
-
-        permissions.put("getIndependentOrders", List.of(COURIER));
-        validationMethods.put("getIndependentOrders", dbUtils::courierBelongsToVendor);
-
-        permissions.put("getFinalDestination", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("getFinalDestination", dbUtils::userBelongsToOrder);
-
-        permissions.put("getOrder", List.of(VENDOR));
-        validationMethods.put("getOrder", dbUtils::userBelongsToOrder);
-
-        permissions.put("getPickupDestination", List.of(COURIER));
-        validationMethods.put("getPickupDestination", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateOrder", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("updateOrder", dbUtils::userBelongsToOrder);
-
-        permissions.put("getOrderRating", List.of(CUSTOMER, VENDOR));
-        validationMethods.put("getOrderRating", dbUtils::userBelongsToOrder);
-
-        permissions.put("putOrderRating", List.of(CUSTOMER));
-        validationMethods.put("putOrderRating", dbUtils::userBelongsToOrder);
-
-        permissions.put("setDeliverTime", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("setDeliverTime", dbUtils::userBelongsToOrder);
-
-        permissions.put("getETA", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("getETA", dbUtils::userBelongsToOrder);
-
-        permissions.put("getOrderDistance", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("getOrderDistance", dbUtils::userBelongsToOrder);
-
-        // StatusController
-        permissions.put("updateToAccepted", List.of(VENDOR));
-        validationMethods.put("updateToAccepted", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateToRejected", List.of(VENDOR));
-        validationMethods.put("updateToRejected", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateToGivenToCourier", List.of(VENDOR));
-        validationMethods.put("updateToGivenToCourier", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateToInTransit", List.of(COURIER));
-        validationMethods.put("updateToInTransit", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateToPreparing", List.of(VENDOR));
-        validationMethods.put("updateToPreparing", dbUtils::userBelongsToOrder);
-
-        permissions.put("updateToDelivered", List.of(COURIER));
-        validationMethods.put("updateToDelivered", dbUtils::userBelongsToOrder);
+    public void invalidateUserType(Long userId) {
+        userTypeCache.invalidate(userId);
+    }
 
-        permissions.put("getStatus", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethods.put("getStatus", dbUtils::userBelongsToOrder);
+    /**
+     * Removes the cached validation decisions of a user, after a write changed what the user owns or works for.
+     *
+     * @param userId the id of the user that changed
+     */
+    public void invalidateUserDecisions(Long userId) {
+        decisionCache.invalidateUser(userId);
+    }
 
-        // UserController
-        permissions.put("updateBossOfCourier", List.of(VENDOR));
-        validationMethods.put("updateBossOfCourier", dbUtils::courierBelongsToVendor);
+    /**
+     * Removes the cached validation decisions about a resource, after a write changed who it belongs to.
+     *
+     * @param resourceId the id of the order, vendor or courier that changed
+     */
+    public void invalidateResourceDecisions(Long resourceId) {
+        decisionCache.invalidateResource(resourceId);
+    }
 
+    /**
+     * Builds the authorization chain, first the user type is checked and then the user is validated against the
+     * order or vendor. The handlers are immutable and keep no per request state, so the chain can be shared.
+     *
+     * @return the first handler of the chain
+     */
+    private Authorization buildChain() {
+        return new Authorization(userExternalService, userTypeCache, new Validation(dbUtils, decisionCache, null));
     }
 
 
@@ -0,0 +1,254 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time based cache for the validations that passed, keyed by user, method name and resource id.
+ * A courier polling the status, ETA and distance of their order would otherwise cause the same ownership queries
+ * (and possibly a call to the order service) on every request.
+ * Failed validations are not cached, so a user that just got access to a resource never waits for an old denial
+ * to expire. The time to live is kept short because not every write goes through the cache, writes that change
+ * who owns a resource invalidate the decisions about it right away. The decisions are indexed per user and per
+ * resource, so an invalidation only touches the decisions it is about.
+ */
+public class DecisionCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // moment every passed validation expires, in access order
+    private final Map<Key, Long> entries;
+    private final Map<Long, Set<Key>> byUser = new HashMap<>();
+    private final Map<Long, Set<Key>> byResource = new HashMap<>();
+    // incremented by every invalidation, a decision that was loaded while one happened might be stale
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Creates a new decision cache.
+     *
+     * @param maxSize the maximum amount of decisions kept in the cache, 0 disables caching
+     * @param ttl     how long a decision stays valid
+     */
+    public DecisionCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    DecisionCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.maxSize = ttl.isNegative() || ttl.isZero() ? 0 : Math.max(0, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                boolean evict = size() > DecisionCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                    unindex(eldest.getKey());
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Cache that never stores anything, every decision is made by the loader.
+     *
+     * @return a disabled cache
+     */
+    public static DecisionCache disabled() {
+        return new DecisionCache(0, Duration.ZERO);
+    }
+
+    /**
+     * Returns true if the user passed this validation recently, or makes the decision when it is missing or expired.
+     * Only decisions that allow the call are cached, decisions about a missing user or resource are not cached.
+     *
+     * @param userId     the id of the user
+     * @param methodName the name of the method that was called
+     * @param resourceId the id of the order, vendor or courier the user is validated against
+     * @param loader     makes the decision, exceptions are passed on and not cached
+     * @return whether the user is allowed to call the method for the resource
+     */
+    public boolean get(Long userId, String methodName, Long resourceId, Supplier<Boolean> loader) {
+        if (maxSize == 0 || userId == null || resourceId == null) {
+            return loader.get();
+        }
+        Key key = new Key(userId, methodName, resourceId);
+        long loadedIn;
+        synchronized (entries) {
+            Long expiresAt = entries.get(key);
+            if (expiresAt != null && expiresAt - clock.getAsLong() > 0) {
+                hits.increment();
+                return true;
+            }
+            if (expiresAt != null) {
+                entries.remove(key);
+                unindex(key);
+            }
+            loadedIn = generation;
+        }
+        misses.increment();
+
+        // the loader runs outside the lock, so slow ownership checks do not block other lookups
+        boolean allowed = loader.get();
+        if (!allowed) {
+            return false;
+        }
+        synchronized (entries) {
+            if (generation == loadedIn) {
+                entries.put(key, clock.getAsLong() + ttlNanos);
+                byUser.computeIfAbsent(key.userId, id -> new HashSet<>()).add(key);
+                byResource.computeIfAbsent(key.resourceId, id -> new HashSet<>()).add(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all decisions of a user, after a write changed what the user owns or who they work for.
+     *
+     * @param userId the id of the user that changed
+     */
+    public void invalidateUser(Long userId) {
+        invalidate(byUser, userId);
+    }
+
+    /**
+     * Removes all decisions about a resource, after a write changed who owns it.
+     * Orders, vendors and couriers are all resources, so an order and a vendor with the same id lose their
+     * decisions together, which only costs an extra check.
+     *
+     * @param resourceId the id of the order, vendor or courier that changed
+     */
+    public void invalidateResource(Long resourceId) {
+        invalidate(byResource, resourceId);
+    }
+
+    /**
+     * Removes all cached decisions.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            byUser.clear();
+            byResource.clear();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Gets the current number of decisions, including ones that expired but were not looked up since.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Gets the ratio of decisions that were served from the cache.
+     *
+     * @return the hit ratio between 0 and 1, 0 if there were no lookups yet
+     */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private void invalidate(Map<Long, Set<Key>> index, Long id) {
+        if (id == null) {
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            Set<Key> keys = index.get(id);
+            if (keys != null) {
+                for (Key key : List.copyOf(keys)) {
+                    entries.remove(key);
+                    unindex(key);
+                }
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Removes a decision from both indexes, must hold the lock on the entries.
+     */
+    private void unindex(Key key) {
+        unindex(byUser, key.userId, key);
+        unindex(byResource, key.resourceId, key);
+    }
+
+    private static void unindex(Map<Long, Set<Key>> index, Long id, Key key) {
+        Set<Key> keys = index.get(id);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(id);
+        }
+    }
+
+    private static final class Key {
+        private final Long userId;
+        private final String methodName;
+        private final Long resourceId;
+
+        private Key(Long userId, String methodName, Long resourceId) {
+            this.userId = userId;
+            this.methodName = methodName;
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId.equals(other.userId) && Objects.equals(methodName, other.methodName)
+                && resourceId.equals(other.resourceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, methodName, resourceId);
+        }
+    }
+}
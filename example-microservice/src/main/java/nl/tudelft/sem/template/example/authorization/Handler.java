@@ -3,39 +3,40 @@ package nl.tudelft.sem.template.example.authorization;
 import java.util.Optional;
 import org.springframework.http.ResponseEntity;
 
+/**
+ * Link of the authorization chain. The next link is fixed when the handler is created and handlers keep no state
+ * between calls, so one chain can be built at startup and shared by all requests.
+ */
 public abstract class Handler {
 
-    private Handler next;
+    private final Handler next;
+
+    protected Handler() {
+        this(null);
+    }
 
     /**
-     * Links the handlers in the chain together.
+     * Constructor for a handler that passes successful checks on to the next handler.
      *
-     * @param first The first handler in the chain.
-     * @param chain The rest of the handlers in the chain.
-     * @return The first handler in the chain.
+     * @param next The next handler in the chain, null if this is the last one.
      */
-    public static Handler link(Handler first, Handler... chain) {
-        Handler head = first;
-        for (Handler nextInChain : chain) {
-            head.next = nextInChain;
-            head = nextInChain;
-        }
-        return first;
+    protected Handler(Handler next) {
+        this.next = next;
     }
 
     /**
      * Check method that every handler needs to implement.
      *
      * @param authorization The ID of the user.
-     * @param methodName    The name of the method that was called.
+     * @param operation     The operation that was called.
      * @return An optional containing a ResponseEntity with an error message if a link fails or empty otherwise.
      */
-    public abstract Optional<ResponseEntity> check(Long authorization, String methodName, Long other);
+    public abstract Optional<ResponseEntity> check(Long authorization, Operation operation, Long other);
 
-    protected Optional<ResponseEntity> checkNext(Long authorization, String methodName, Long other) {
+    protected Optional<ResponseEntity> checkNext(Long authorization, Operation operation, Long other) {
         if (next == null) {
             return Optional.empty();
         }
-        return next.check(authorization, methodName, other);
+        return next.check(authorization, operation, other);
     }
 }
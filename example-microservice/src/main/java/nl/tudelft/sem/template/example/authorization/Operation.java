@@ -0,0 +1,110 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.COURIER;
+import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.CUSTOMER;
+import static nl.tudelft.sem.template.example.authorization.Authorization.UserType.VENDOR;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import nl.tudelft.sem.template.example.utils.DbUtils;
+
+/**
+ * Every operation that is guarded by the authorization chain, with the user types that may call it and the check
+ * of the user against the order, vendor or courier the call is about.
+ * Admins may call all operations and admin only methods go through AuthorizationService.authorizeAdminOnly,
+ * so neither needs an entry here. The user types are an EnumSet (a bitmask), so a permission check is a bit test.
+ */
+public enum Operation {
+
+    // OrderController
+    GET_NEXT_ORDER_FOR_VENDOR("getNextOrderForVendor", EnumSet.of(COURIER), DbUtils::courierBelongsToVendor),
+    GET_INDEPENDENT_ORDERS("getIndependentOrders", EnumSet.of(COURIER), DbUtils::courierBelongsToVendor),
+    CLAIM_NEXT_ORDER("claimNextOrder", EnumSet.of(COURIER), DbUtils::courierBelongsToVendor),
+    WAIT_FOR_NEXT_ORDER("waitForNextOrder", EnumSet.of(COURIER), DbUtils::courierBelongsToVendor),
+    GET_FINAL_DESTINATION("getFinalDestination", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+    GET_ORDER("getOrder", EnumSet.of(VENDOR), DbUtils::userBelongsToOrder),
+    GET_PICKUP_DESTINATION("getPickupDestination", EnumSet.of(COURIER), DbUtils::userBelongsToOrder),
+    UPDATE_ORDER("updateOrder", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+    GET_ORDER_RATING("getOrderRating", EnumSet.of(CUSTOMER, VENDOR), DbUtils::userBelongsToOrder),
+    PUT_ORDER_RATING("putOrderRating", EnumSet.of(CUSTOMER), DbUtils::userBelongsToOrder),
+    SET_DELIVER_TIME("setDeliverTime", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+    GET_ORDER_LOCATION("getOrderLocation", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+    UPDATE_LOCATION("updateLocation", EnumSet.of(COURIER), DbUtils::userBelongsToOrder),
+    // couriers can only send a batch with their own locations, the orders are checked per update
+    UPDATE_LOCATIONS("updateLocations", EnumSet.of(COURIER),
+        (dbUtils, userId, courierId) -> Objects.equals(userId, courierId)),
+    GET_ETA("getETA", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+    GET_ORDER_DISTANCE("getOrderDistance", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+
+    // StatusController
+    UPDATE_TO_ACCEPTED("updateToAccepted", EnumSet.of(VENDOR), DbUtils::userBelongsToOrder),
+    UPDATE_TO_REJECTED("updateToRejected", EnumSet.of(VENDOR), DbUtils::userBelongsToOrder),
+    UPDATE_TO_GIVEN_TO_COURIER("updateToGivenToCourier", EnumSet.of(VENDOR), DbUtils::userBelongsToOrder),
+    UPDATE_TO_IN_TRANSIT("updateToInTransit", EnumSet.of(COURIER), DbUtils::userBelongsToOrder),
+    UPDATE_TO_PREPARING("updateToPreparing", EnumSet.of(VENDOR), DbUtils::userBelongsToOrder),
+    UPDATE_TO_DELIVERED("updateToDelivered", EnumSet.of(COURIER), DbUtils::userBelongsToOrder),
+    GET_STATUS("getStatus", EnumSet.of(CUSTOMER, VENDOR, COURIER), DbUtils::userBelongsToOrder),
+
+    // UserController
+    UPDATE_BOSS_OF_COURIER("updateBossOfCourier", EnumSet.of(VENDOR), DbUtils::courierBelongsToVendor),
+    GET_COURIER_TRAJECTORY("getCourierTrajectory", EnumSet.of(COURIER, VENDOR), DbUtils::userIsCourierOrTheirVendor);
+
+    private final String methodName;
+    private final EnumSet<Authorization.UserType> allowed;
+    private final Validator validator;
+
+    Operation(String methodName, EnumSet<Authorization.UserType> allowed, Validator validator) {
+        this.methodName = methodName;
+        this.allowed = allowed;
+        this.validator = validator;
+    }
+
+    /**
+     * Gets the name of the controller method, used in logs and as part of the key of cached decisions.
+     *
+     * @return the method name
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Gets the user types that may call the operation, besides admins.
+     *
+     * @return a copy of the allowed user types
+     */
+    public Set<Authorization.UserType> getAllowed() {
+        return EnumSet.copyOf(allowed);
+    }
+
+    /**
+     * Checks if a user type may call the operation.
+     *
+     * @param userType the type of the user
+     * @return true if the user type is allowed
+     */
+    public boolean allows(Authorization.UserType userType) {
+        return allowed.contains(userType);
+    }
+
+    /**
+     * Checks the user against the order, vendor or courier the call is about.
+     *
+     * @param dbUtils the database utilities doing the check
+     * @param userId  the id of the user
+     * @param other   the id of the order, vendor or courier
+     * @return true if the user may call the operation for it
+     */
+    public boolean validate(DbUtils dbUtils, Long userId, Long other) {
+        return validator.validate(dbUtils, userId, other);
+    }
+
+    /**
+     * Check of a user against the resource of a call, bound to the DbUtils it runs on when it is called.
+     */
+    @FunctionalInterface
+    public interface Validator {
+        boolean validate(DbUtils dbUtils, Long userId, Long other);
+    }
+}
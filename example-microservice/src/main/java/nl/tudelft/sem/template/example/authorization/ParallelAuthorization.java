@@ -0,0 +1,190 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Runs the authorization of a read only request and its data fetch at the same time, so the latency of the
+ * request is the slowest of the two instead of their sum. The authorization runs on the request thread and the
+ * fetch on a bounded pool, the result of the fetch is only returned once the user is authorized. When the user is
+ * not, the result (or the exception) of the fetch is thrown away, so a 404 or a 500 cannot leak past a 403.
+ * Only use this for fetches without side effects, they also run for users that turn out not to be authorized.
+ * When the pool and its queue are full the request falls back to authorizing first and fetching after.
+ */
+public class ParallelAuthorization implements AutoCloseable {
+
+    private final AuthorizationService authorizationService;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder parallel = new LongAdder();
+    private final LongAdder sequential = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * Creates a new parallel authorization.
+     *
+     * @param authorizationService the authorization of the requests
+     * @param threads              the number of threads fetching at the same time, 0 disables the parallel mode
+     * @param queueSize            the number of fetches that can wait for a thread before requests fall back
+     *                             to the sequential mode
+     */
+    public ParallelAuthorization(AuthorizationService authorizationService, int threads, int queueSize) {
+        this.authorizationService = authorizationService;
+        this.executor = threads <= 0 ? null : newExecutor(threads, Math.max(1, queueSize));
+    }
+
+    /**
+     * Authorization that always authorizes first and fetches after, like the handlers did before.
+     *
+     * @param authorizationService the authorization of the requests
+     * @return a sequential authorization
+     */
+    public static ParallelAuthorization sequential(AuthorizationService authorizationService) {
+        return new ParallelAuthorization(authorizationService, 0, 0);
+    }
+
+    /**
+     * Checks if the user may call the operation while fetching the data of the response.
+     *
+     * @param userId    the id of the user
+     * @param operation the operation that was called
+     * @param other     id of order or vendor
+     * @param fetch     read only fetch of the response
+     * @param <T>       the type of the body of the response
+     * @return the response of the fetch if the user is authorized, otherwise the response of the authorization
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> authorizeAndFetch(Long userId, Operation operation, Long other,
+                                                   Supplier<ResponseEntity<T>> fetch) {
+        CompletableFuture<ResponseEntity<T>> future = submit(fetch);
+        if (future == null) {
+            sequential.increment();
+            Optional<ResponseEntity> auth = authorizationService.checkIfUserIsAuthorized(userId, operation, other);
+            return auth.isPresent() ? auth.get() : fetch.get();
+        }
+
+        parallel.increment();
+        Optional<ResponseEntity> auth;
+        try {
+            auth = authorizationService.checkIfUserIsAuthorized(userId, operation, other);
+        } catch (RuntimeException | Error e) {
+            future.cancel(false);
+            throw e;
+        }
+        if (auth.isPresent()) {
+            discarded.increment();
+            future.cancel(false);
+            return auth.get();
+        }
+        return await(future);
+    }
+
+    /**
+     * Starts the fetch on the pool.
+     *
+     * @param fetch the fetch of the response
+     * @param <T>   the type of the body of the response
+     * @return the future of the fetch, null if the parallel mode is disabled or the pool is full
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> fetch) {
+        if (executor == null) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(fetch, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the fetch and rethrows its exception if it failed.
+     *
+     * @param future the future of the fetch
+     * @param <T>    the type of the body of the response
+     * @return the response of the fetch
+     */
+    private static <T> ResponseEntity<T> await(CompletableFuture<ResponseEntity<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the fetch of the response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        // aborts when full, the caller then runs the request sequentially instead of fetching before authorizing
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), r -> {
+                Thread thread = new Thread(r, "authorized-fetch-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Gets the number of fetches that are running or waiting for a thread.
+     *
+     * @return the number of fetches in flight, 0 if the parallel mode is disabled
+     */
+    public int inFlightCount() {
+        return executor == null ? 0 : executor.getActiveCount() + executor.getQueue().size();
+    }
+
+    public long getParallelCount() {
+        return parallel.sum();
+    }
+
+    public long getSequentialCount() {
+        return sequential.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /**
+     * Stops the pool, fetches that already started are finished.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
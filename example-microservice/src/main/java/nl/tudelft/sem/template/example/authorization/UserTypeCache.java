@@ -0,0 +1,274 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import nl.tudelft.sem.template.example.utils.SingleFlight;
+
+/**
+ * Bounded, time based cache for the user types returned by the user microservice.
+ * Entries are evicted in least recently used order once the maximum size is reached and
+ * expire after a fixed time to live. Failed lookups (UserType.NAN) are cached as well,
+ * but with their own (usually shorter) time to live so the user service is not hammered
+ * for users that do not exist. A user service that cannot be reached is not an answer and is not cached,
+ * its circuit breaker keeps the lookups cheap while it is down.
+ * Concurrent misses for the same user are coalesced into a single call to the user service.
+ * When the user service cannot be reached the last known user type is served, as long as it is not older than
+ * the maximum staleness, so authorization keeps working while the user service is down.
+ */
+public class UserTypeCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long maxStaleNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Entry> entries;
+    private final SingleFlight<Long, Authorization.UserType> loads = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    /**
+     * Creates a new user type cache.
+     *
+     * @param maxSize     the maximum amount of users kept in the cache, 0 disables caching
+     * @param ttl         how long a successfully retrieved user type stays valid
+     * @param negativeTtl how long a failed lookup stays cached
+     */
+    public UserTypeCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new user type cache that serves the last known user types while the user service is unavailable.
+     *
+     * @param maxSize     the maximum amount of users kept in the cache, 0 disables caching
+     * @param ttl         how long a successfully retrieved user type stays valid
+     * @param negativeTtl how long a failed lookup stays cached
+     * @param maxStale    how long after it was retrieved a user type can still be served when the user service
+     *                    is unavailable, 0 disables serving stale user types
+     */
+    public UserTypeCache(int maxSize, Duration ttl, Duration negativeTtl, Duration maxStale) {
+        this(maxSize, ttl, negativeTtl, maxStale, System::nanoTime);
+    }
+
+    UserTypeCache(int maxSize, Duration ttl, Duration negativeTtl, LongSupplier clock) {
+        this(maxSize, ttl, negativeTtl, Duration.ZERO, clock);
+    }
+
+    UserTypeCache(int maxSize, Duration ttl, Duration negativeTtl, Duration maxStale, LongSupplier clock) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxStaleNanos = Math.max(0, maxStale.toNanos());
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                boolean evict = size() > UserTypeCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Cache that never stores anything, every lookup goes to the loader.
+     *
+     * @return a disabled cache
+     */
+    public static UserTypeCache disabled() {
+        return new UserTypeCache(0, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Returns the cached user type of the given user, or loads and caches it when it is missing or expired.
+     * The loader is called outside the lock, so a slow user service does not block lookups of other users,
+     * and only once for concurrent misses on the same user.
+     * When the loader throws, the last known user type is returned instead. Without one the exception is passed
+     * on and nothing is stored, so the next lookup asks the user service again.
+     *
+     * @param userId the id of the user
+     * @param loader function retrieving the user type, should return UserType.NAN when the user has no valid
+     *               type and throw when the user service is unavailable
+     * @return the user type of the user
+     */
+    public Authorization.UserType get(Long userId, Function<Long, Authorization.UserType> loader) {
+        Authorization.UserType cached = getIfPresent(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        if (userId == null) {
+            return loader.apply(null);
+        }
+        try {
+            return loads.execute(userId, () -> {
+                Authorization.UserType loaded = loader.apply(userId);
+                put(userId, loaded);
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            Authorization.UserType lastKnown = getLastKnown(userId);
+            if (lastKnown == null) {
+                throw e;
+            }
+            // nothing is stored, so the user service is asked again on the next lookup
+            staleHits.increment();
+            return lastKnown;
+        }
+    }
+
+    /**
+     * Returns the cached user type if it is present and not expired.
+     *
+     * @param userId the id of the user
+     * @return the user type, or null if there is no valid entry
+     */
+    public Authorization.UserType getIfPresent(Long userId) {
+        if (maxSize == 0 || userId == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - clock.getAsLong() <= 0) {
+                // expired user types are kept for when the user service is unavailable
+                if (maxStaleNanos == 0 || entry.userType == Authorization.UserType.NAN) {
+                    entries.remove(userId);
+                }
+                return null;
+            }
+            return entry.userType;
+        }
+    }
+
+    /**
+     * Returns the last user type that was retrieved for the user, even if it expired, as long as it is not older
+     * than the maximum staleness.
+     *
+     * @param userId the id of the user
+     * @return the last known user type, or null if there is none or it is too old
+     */
+    public Authorization.UserType getLastKnown(Long userId) {
+        if (maxSize == 0 || maxStaleNanos == 0 || userId == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry == null || entry.userType == Authorization.UserType.NAN
+                || clock.getAsLong() - entry.retrievedAt > maxStaleNanos) {
+                return null;
+            }
+            return entry.userType;
+        }
+    }
+
+    /**
+     * Stores the user type of a user, failed lookups get the negative time to live.
+     * A failed lookup also forgets the last known user type, the user service answered that the user has none.
+     *
+     * @param userId   the id of the user
+     * @param userType the user type to store
+     */
+    public void put(Long userId, Authorization.UserType userType) {
+        if (maxSize == 0 || userId == null || userType == null) {
+            return;
+        }
+        long ttl = userType == Authorization.UserType.NAN ? negativeTtlNanos : ttlNanos;
+        synchronized (entries) {
+            if (ttl <= 0) {
+                entries.remove(userId);
+                return;
+            }
+            long now = clock.getAsLong();
+            entries.put(userId, new Entry(userType, now + ttl, now));
+        }
+    }
+
+    /**
+     * Removes the cached user type of a user, for example after their role changed.
+     *
+     * @param userId the id of the user
+     */
+    public void invalidate(Long userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * Removes all cached user types.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the current number of entries, including ones that expired but were not looked up since.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getCoalescedCount() {
+        return loads.getCoalescedCount();
+    }
+
+    /**
+     * Gets the ratio of lookups that were served from the cache.
+     *
+     * @return the hit ratio between 0 and 1, 0 if there were no lookups yet
+     */
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private static final class Entry {
+        private final Authorization.UserType userType;
+        private final long expiresAt;
+        private final long retrievedAt;
+
+        private Entry(Authorization.UserType userType, long expiresAt, long retrievedAt) {
+            this.userType = userType;
+            this.expiresAt = expiresAt;
+            this.retrievedAt = retrievedAt;
+        }
+    }
+}
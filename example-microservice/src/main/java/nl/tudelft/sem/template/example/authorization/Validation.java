@@ -1,36 +1,52 @@
 package nl.tudelft.sem.template.example.authorization;
 
-import java.util.HashMap;
 import java.util.Optional;
-import java.util.function.BiFunction;
+import nl.tudelft.sem.template.example.utils.CallNotPermittedException;
 import nl.tudelft.sem.template.example.utils.DbUtils;
 import org.springframework.http.ResponseEntity;
 
 public class Validation extends Handler {
 
-    private final HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods;
     private final DbUtils dbUtils;
+    private final DecisionCache decisionCache;
 
-    public Validation(DbUtils dbUtils, HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods) {
+    public Validation(DbUtils dbUtils) {
+        this(dbUtils, DecisionCache.disabled(), null);
+    }
+
+    /**
+     * Constructor for a Validation handler that remembers its decisions for a short time.
+     *
+     * @param dbUtils       the dbUtils the checks of the operations run on
+     * @param decisionCache the cache for the outcome of the checks
+     * @param next          the next handler in the chain, null if this is the last one
+     */
+    public Validation(DbUtils dbUtils, DecisionCache decisionCache, Handler next) {
+        super(next);
         this.dbUtils = dbUtils;
-        this.validationMethods = validationMethods;
+        this.decisionCache = decisionCache;
     }
 
     /**
      * Validates a user based on the provided user ID and required order or vendor id.
      *
-     * @param userId     The ID of the user to be validated.
-     * @param methodName Name of the method that was called.
-     * @param other      The ID of the order or vendor to be validated.
+     * @param userId    The ID of the user to be validated.
+     * @param operation The operation that was called.
+     * @param other     The ID of the order or vendor to be validated.
      * @return An optional containing a ResponseEntity with an error message if validation fails, or empty if validated.
      */
     @Override
-    public Optional<ResponseEntity> check(Long userId, String methodName, Long other) {
+    public Optional<ResponseEntity> check(Long userId, Operation operation, Long other) {
         try {
-            if (validationMethods.get(methodName).apply(userId, other)) {
-                return checkNext(userId, methodName, other);
+            boolean allowed = decisionCache.get(userId, operation.getMethodName(), other,
+                () -> operation.validate(dbUtils, userId, other));
+            if (allowed) {
+                return checkNext(userId, operation, other);
             }
             return Optional.of(ResponseEntity.status(403).body("User with id " + userId + " does not have access rights"));
+        } catch (CallNotPermittedException e) {
+            // the order service is protected from more load, the user may well have access
+            return Optional.of(ResponseEntity.status(503).body("Service unavailable while validating"));
         } catch (Exception e) {
             return Optional.of(ResponseEntity.status(500).body("Error while validating"));
         }
@@ -0,0 +1,74 @@
+package nl.tudelft.sem.template.example.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.DecisionCache;
+import nl.tudelft.sem.template.example.authorization.ParallelAuthorization;
+import nl.tudelft.sem.template.example.authorization.UserTypeCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The authorization config.
+ */
+@Configuration
+public class AuthorizationConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public AuthorizationConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the cache in front of the user microservice.
+     *
+     * @return The user type cache.
+     */
+    @Bean
+    public UserTypeCache userTypeCache() {
+        int maxSize = environment.getProperty("authorization.user-type-cache.max-size", Integer.class, 10_000);
+        long ttl = environment.getProperty("authorization.user-type-cache.ttl-seconds", Long.class, 300L);
+        long negativeTtl = environment.getProperty("authorization.user-type-cache.negative-ttl-seconds", Long.class, 5L);
+        long maxStale = environment.getProperty("authorization.user-type-cache.max-stale-seconds", Long.class, 3600L);
+
+        return new UserTypeCache(maxSize, Duration.ofSeconds(ttl), Duration.ofSeconds(negativeTtl),
+            Duration.ofSeconds(maxStale));
+    }
+
+    /**
+     * Set up the cache for the outcome of the ownership checks.
+     *
+     * @return The decision cache.
+     */
+    @Bean
+    public DecisionCache decisionCache() {
+        int maxSize = environment.getProperty("authorization.decision-cache.max-size", Integer.class, 10_000);
+        long ttl = environment.getProperty("authorization.decision-cache.ttl-seconds", Long.class, 10L);
+
+        return new DecisionCache(maxSize, Duration.ofSeconds(ttl));
+    }
+
+    /**
+     * Set up the pool that fetches the responses of read only requests while they are authorized.
+     * It is only used when authorization.parallel-fetch.enabled is set, because unauthorized requests also cause
+     * the fetch. The pool is stopped when the application shuts down.
+     *
+     * @param authorizationService the authorization of the requests
+     * @return The parallel authorization.
+     */
+    @Bean(destroyMethod = "close")
+    public ParallelAuthorization parallelAuthorization(AuthorizationService authorizationService) {
+        boolean enabled = environment.getProperty("authorization.parallel-fetch.enabled", Boolean.class, false);
+        int threads = environment.getProperty("authorization.parallel-fetch.threads", Integer.class, 16);
+        int queueSize = environment.getProperty("authorization.parallel-fetch.queue-size", Integer.class, 64);
+
+        if (!enabled) {
+            return ParallelAuthorization.sequential(authorizationService);
+        }
+        return new ParallelAuthorization(authorizationService, threads, queueSize);
+    }
+}
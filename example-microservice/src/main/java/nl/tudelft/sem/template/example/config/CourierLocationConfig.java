@@ -0,0 +1,61 @@
+package nl.tudelft.sem.template.example.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import nl.tudelft.sem.template.example.domain.navigation.DistanceCalculator;
+import nl.tudelft.sem.template.example.domain.navigation.LocationHistory;
+import nl.tudelft.sem.template.example.domain.user.CourierLocationStore;
+import nl.tudelft.sem.template.example.domain.user.CourierRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The courier location config.
+ */
+@Configuration
+public class CourierLocationConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public CourierLocationConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the store of the latest courier locations.
+     * The remaining locations are written when the application shuts down.
+     *
+     * @param courierRepo        repo for couriers
+     * @param transactionManager used to write every flush in one transaction
+     * @return The courier location store.
+     */
+    @Bean(destroyMethod = "close")
+    public CourierLocationStore courierLocationStore(CourierRepository courierRepo,
+                                                     PlatformTransactionManager transactionManager) {
+        boolean writeThrough = environment.getProperty("courier.location.write-through", Boolean.class, false);
+        long interval = environment.getProperty("courier.location.flush-interval-ms", Long.class, 1000L);
+
+        CourierLocationStore store = new CourierLocationStore(courierRepo, new TransactionTemplate(transactionManager),
+            writeThrough);
+        store.start(Duration.ofMillis(interval));
+        return store;
+    }
+
+    /**
+     * Set up the history of the recent courier locations.
+     *
+     * @param distanceCalculator calculator for the distances between the points, used for the speed
+     * @return The location history.
+     */
+    @Bean
+    public LocationHistory locationHistory(DistanceCalculator distanceCalculator) {
+        int capacity = environment.getProperty("courier.location.history-size", Integer.class,
+            LocationHistory.DEFAULT_CAPACITY);
+
+        return new LocationHistory(distanceCalculator, capacity);
+    }
+}
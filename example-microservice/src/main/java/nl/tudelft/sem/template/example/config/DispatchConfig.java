@@ -0,0 +1,59 @@
+package nl.tudelft.sem.template.example.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The dispatch config.
+ */
+@Configuration
+public class DispatchConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public DispatchConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the pool the listeners of the dispatch index are called on.
+     * When the pool and its queue are full the notification is dropped instead of blocking the status change.
+     *
+     * @return The listener executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor dispatchListenerExecutor() {
+        int threads = environment.getProperty("dispatch.listeners.threads", Integer.class, 4);
+        int queueSize = environment.getProperty("dispatch.listeners.queue-size", Integer.class, 1000);
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), r -> {
+                Thread thread = new Thread(r, "dispatch-listener-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Set up the index of the orders that can be dispatched to couriers.
+     *
+     * @param listenerExecutor the pool the listeners are called on
+     * @return The dispatch index.
+     */
+    @Bean
+    public DispatchIndex dispatchIndex(@Qualifier("dispatchListenerExecutor") ThreadPoolExecutor listenerExecutor) {
+        return new DispatchIndex(listenerExecutor);
+    }
+}
@@ -0,0 +1,79 @@
+package nl.tudelft.sem.template.example.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import nl.tudelft.sem.template.example.utils.Bulkhead;
+import nl.tudelft.sem.template.example.utils.CircuitBreaker;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The config of the circuit breakers and bulkheads around the calls to the other microservices.
+ */
+@Configuration
+public class ExternalServiceConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public ExternalServiceConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the circuit breaker of the user microservice.
+     *
+     * @return The circuit breaker.
+     */
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker() {
+        return circuitBreaker("user-service");
+    }
+
+    /**
+     * Set up the bulkhead of the user microservice.
+     *
+     * @return The bulkhead.
+     */
+    @Bean
+    public Bulkhead userServiceBulkhead() {
+        return bulkhead("user-service");
+    }
+
+    /**
+     * Set up the circuit breaker of the order microservice.
+     *
+     * @return The circuit breaker.
+     */
+    @Bean
+    public CircuitBreaker orderServiceCircuitBreaker() {
+        return circuitBreaker("order-service");
+    }
+
+    /**
+     * Set up the bulkhead of the order microservice.
+     *
+     * @return The bulkhead.
+     */
+    @Bean
+    public Bulkhead orderServiceBulkhead() {
+        return bulkhead("order-service");
+    }
+
+    private CircuitBreaker circuitBreaker(String service) {
+        String prefix = "external." + service + ".circuit-breaker.";
+        int failureThreshold = environment.getProperty(prefix + "failure-threshold", Integer.class, 5);
+        long openMillis = environment.getProperty(prefix + "open-duration-ms", Long.class, 10_000L);
+
+        return new CircuitBreaker(service, failureThreshold, Duration.ofMillis(openMillis));
+    }
+
+    private Bulkhead bulkhead(String service) {
+        String prefix = "external." + service + ".bulkhead.";
+        int maxConcurrentCalls = environment.getProperty(prefix + "max-concurrent-calls", Integer.class, 32);
+        long maxWaitMillis = environment.getProperty(prefix + "max-wait-ms", Long.class, 100L);
+
+        return new Bulkhead(service, maxConcurrentCalls, Duration.ofMillis(maxWaitMillis));
+    }
+}
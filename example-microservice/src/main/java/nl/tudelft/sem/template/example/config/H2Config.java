@@ -1,5 +1,7 @@
 package nl.tudelft.sem.template.example.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import javax.sql.DataSource;
 import lombok.Getter;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
@@ -8,7 +10,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 
@@ -30,18 +31,28 @@ public class H2Config {
     }
 
     /**
-     * Set up the connection to the database.
+     * Set up the pool of connections to the database.
+     * Connections are reused between requests instead of opening a new one every time,
+     * the pool metrics are exported by the actuator under hikaricp.connections.
      *
      * @return The data source.
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(environment.getProperty("jdbc.driverClassName"));
-        dataSource.setUrl(environment.getProperty("jdbc.url"));
-        dataSource.setUsername(environment.getProperty("jdbc.user"));
-        dataSource.setPassword(environment.getProperty("jdbc.pass"));
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("delivery-db-pool");
+        config.setDriverClassName(environment.getProperty("jdbc.driverClassName"));
+        config.setJdbcUrl(environment.getProperty("jdbc.url"));
+        config.setUsername(environment.getProperty("jdbc.user"));
+        config.setPassword(environment.getProperty("jdbc.pass"));
 
-        return dataSource;
+        config.setMaximumPoolSize(environment.getProperty("jdbc.pool.max-size", Integer.class, 10));
+        config.setMinimumIdle(environment.getProperty("jdbc.pool.min-idle", Integer.class, 2));
+        config.setConnectionTimeout(environment.getProperty("jdbc.pool.connection-timeout-ms", Long.class, 3000L));
+        config.setIdleTimeout(environment.getProperty("jdbc.pool.idle-timeout-ms", Long.class, 600_000L));
+        config.setMaxLifetime(environment.getProperty("jdbc.pool.max-lifetime-ms", Long.class, 1_800_000L));
+        config.setLeakDetectionThreshold(environment.getProperty("jdbc.pool.leak-detection-ms", Long.class, 0L));
+
+        return new HikariDataSource(config);
     }
 }
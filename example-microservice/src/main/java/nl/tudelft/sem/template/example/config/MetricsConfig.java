@@ -0,0 +1,237 @@
+package nl.tudelft.sem.template.example.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import nl.tudelft.sem.template.example.authorization.DecisionCache;
+import nl.tudelft.sem.template.example.authorization.ParallelAuthorization;
+import nl.tudelft.sem.template.example.authorization.UserTypeCache;
+import nl.tudelft.sem.template.example.domain.navigation.LocationHistory;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.example.domain.user.CourierLocationStore;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
+import nl.tudelft.sem.template.example.utils.Bulkhead;
+import nl.tudelft.sem.template.example.utils.CircuitBreaker;
+import nl.tudelft.sem.template.example.utils.DbUtils;
+import nl.tudelft.sem.template.example.utils.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the statistics of the in-memory caches and buffers through the actuator metrics endpoint.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Binds the hit, miss and eviction counts and the size of the user type cache.
+     *
+     * @param cache the user type cache
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder userTypeCacheMetrics(UserTypeCache cache) {
+        return registry -> {
+            FunctionCounter.builder("authorization.user-type-cache.hits", cache, UserTypeCache::getHitCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.user-type-cache.misses", cache, UserTypeCache::getMissCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.user-type-cache.evictions", cache, UserTypeCache::getEvictionCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.user-type-cache.coalesced", cache, UserTypeCache::getCoalescedCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.user-type-cache.stale-hits", cache, UserTypeCache::getStaleHitCount)
+                .register(registry);
+            Gauge.builder("authorization.user-type-cache.size", cache, UserTypeCache::size)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the statistics of the authorization decision cache.
+     *
+     * @param cache the decision cache
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder decisionCacheMetrics(DecisionCache cache) {
+        return registry -> {
+            FunctionCounter.builder("authorization.decision-cache.hits", cache, DecisionCache::getHitCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.decision-cache.misses", cache, DecisionCache::getMissCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.decision-cache.evictions", cache, DecisionCache::getEvictionCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.decision-cache.invalidations", cache,
+                    DecisionCache::getInvalidationCount)
+                .register(registry);
+            Gauge.builder("authorization.decision-cache.size", cache, DecisionCache::size)
+                .register(registry);
+            Gauge.builder("authorization.decision-cache.hit-ratio", cache, DecisionCache::getHitRatio)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds how many read only requests were authorized while their response was fetched, how many fell back to
+     * authorizing first and how many fetches were thrown away because the user was not authorized.
+     *
+     * @param parallelAuthorization the parallel authorization of the read only requests
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder parallelAuthorizationMetrics(ParallelAuthorization parallelAuthorization) {
+        return registry -> {
+            FunctionCounter.builder("authorization.parallel-fetch.parallel", parallelAuthorization,
+                    ParallelAuthorization::getParallelCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.parallel-fetch.sequential", parallelAuthorization,
+                    ParallelAuthorization::getSequentialCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.parallel-fetch.rejected", parallelAuthorization,
+                    ParallelAuthorization::getRejectedCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.parallel-fetch.discarded", parallelAuthorization,
+                    ParallelAuthorization::getDiscardedCount)
+                .register(registry);
+            Gauge.builder("authorization.parallel-fetch.in-flight", parallelAuthorization,
+                    ParallelAuthorization::inFlightCount)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the number of executed and coalesced customer ownership checks against the order service.
+     *
+     * @param dbUtils the database utilities doing the ownership checks
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder customerCheckMetrics(DbUtils dbUtils) {
+        SingleFlight<?, ?> checks = dbUtils.getCustomerChecks();
+        return registry -> {
+            FunctionCounter.builder("authorization.customer-checks.executed", checks, SingleFlight::getExecutionCount)
+                .register(registry);
+            FunctionCounter.builder("authorization.customer-checks.coalesced", checks, SingleFlight::getCoalescedCount)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the number of orders in the dispatch index and the notifications of its listeners.
+     *
+     * @param dispatchIndex the index of orders that can be dispatched to couriers
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder dispatchIndexMetrics(DispatchIndex dispatchIndex) {
+        return registry -> {
+            Gauge.builder("dispatch.index.size", dispatchIndex, DispatchIndex::size)
+                .register(registry);
+            FunctionCounter.builder("dispatch.listeners.dropped", dispatchIndex,
+                DispatchIndex::getDroppedNotificationCount).register(registry);
+            FunctionCounter.builder("dispatch.listeners.failed", dispatchIndex, DispatchIndex::getListenerFailureCount)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the number of vendors in the spatial index.
+     *
+     * @param spatialIndex the index of vendor locations
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder vendorSpatialIndexMetrics(VendorSpatialIndex spatialIndex) {
+        return registry -> Gauge.builder("vendor.spatial.index.size", spatialIndex, VendorSpatialIndex::size)
+            .register(registry);
+    }
+
+    /**
+     * Binds the number of courier locations waiting to be written, how long they have been waiting and how many
+     * updates were coalesced into how many row writes.
+     *
+     * @param store the store of the latest courier locations
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder courierLocationMetrics(CourierLocationStore store) {
+        return registry -> {
+            Gauge.builder("courier.location.pending", store, CourierLocationStore::pendingCount)
+                .register(registry);
+            Gauge.builder("courier.location.flush.lag", store, CourierLocationStore::currentLagMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+            Gauge.builder("courier.location.flush.last-lag", store, CourierLocationStore::lastFlushLagMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+            FunctionCounter.builder("courier.location.updates", store, CourierLocationStore::updateCount)
+                .register(registry);
+            FunctionCounter.builder("courier.location.written", store, CourierLocationStore::writtenRowCount)
+                .register(registry);
+            FunctionCounter.builder("courier.location.flush.failures", store, CourierLocationStore::failedFlushCount)
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the number of couriers with a location history and the memory their points take.
+     *
+     * @param history the history of the recent courier locations
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder locationHistoryMetrics(LocationHistory history) {
+        return registry -> {
+            Gauge.builder("courier.location.history.couriers", history, LocationHistory::courierCount)
+                .register(registry);
+            Gauge.builder("courier.location.history.memory", history, LocationHistory::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+            Gauge.builder("courier.location.history.max-per-courier", history, LocationHistory::maxBytesPerCourier)
+                .baseUnit("bytes")
+                .register(registry);
+        };
+    }
+
+    /**
+     * Binds the state and call counts of the circuit breakers and the calls in flight of the bulkheads around the
+     * other microservices, tagged with the name of the service.
+     *
+     * @param circuitBreakers the circuit breakers
+     * @param bulkheads       the bulkheads
+     * @return The meter binder.
+     */
+    @Bean
+    public MeterBinder externalServiceMetrics(List<CircuitBreaker> circuitBreakers, List<Bulkhead> bulkheads) {
+        return registry -> {
+            for (CircuitBreaker breaker : circuitBreakers) {
+                // 0 closed, 1 open, 2 half open
+                Gauge.builder("external.circuit-breaker.state", breaker, b -> b.getState().ordinal())
+                    .tag("service", breaker.getName())
+                    .register(registry);
+                FunctionCounter.builder("external.circuit-breaker.successes", breaker, CircuitBreaker::getSuccessCount)
+                    .tag("service", breaker.getName())
+                    .register(registry);
+                FunctionCounter.builder("external.circuit-breaker.failures", breaker, CircuitBreaker::getFailureCount)
+                    .tag("service", breaker.getName())
+                    .register(registry);
+                FunctionCounter.builder("external.circuit-breaker.rejected", breaker, CircuitBreaker::getRejectedCount)
+                    .tag("service", breaker.getName())
+                    .register(registry);
+                FunctionCounter.builder("external.circuit-breaker.opened", breaker, CircuitBreaker::getOpenedCount)
+                    .tag("service", breaker.getName())
+                    .register(registry);
+            }
+            for (Bulkhead bulkhead : bulkheads) {
+                Gauge.builder("external.bulkhead.active", bulkhead, Bulkhead::activeCount)
+                    .tag("service", bulkhead.getName())
+                    .register(registry);
+                FunctionCounter.builder("external.bulkhead.rejected", bulkhead, Bulkhead::getRejectedCount)
+                    .tag("service", bulkhead.getName())
+                    .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package nl.tudelft.sem.template.example.config;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The config of the HTTP client used to talk to the other microservices.
+ */
+@Configuration
+public class RestTemplateConfig {
+
+    @Getter
+    private final Environment environment;
+
+    public RestTemplateConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Set up the pool of connections to the other microservices, connections are kept alive and reused.
+     *
+     * @return The connection manager.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager externalConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+            environment.getProperty("external.http.connection-ttl-seconds", Long.class, 60L), TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(environment.getProperty("external.http.max-total", Integer.class, 200));
+        connectionManager.setDefaultMaxPerRoute(environment.getProperty("external.http.max-per-route", Integer.class, 50));
+        connectionManager.setValidateAfterInactivity(
+            environment.getProperty("external.http.validate-after-inactivity-ms", Integer.class, 2000));
+
+        return connectionManager;
+    }
+
+    /**
+     * Set up the HTTP client with timeouts, so a slow microservice can not block our threads indefinitely.
+     *
+     * @param connectionManager the pool of connections
+     * @return The HTTP client.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient externalHttpClient(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(environment.getProperty("external.http.connect-timeout-ms", Integer.class, 1000))
+            .setSocketTimeout(environment.getProperty("external.http.read-timeout-ms", Integer.class, 2000))
+            .setConnectionRequestTimeout(
+                environment.getProperty("external.http.connection-request-timeout-ms", Integer.class, 500))
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(
+                environment.getProperty("external.http.idle-eviction-seconds", Long.class, 30L), TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Set up the rest template shared by the clients of the other microservices.
+     *
+     * @param httpClient the pooled HTTP client
+     * @return The rest template.
+     */
+    @Bean
+    public RestTemplate externalRestTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+}
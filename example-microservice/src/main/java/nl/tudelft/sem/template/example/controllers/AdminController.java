@@ -3,6 +3,7 @@ package nl.tudelft.sem.template.example.controllers;
 import static nl.tudelft.sem.template.example.authorization.AuthorizationService.doesNotHaveAuthority;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -12,6 +13,7 @@ import nl.tudelft.sem.template.example.domain.admin.AdminService;
 import nl.tudelft.sem.template.model.DeliveryException;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -250,6 +252,8 @@ public class AdminController implements AdminApi {
      * Return the couriers efficiencies
      *
      * @param authorization The userId to check if they have the rights to make this request (required)
+     * @param from          only use orders delivered at or after this time (optional)
+     * @param to            only use orders delivered before this time (optional)
      * @return Successful response, courier efficiencies received by admin (status code 200)
      *         or Unsuccessful, courier efficiencies cannot be retrieved because of a bad request (status code 400)
      *         or Unsuccessful, entity does not have access rights to retrieve courier efficiencies (status code 403)
@@ -258,14 +262,18 @@ public class AdminController implements AdminApi {
     @Override
     @GetMapping("/analytics/courier-efficiency")
     public ResponseEntity<Map<String, Double>> getCourierEfficiencies(
-        @RequestParam(name = "authorization") Long authorization
+        @RequestParam(name = "authorization") Long authorization,
+        @RequestParam(name = "from", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+        @RequestParam(name = "to", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to
     ) {
         var auth = authorizationService.authorizeAdminOnly(authorization);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<Map<String, Double>> res = adminService.getCouriersEfficiencies();
+        Optional<Map<String, Double>> res = adminService.getCouriersEfficiencies(from, to);
 
         return res.map(stringDoubleMap -> new ResponseEntity<>(stringDoubleMap, HttpStatus.OK))
             .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -2,28 +2,44 @@ package nl.tudelft.sem.template.example.controllers;
 
 import static nl.tudelft.sem.template.example.authorization.AuthorizationService.doesNotHaveAuthority;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
 import lombok.Getter;
 import lombok.Setter;
 import nl.tudelft.sem.template.api.OrderApi;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
+import nl.tudelft.sem.template.example.authorization.ParallelAuthorization;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.order.orderstrategy.GeneralOrdersStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.IndexedGeneralOrdersStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.IndexedOrderPerVendorStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.NearbyOrdersStrategy;
 import nl.tudelft.sem.template.example.domain.order.orderstrategy.NextOrderStrategy;
 import nl.tudelft.sem.template.example.domain.order.orderstrategy.OrderPerVendorStrategy;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.CourierLocationResult;
+import nl.tudelft.sem.template.model.CourierLocationUpdate;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -33,17 +49,32 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
 @RequestMapping("/order")
 public class OrderController implements OrderApi {
 
+    public static final int STREAM_BATCH_SIZE = 500;
+    public static final long DEFAULT_WAIT_SECONDS = 30;
+    public static final long MAX_WAIT_SECONDS = 120;
+    public static final long EVENTS_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    public static final int MAX_LOCATION_BATCH_SIZE = 10_000;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final OrderService orderService;
     private final AuthorizationService authorizationService;
     private final OrderRepository orderRepository;
     private final VendorRepository vendorRepository;
     private final CourierService courierService;
+    private final ObjectMapper objectMapper;
+    private final DispatchIndex dispatchIndex;
+    private final VendorSpatialIndex spatialIndex;
+    // authorizes the read only requests while their response is fetched
+    private final ParallelAuthorization parallelAuthorization;
     @Getter
     @Setter
     private NextOrderStrategy strategy;
@@ -56,16 +87,25 @@ public class OrderController implements OrderApi {
      * @param authorizationService authorization
      * @param orderRepository Repo for orders
      * @param vendorRepository Repo for Vendors
+     * @param objectMapper mapper used to write the streamed orders
+     * @param dispatchIndex index the next order strategies are served from
+     * @param spatialIndex index of the vendor locations, for the nearby orders
+     * @param parallelAuthorization authorization of the read only requests, while their response is fetched
      */
     @Autowired
     public OrderController(OrderService orderService, CourierService courierService,
                            AuthorizationService authorizationService, OrderRepository orderRepository,
-                           VendorRepository vendorRepository) {
+                           VendorRepository vendorRepository, ObjectMapper objectMapper, DispatchIndex dispatchIndex,
+                           VendorSpatialIndex spatialIndex, ParallelAuthorization parallelAuthorization) {
         this.orderService = orderService;
         this.courierService = courierService;
         this.authorizationService = authorizationService;
         this.orderRepository = orderRepository;
         this.vendorRepository = vendorRepository;
+        this.objectMapper = objectMapper;
+        this.dispatchIndex = dispatchIndex;
+        this.spatialIndex = spatialIndex;
+        this.parallelAuthorization = parallelAuthorization;
     }
 
 
@@ -93,13 +133,13 @@ public class OrderController implements OrderApi {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "getNextOrderForVendor",
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.GET_NEXT_ORDER_FOR_VENDOR,
                     courier.get().getBossId());
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        this.setStrategy(new OrderPerVendorStrategy(orderRepository));
+        this.setStrategy(new IndexedOrderPerVendorStrategy(dispatchIndex, new OrderPerVendorStrategy(orderRepository)));
         Optional<List<Order>> orders = strategy.availableOrders(Optional.of(vendorId));
 
         return getOrderResponseEntity(orders);
@@ -144,12 +184,13 @@ public class OrderController implements OrderApi {
     public ResponseEntity<List<Order>> getIndependentOrders(
         @RequestParam(value = "authorization") Long authorization) {
         var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-                "getIndependentOrders", authorization);
+                Operation.GET_INDEPENDENT_ORDERS, authorization);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        this.setStrategy(new GeneralOrdersStrategy(orderRepository, vendorRepository));
+        this.setStrategy(new IndexedGeneralOrdersStrategy(dispatchIndex,
+            new GeneralOrdersStrategy(orderRepository)));
         Optional<List<Order>> orders = strategy.availableOrders(Optional.empty());
 
         if (orders.isEmpty() || orders.get().isEmpty()) {
@@ -159,6 +200,215 @@ public class OrderController implements OrderApi {
         return new ResponseEntity<>(orders.get(), HttpStatus.OK);
     }
 
+    /**
+     * GET /order/unassigned/nearby : Retrieve the independent and unassigned orders that can be delivered from
+     * the current location of the courier.
+     * Like getIndependentOrders, but only orders of vendors whose radius covers the current location
+     * of the calling courier are returned.
+     *
+     * @param authorization The userId of the courier (required)
+     * @return Successful response, nearby independent and unassigned orders received (status code 200)
+     *         or Unsuccessful, the current location of the courier is not known (status code 400)
+     *         or Unsuccessful, entity does not have access rights to retrieve independent and unassigned orders
+     *         (status code 403)
+     *         or Unsuccessful, no nearby independent and unassigned orders were found (status code 404)
+     */
+    @Override
+    @GetMapping("/unassigned/nearby")
+    public ResponseEntity<List<Order>> getNearbyIndependentOrders(
+        @RequestParam(value = "authorization") Long authorization) {
+        Optional<Courier> courier = courierService.getCourierById(authorization);
+        if (courier.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization,
+                Operation.GET_INDEPENDENT_ORDERS, authorization);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        this.setStrategy(new NearbyOrdersStrategy(dispatchIndex, spatialIndex, vendorRepository,
+            new IndexedGeneralOrdersStrategy(dispatchIndex, new GeneralOrdersStrategy(orderRepository)),
+            courier.get().getCurrentLocation()));
+        Optional<List<Order>> orders = strategy.availableOrders(Optional.empty());
+
+        if (orders.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (orders.get().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        return new ResponseEntity<>(orders.get(), HttpStatus.OK);
+    }
+
+    /**
+     * POST /order/claim : Claim the next available order.
+     * Assigns the next unassigned order that is being prepared to the calling courier,
+     * an order of their vendor if they have one, an independent order otherwise.
+     *
+     * @param authorization The userId of the courier claiming the order (required)
+     * @return Successful response, the order is assigned to the courier (status code 200)
+     *         or Unsuccessful, entity does not have access rights to claim orders (status code 403)
+     *         or Unsuccessful, there is no order available to claim (status code 404)
+     */
+    @Override
+    @PostMapping("/claim")
+    public ResponseEntity<Order> claimNextOrder(@RequestParam(value = "authorization") Long authorization) {
+        Optional<Courier> courier = courierService.getCourierById(authorization);
+
+        // extra check outside of authorization added to be able to get the vendor id
+        if (courier.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+
+        Long vendorId = courier.get().getBossId();
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.CLAIM_NEXT_ORDER, vendorId);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        Optional<Order> claimed = orderService.claimNextOrder(authorization, vendorId);
+        claimed.ifPresent(order -> authorizationService.invalidateResourceDecisions(order.getId()));
+        return claimed.map(order -> new ResponseEntity<>(order, HttpStatus.OK))
+            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * GET /order/available : Wait for orders the calling courier can be dispatched to.
+     * Long-poll variant of getNextOrderForVendor and getIndependentOrders: the request is answered right away
+     * if there are orders available, otherwise it is held open until an order reaches PREPARING or the timeout passes.
+     * Couriers of a vendor get the next order of their vendor, independent couriers all independent orders.
+     *
+     * @param authorization The userId of the waiting courier (required)
+     * @param timeout       How many seconds to wait at most, capped at MAX_WAIT_SECONDS (optional)
+     * @return Successful response, the available orders (status code 200)
+     *         or Unsuccessful, the timeout is not positive (status code 400)
+     *         or Unsuccessful, entity does not have access rights to wait for orders (status code 403)
+     *         or Unsuccessful, no order became available before the timeout (status code 404)
+     */
+    @GetMapping("/available")
+    public DeferredResult<ResponseEntity<List<Order>>> waitForNextOrder(
+        @RequestParam(value = "authorization") Long authorization,
+        @RequestParam(value = "timeout", required = false) Long timeout) {
+        long seconds = timeout == null ? DEFAULT_WAIT_SECONDS : Math.min(timeout, MAX_WAIT_SECONDS);
+        DeferredResult<ResponseEntity<List<Order>>> result =
+            new DeferredResult<>(seconds * 1000, new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        if (seconds <= 0) {
+            result.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            return result;
+        }
+
+        Optional<Courier> courier = courierService.getCourierById(authorization);
+        if (courier.isEmpty()) {
+            result.setResult(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+            return result;
+        }
+
+        Long vendorId = courier.get().getBossId();
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.WAIT_FOR_NEXT_ORDER, vendorId);
+        if (doesNotHaveAuthority(auth)) {
+            result.setResult(auth.get());
+            return result;
+        }
+
+        Consumer<Long> listener = changedVendorId -> {
+            if (isFor(vendorId, changedVendorId)) {
+                List<Order> orders = availableOrders(vendorId);
+                if (!orders.isEmpty()) {
+                    result.setResult(new ResponseEntity<>(orders, HttpStatus.OK));
+                }
+            }
+        };
+        dispatchIndex.addListener(listener);
+        result.onCompletion(() -> dispatchIndex.removeListener(listener));
+
+        // checked after registering, so an order that arrives in between is not missed
+        List<Order> orders = availableOrders(vendorId);
+        if (!orders.isEmpty()) {
+            result.setResult(new ResponseEntity<>(orders, HttpStatus.OK));
+        }
+        return result;
+    }
+
+    /**
+     * GET /order/available/events : Stream the orders the calling courier can be dispatched to as server-sent events.
+     * An "orders" event with the available orders is sent when the stream is opened, if there are any,
+     * and every time an order for the courier reaches PREPARING. The stream is closed after EVENTS_TIMEOUT_MILLIS,
+     * clients are expected to reconnect.
+     *
+     * @param authorization The userId of the waiting courier (required)
+     * @return Successful response, the event stream (status code 200)
+     *         or Unsuccessful, entity does not have access rights to wait for orders (status code 403)
+     */
+    @GetMapping(value = "/available/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailableOrders(
+        @RequestParam(value = "authorization") Long authorization) {
+        Optional<Courier> courier = courierService.getCourierById(authorization);
+        if (courier.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+
+        Long vendorId = courier.get().getBossId();
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.WAIT_FOR_NEXT_ORDER, vendorId);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MILLIS);
+        Consumer<Long> listener = new Consumer<>() {
+            @Override
+            public void accept(Long changedVendorId) {
+                if (!isFor(vendorId, changedVendorId)) {
+                    return;
+                }
+                List<Order> orders = availableOrders(vendorId);
+                if (orders.isEmpty()) {
+                    return;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name("orders").data(orders, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away, stop sending to it
+                    dispatchIndex.removeListener(this);
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+        dispatchIndex.addListener(listener);
+        emitter.onCompletion(() -> dispatchIndex.removeListener(listener));
+        emitter.onTimeout(() -> dispatchIndex.removeListener(listener));
+        emitter.onError(e -> dispatchIndex.removeListener(listener));
+
+        listener.accept(vendorId);
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    /**
+     * Checks if a new dispatchable order of a vendor can go to a waiting courier.
+     *
+     * @param vendorId        the id of the vendor of the courier, null for independent couriers
+     * @param changedVendorId the id of the vendor of the new order
+     * @return true if the courier of the vendor, or an independent courier when the vendor has no couriers of their own
+     */
+    private boolean isFor(Long vendorId, Long changedVendorId) {
+        return vendorId == null ? dispatchIndex.isIndependent(changedVendorId) : vendorId.equals(changedVendorId);
+    }
+
+    /**
+     * Gets the orders a courier can currently be dispatched to, from the same strategies as the polling endpoints.
+     *
+     * @param vendorId the id of the vendor of the courier, null for independent couriers
+     * @return the available orders, empty if there are none
+     */
+    private List<Order> availableOrders(Long vendorId) {
+        NextOrderStrategy nextOrderStrategy = vendorId == null
+            ? new IndexedGeneralOrdersStrategy(dispatchIndex, new GeneralOrdersStrategy(orderRepository))
+            : new IndexedOrderPerVendorStrategy(dispatchIndex, new OrderPerVendorStrategy(orderRepository));
+        return nextOrderStrategy.availableOrders(Optional.ofNullable(vendorId)).orElseGet(List::of);
+    }
+
     /**
      * GET /order/{orderId}/final-destination : Get the final destination of a specific order.
      * Retrieve the final destination of an order.
@@ -175,16 +425,13 @@ public class OrderController implements OrderApi {
         @RequestParam(name = "authorization") Long authorization,
         @PathVariable(name = "orderId") Long orderId
     ) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-                "getFinalDestination", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
-        Optional<Location> location = orderService.getFinalDestinationOfOrder(orderId);
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_FINAL_DESTINATION, orderId, () -> {
+            Optional<Location> location = orderService.getFinalDestinationOfOrder(orderId);
 
-        // 404 not found if not found :(
-        return location.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            // 404 not found if not found :(
+            return location.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        });
     }
 
     /**
@@ -204,14 +451,11 @@ public class OrderController implements OrderApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization
     ) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "getOrder", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
-
-        Optional<Order> o = orderService.getOrderById(orderId);
-        return o.map(order -> new ResponseEntity<>(order, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_ORDER, orderId, () -> {
+            Optional<Order> o = orderService.getOrderById(orderId);
+            return o.map(order -> new ResponseEntity<>(order, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        });
     }
 
     /**
@@ -237,6 +481,77 @@ public class OrderController implements OrderApi {
             .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * GET /order/page : Retrieve one page of orders.
+     * Return the orders ordered by id, starting after the given cursor.
+     *
+     * @param authorization The userId to check if they have the rights to make this request (required)
+     * @param afterId       cursor, only orders with a larger id are returned (optional)
+     * @param size          the maximum number of orders in the page (optional, default to 100)
+     * @return Successful response, page of orders received (status code 200)
+     *         or Unsuccessful, page cannot be retrieved because of bad request (status code 400)
+     *         or Unsuccessful, entity does not have access rights to retrieve all orders (status code 403)
+     */
+    @Override
+    @GetMapping("/page")
+    public ResponseEntity<OrderPage> getOrdersPage(
+        @RequestParam(name = "authorization") Long authorization,
+        @RequestParam(name = "afterId", required = false) Long afterId,
+        @RequestParam(name = "size", required = false, defaultValue = "100") Integer size) {
+        var auth = authorizationService.authorizeAdminOnly(authorization);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        if (size == null || size <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<Order> orders = orderService.getOrdersAfter(afterId, size);
+        OrderPage page = new OrderPage();
+        page.setOrders(orders);
+        // a page that is not full is the last one, so there is no need for another round trip
+        if (orders.size() == Math.min(size, OrderService.MAX_PAGE_SIZE)) {
+            page.setNextCursor(orders.get(orders.size() - 1).getId());
+        }
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * GET /order/stream : Stream all orders as newline delimited JSON.
+     * The orders are read from the database in pages of STREAM_BATCH_SIZE and each page is written
+     * and flushed before the next one is read, so memory use does not grow with the number of orders.
+     *
+     * @param authorization The userId to check if they have the rights to make this request (required)
+     * @return Successful response, one order object per line (status code 200)
+     *         or Unsuccessful, entity does not have access rights to retrieve all orders (status code 403)
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+        @RequestParam(name = "authorization") Long authorization) {
+        var auth = authorizationService.authorizeAdminOnly(authorization);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Long cursor = null;
+            List<Order> batch;
+            do {
+                batch = orderService.getOrdersAfter(cursor, STREAM_BATCH_SIZE);
+                for (Order order : batch) {
+                    outputStream.write(objectMapper.writeValueAsBytes(order));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                if (!batch.isEmpty()) {
+                    cursor = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == STREAM_BATCH_SIZE);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     /**
      * GET /order/{orderId}/pickup-destination : Retrieve vendor location of the order.
      * Return the vendor location of the specified order.
@@ -255,16 +570,12 @@ public class OrderController implements OrderApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization
     ) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-                "getPickupDestination", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_PICKUP_DESTINATION, orderId, () -> {
+            Optional<Location> pickup = orderService.getPickupDestination(orderId);
 
-        Optional<Location> pickup = orderService.getPickupDestination(orderId);
-
-        return pickup.map(location -> new ResponseEntity<>(location, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            return pickup.map(location -> new ResponseEntity<>(location, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        });
     }
 
     /**
@@ -321,7 +632,7 @@ public class OrderController implements OrderApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization,
         @Parameter(name = "Order") @RequestBody @Valid Order order) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "updateOrder", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_ORDER, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -331,6 +642,8 @@ public class OrderController implements OrderApi {
         if (response.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // the update can change the vendor or courier of the order
+        authorizationService.invalidateResourceDecisions(orderId);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -353,15 +666,12 @@ public class OrderController implements OrderApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization
     ) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "getOrderRating", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
-
-        Optional<BigDecimal> currentRating = orderService.getRating(orderId);
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_ORDER_RATING, orderId, () -> {
+            Optional<BigDecimal> currentRating = orderService.getRating(orderId);
 
-        return currentRating.map(bigDecimal -> new ResponseEntity<>(bigDecimal, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            return currentRating.map(bigDecimal -> new ResponseEntity<>(bigDecimal, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        });
     }
 
     /**
@@ -384,7 +694,7 @@ public class OrderController implements OrderApi {
         @RequestParam(name = "authorization") Long authorization,
         @RequestBody @Valid BigDecimal body
     ) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "putOrderRating", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.PUT_ORDER_RATING, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -434,6 +744,7 @@ public class OrderController implements OrderApi {
         if (updated.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        authorizationService.invalidateResourceDecisions(orderId);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -460,7 +771,7 @@ public class OrderController implements OrderApi {
         @RequestBody @Valid String body
     ) {
         var auth =
-            authorizationService.checkIfUserIsAuthorized(authorization, "setDeliverTime", orderId);
+            authorizationService.checkIfUserIsAuthorized(authorization, Operation.SET_DELIVER_TIME, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -490,20 +801,16 @@ public class OrderController implements OrderApi {
     public ResponseEntity<Location> getOrderLocation(
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization) {
-        var auth = authorizationService
-            .checkIfUserIsAuthorized(authorization, "getOrderLocation", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
-
-        Optional<Order> order = orderService.getOrderById(orderId);
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        Optional<Location> res = orderService.getOrderLocation(order.get());
-
-        return res.map(location -> new ResponseEntity<>(location, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_ORDER_LOCATION, orderId, () -> {
+            Optional<Order> order = orderService.getOrderById(orderId);
+            if (order.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            Optional<Location> res = orderService.getOrderLocation(order.get());
+
+            return res.map(location -> new ResponseEntity<>(location, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        });
     }
 
     /**
@@ -525,7 +832,7 @@ public class OrderController implements OrderApi {
         @RequestParam(name = "authorization") Long authorization,
         @RequestBody Location location) {
         var auth = authorizationService
-            .checkIfUserIsAuthorized(authorization, "updateLocation", orderId);
+            .checkIfUserIsAuthorized(authorization, Operation.UPDATE_LOCATION, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -544,6 +851,37 @@ public class OrderController implements OrderApi {
 
     }
 
+    /**
+     * POST /order/locations : Update the current locations of many couriers at once.
+     * The caller is authorized once for the whole batch: a courier can only send their own locations,
+     * an admin, like a fleet gateway, can send the locations of any courier. Every update gets its own result.
+     *
+     * @param authorization The userId to check if they have the rights to make this request (required)
+     * @param updates       The location updates (required)
+     * @return Successful response, the result of every location update (status code 200)
+     *         or Unsuccessful, the batch is empty or too large (status code 400)
+     *         or Unsuccessful, entity does not have access rights to update these locations (status code 403)
+     */
+    @Override
+    @PostMapping("/locations")
+    public ResponseEntity<List<CourierLocationResult>> updateLocations(
+        @RequestParam(name = "authorization") Long authorization,
+        @RequestBody List<CourierLocationUpdate> updates) {
+        if (updates == null || updates.isEmpty() || updates.size() > MAX_LOCATION_BATCH_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // a batch of a single courier is validated against that courier, a batch of several only passes for admins
+        Set<Long> courierIds = updates.stream().map(CourierLocationUpdate::getCourierId).collect(Collectors.toSet());
+        Long courierId = courierIds.size() == 1 ? courierIds.iterator().next() : null;
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_LOCATIONS, courierId);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        return new ResponseEntity<>(orderService.updateLocations(updates), HttpStatus.OK);
+    }
+
     /**
      * GET /order/{orderId}/ETA : Get the ETA of an order.
      * return the ETA of an order
@@ -561,9 +899,9 @@ public class OrderController implements OrderApi {
     public ResponseEntity<OffsetDateTime> getETA(
         @RequestParam(value = "authorization", required = true) Long authorization,
         @PathVariable(name = "orderId") Long orderId) {
-
+        // not fetched in parallel, the first estimate is stored as the expected delivery time of the order
         var auth =
-            authorizationService.checkIfUserIsAuthorized(authorization, "getETA", orderId);
+            authorizationService.checkIfUserIsAuthorized(authorization, Operation.GET_ETA, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -571,7 +909,6 @@ public class OrderController implements OrderApi {
         Optional<OffsetDateTime> eta = orderService.getEta(orderId);
         return eta.map(offsetDateTime -> new ResponseEntity<>(offsetDateTime, HttpStatus.OK))
             .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
-
     }
 
     /**
@@ -592,15 +929,11 @@ public class OrderController implements OrderApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(value = "authorization") Long authorization
     ) {
-        var auth =
-            authorizationService.checkIfUserIsAuthorized(authorization, "getOrderDistance", orderId);
-        if (doesNotHaveAuthority(auth)) {
-            return auth.get();
-        }
-
-        Optional<Float> distance = orderService.getDistance(orderId);
-        return distance.map(flt -> new ResponseEntity<>(flt, HttpStatus.OK))
-            .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        return parallelAuthorization.authorizeAndFetch(authorization, Operation.GET_ORDER_DISTANCE, orderId, () -> {
+            Optional<Float> distance = orderService.getDistance(orderId);
+            return distance.map(flt -> new ResponseEntity<>(flt, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        });
     }
 
 }
@@ -6,9 +6,10 @@ import java.util.Optional;
 import javax.validation.Valid;
 import nl.tudelft.sem.template.api.StatusApi;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.order.StatusService;
-import nl.tudelft.sem.template.model.DeliveryException;
+import nl.tudelft.sem.template.example.domain.order.StatusTransition;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.UpdateToDeliveredRequest;
 import nl.tudelft.sem.template.model.UpdateToGivenToCourierRequest;
@@ -63,23 +64,12 @@ public class StatusController implements StatusApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization) {
 
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "updateToAccepted", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_TO_ACCEPTED, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<ResponseEntity<Void>> checkPrev = checkPrevStatus(orderId, Order.StatusEnum.PENDING);
-        // if present, then the previous status was not right and we cannot accept order
-        if (checkPrev.isPresent()) {
-            return checkPrev.get();
-        }
-
-        Optional<Order> order = statusService.updateStatusToAccepted(orderId);
-
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(statusService.updateStatusToAccepted(orderId));
     }
 
     /**
@@ -96,33 +86,12 @@ public class StatusController implements StatusApi {
         @RequestParam(name = "authorization") Long authorization
     ) {
 
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "updateToRejected", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_TO_REJECTED, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<Order.StatusEnum> currentStatus = statusService.getOrderStatus(orderId);
-
-        if (currentStatus.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        if (currentStatus.get() != Order.StatusEnum.PENDING) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
-
-        Optional<Order> order = statusService.updateStatusToRejected(orderId);
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        DeliveryException e = new DeliveryException().isResolved(false)
-            .exceptionType(DeliveryException.ExceptionTypeEnum.REJECTED)
-            .order(order.get()).message("Order was rejected by the vendor");
-
-        statusService.addDeliveryException(e);
-
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(statusService.updateStatusToRejected(orderId));
     }
 
     /**
@@ -145,46 +114,36 @@ public class StatusController implements StatusApi {
         @RequestBody UpdateToGivenToCourierRequest updateToGivenToCourierRequest) {
 
         var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-                "updateToGivenToCourier", orderId);
+                Operation.UPDATE_TO_GIVEN_TO_COURIER, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<ResponseEntity<Void>> checkValue = checkPrevStatus(orderId, Order.StatusEnum.PREPARING);
-        // if the checkValue is present, the previous status does not match
-        if (checkValue.isPresent()) {
-            return checkValue.get();
-        }
-
-        Optional<Order> order = statusService.updateStatusToGivenToCourier(orderId, updateToGivenToCourierRequest);
-
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        StatusTransition transition = statusService.updateStatusToGivenToCourier(orderId, updateToGivenToCourierRequest);
+        if (transition == StatusTransition.UPDATED) {
+            // the order now belongs to the courier it was given to
+            authorizationService.invalidateResourceDecisions(orderId);
         }
-
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(transition);
     }
 
     /**
-     * Helper method for updating status objects, checks if the previous status is the expected one.
+     * Helper method for updating status objects, maps the outcome of a status transition to a response.
      *
-     * @param orderId          the id of the order
-     * @param expectedPrevious the expected status value
-     * @return Optional of empty if everything is fine,
-     *         NOT_FOUND if there is no previous order,
+     * @param transition the outcome of the transition
+     * @return OK if the order was updated,
+     *         NOT_FOUND if there is no such order,
      *         BAD_REQUEST if the previous status does not match the expected value
      */
-    private Optional<ResponseEntity<Void>> checkPrevStatus(Long orderId, Order.StatusEnum expectedPrevious) {
-        Optional<Order.StatusEnum> currentStatus = statusService.getOrderStatus(orderId);
-
-        if (currentStatus.isEmpty()) {
-            return Optional.of(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    private static ResponseEntity<Void> toResponse(StatusTransition transition) {
+        switch (transition) {
+            case UPDATED:
+                return new ResponseEntity<>(HttpStatus.OK);
+            case NOT_FOUND:
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            default:
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-
-        if (currentStatus.get() != expectedPrevious) {
-            return Optional.of(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
-        }
-        return Optional.empty();
     }
 
 
@@ -206,24 +165,12 @@ public class StatusController implements StatusApi {
         @PathVariable(name = "orderId") Long orderId,
         @RequestParam(name = "authorization") Long authorization) {
 
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "updateToInTransit", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_TO_IN_TRANSIT, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<ResponseEntity<Void>> checkValue = checkPrevStatus(orderId, Order.StatusEnum.GIVEN_TO_COURIER);
-        // if the checkValue is present, the previous status does not match
-        if (checkValue.isPresent()) {
-            return checkValue.get();
-        }
-
-        Optional<Order> order = statusService.updateStatusToInTransit(orderId);
-
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(statusService.updateStatusToInTransit(orderId));
     }
 
     /**
@@ -246,25 +193,12 @@ public class StatusController implements StatusApi {
             @Valid @RequestBody UpdateToPreparingRequest updateToPreparingRequest) {
 
         var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-            "updateToPreparing", orderId);
+            Operation.UPDATE_TO_PREPARING, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        Optional<ResponseEntity<Void>> checkValue = checkPrevStatus(orderId, Order.StatusEnum.ACCEPTED);
-        // if the checkValue is present, the previous status does not match
-        if (checkValue.isPresent()) {
-            return checkValue.get();
-        }
-
-
-        Optional<Order> order = statusService.updateStatusToPreparing(orderId, updateToPreparingRequest);
-
-        if (order.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(statusService.updateStatusToPreparing(orderId, updateToPreparingRequest));
     }
 
     /**
@@ -286,29 +220,12 @@ public class StatusController implements StatusApi {
             @PathVariable("orderId") Long orderId,
             @RequestParam(value = "authorization") Long authorization,
             @Valid @RequestBody UpdateToDeliveredRequest updateToDeliveredRequest) {
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "updateToDelivered", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.UPDATE_TO_DELIVERED, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
 
-        if (!orderService.orderExists(orderId)) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        Optional<ResponseEntity<Void>> checkValue = checkPrevStatus(orderId, Order.StatusEnum.IN_TRANSIT);
-        // if the checkValue is present, the previous status does not match
-        if (checkValue.isPresent()) {
-            return checkValue.get();
-        }
-
-        Optional<Order> updatedTime = statusService.updateStatusToDelivered(orderId, updateToDeliveredRequest);
-
-        if (updatedTime.isEmpty()) {
-            // something went wrong with the specific fields and the logic inside the service method :(
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
-
-        return new ResponseEntity<>(HttpStatus.OK);
+        return toResponse(statusService.updateStatusToDelivered(orderId, updateToDeliveredRequest));
     }
 
     /**
@@ -330,7 +247,7 @@ public class StatusController implements StatusApi {
         @RequestParam(name = "authorization") Long authorization
     ) {
 
-        var auth = authorizationService.checkIfUserIsAuthorized(authorization, "getStatus", orderId);
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.GET_STATUS, orderId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -2,14 +2,22 @@ package nl.tudelft.sem.template.example.controllers;
 
 import static nl.tudelft.sem.template.example.authorization.AuthorizationService.doesNotHaveAuthority;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import javax.validation.Valid;
 import nl.tudelft.sem.template.api.UserApi;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
+import nl.tudelft.sem.template.example.domain.navigation.LocationHistory;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorService;
 import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.CourierTrajectory;
+import nl.tudelft.sem.template.model.TrajectoryPoint;
 import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,23 +34,31 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/user")
 public class UserController implements UserApi {
 
+    public static final int DEFAULT_TRAJECTORY_MINUTES = 15;
+    public static final int MAX_TRAJECTORY_MINUTES = 24 * 60;
+
     public VendorService vendorService;
     public CourierService courierService;
 
     public AuthorizationService authorizationService;
 
+    private final LocationHistory locationHistory;
+
     /**
      * User controller Constructor.
      *
      * @param vendorService service for vendors
      * @param courierService service for couriers
      * @param authorizationService authorization
+     * @param locationHistory recent locations of the couriers
      */
+    @Autowired
     public UserController(VendorService vendorService, CourierService courierService,
-                          AuthorizationService authorizationService) {
+                          AuthorizationService authorizationService, LocationHistory locationHistory) {
         this.vendorService = vendorService;
         this.courierService = courierService;
         this.authorizationService = authorizationService;
+        this.locationHistory = locationHistory;
     }
 
     /**
@@ -72,6 +88,48 @@ public class UserController implements UserApi {
             .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * GET /user/courier/{courierId}/trajectory : Retrieve the recent locations of a courier.
+     * Returns the locations of the courier from the last minutes, oldest first, and their current speed.
+     *
+     * @param courierId     id of the courier (required)
+     * @param authorization the UserId to check if they have the rights to make this request (required)
+     * @param minutes       how many minutes back the trajectory goes, 15 if not given (optional)
+     * @return Successful response, trajectory received (status code 200)
+     *         or Unsuccessful, the number of minutes is out of range (status code 400)
+     *         or Unauthorized (status code 403)
+     *         or Unsuccessful, no locations were found in this period (status code 404)
+     */
+    @Override
+    @GetMapping("/courier/{courierId}/trajectory")
+    public ResponseEntity<CourierTrajectory> getCourierTrajectory(
+        @PathVariable(name = "courierId") Long courierId,
+        @RequestParam(name = "authorization") Long authorization,
+        @RequestParam(name = "minutes", required = false) Integer minutes) {
+        int period = minutes == null ? DEFAULT_TRAJECTORY_MINUTES : minutes;
+        if (period < 1 || period > MAX_TRAJECTORY_MINUTES) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        var auth = authorizationService.checkIfUserIsAuthorized(authorization, Operation.GET_COURIER_TRAJECTORY, courierId);
+        if (doesNotHaveAuthority(auth)) {
+            return auth.get();
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TrajectoryPoint> points = locationHistory.trajectory(courierId, now.minusMinutes(period));
+        if (points.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        CourierTrajectory trajectory = new CourierTrajectory().courierId(courierId).points(points);
+        OptionalDouble speed = locationHistory.speed(courierId, now);
+        if (speed.isPresent()) {
+            trajectory.setSpeed(speed.getAsDouble());
+        }
+        return new ResponseEntity<>(trajectory, HttpStatus.OK);
+    }
+
     /**
      * GET /user/vendor/radius : Retrieve the specific radius for any vendors.
      * Return the specific radius of the vendor.
@@ -129,6 +187,8 @@ public class UserController implements UserApi {
         if (saved.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // a check from before the user was added can have cached them as an unknown user
+        authorizationService.invalidateUserType(saved.get().getId());
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -163,6 +223,8 @@ public class UserController implements UserApi {
         if (saved.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // a check from before the user was added can have cached them as an unknown user
+        authorizationService.invalidateUserType(saved.get().getId());
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -188,7 +250,7 @@ public class UserController implements UserApi {
                                                     @RequestParam(value = "authorization", required = true)
                                                     Long authorization) {
         var auth = authorizationService.checkIfUserIsAuthorized(authorization,
-                "updateBossOfCourier", bossId);
+                Operation.UPDATE_BOSS_OF_COURIER, bossId);
         if (doesNotHaveAuthority(auth)) {
             return auth.get();
         }
@@ -198,6 +260,9 @@ public class UserController implements UserApi {
         if (newBossId.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // the courier is the user of their own checks and the resource of the checks of their vendor
+        authorizationService.invalidateUserDecisions(courierId);
+        authorizationService.invalidateResourceDecisions(courierId);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -269,6 +334,8 @@ public class UserController implements UserApi {
         if (saved.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // a check from before the user was added can have cached them as an unknown user
+        authorizationService.invalidateUserType(saved.get().getId());
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -301,6 +368,8 @@ public class UserController implements UserApi {
         if (saved.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // a check from before the user was added can have cached them as an unknown user
+        authorizationService.invalidateUserType(saved.get().getId());
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
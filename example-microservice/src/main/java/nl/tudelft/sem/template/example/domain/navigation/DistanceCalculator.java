@@ -0,0 +1,56 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import java.util.Optional;
+import nl.tudelft.sem.template.model.Location;
+
+/**
+ * Computes distances over the surface of the earth between latitude/longitude pairs given in degrees.
+ * All distances are in meters.
+ */
+public interface DistanceCalculator {
+
+    double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /**
+     * Distance between two points, without allocating.
+     *
+     * @param lat1 latitude of the first point
+     * @param lon1 longitude of the first point
+     * @param lat2 latitude of the second point
+     * @param lon2 longitude of the second point
+     * @return the distance in meters
+     */
+    double distance(double lat1, double lon1, double lat2, double lon2);
+
+    /**
+     * Distances from one point to many, for example from a courier to all the destinations they could go to.
+     * Implementations can hoist the work that only depends on the origin out of the loop.
+     *
+     * @param lat  latitude of the origin
+     * @param lon  longitude of the origin
+     * @param lats latitudes of the destinations
+     * @param lons longitudes of the destinations, same length as lats
+     * @param out  array the distances in meters are written to, at least as long as lats
+     */
+    default void distances(float lat, float lon, float[] lats, float[] lons, float[] out) {
+        for (int i = 0; i < lats.length; i++) {
+            out[i] = (float) distance(lat, lon, lats[i], lons[i]);
+        }
+    }
+
+    /**
+     * Distance between two locations.
+     *
+     * @param from the first location
+     * @param to   the second location
+     * @return the distance in meters, empty if one of the locations is incomplete
+     */
+    default Optional<Float> distance(Location from, Location to) {
+        if (from == null || to == null || from.getLatitude() == null || from.getLongitude() == null
+            || to.getLatitude() == null || to.getLongitude() == null) {
+            return Optional.empty();
+        }
+        return Optional.of((float) distance(from.getLatitude(), from.getLongitude(),
+            to.getLatitude(), to.getLongitude()));
+    }
+}
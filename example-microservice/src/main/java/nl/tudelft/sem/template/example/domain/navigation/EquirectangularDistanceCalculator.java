@@ -0,0 +1,44 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+/**
+ * Fast approximation that treats the earth as flat around the points, scaling the longitude difference by
+ * the cosine of the latitude. It needs one cosine and one square root per distance and, in the batch variant,
+ * no trigonometry per destination at all. The error stays well below 0.1% for the few kilometres a delivery
+ * covers, but grows with the distance and near the poles, so use the HaversineDistanceCalculator for anything long.
+ */
+public class EquirectangularDistanceCalculator implements DistanceCalculator {
+
+    @Override
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(wrap(lon2 - lon1)) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Uses the latitude of the origin instead of the mean latitude, so the cosine is only computed once.
+     */
+    @Override
+    public void distances(float lat, float lon, float[] lats, float[] lons, float[] out) {
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double toRadians = Math.PI / 180;
+        for (int i = 0; i < lats.length; i++) {
+            double x = wrap(lons[i] - lon) * toRadians * cosLat;
+            double y = (lats[i] - lat) * toRadians;
+            out[i] = (float) (EARTH_RADIUS_METERS * Math.sqrt(x * x + y * y));
+        }
+    }
+
+    /**
+     * Brings a longitude difference into [-180, 180], so points on both sides of the antimeridian are close.
+     */
+    private static double wrap(double dLon) {
+        if (dLon > 180) {
+            return dLon - 360;
+        }
+        if (dLon < -180) {
+            return dLon + 360;
+        }
+        return dLon;
+    }
+}
@@ -0,0 +1,283 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Predicts when an order will be delivered from its preparation time, its status, the distance the courier still
+ * has to cover and how fast that courier delivered before.
+ * Everything the prediction needs besides the order itself is kept in memory: the last known locations of couriers
+ * and vendors, the moments orders were picked up and a moving average of the speed of every courier. That state is
+ * filled once by the EtaModelLoader and then updated by the services every time one of those things changes,
+ * so an estimate is a few map lookups and one distance calculation.
+ * For orders that are on their way, the current speed of the courier from their location history is used when
+ * they moved enough recently, so a courier stuck in traffic gets a later estimate than their average suggests.
+ */
+@Component
+public class EtaEngine {
+
+    /**
+     * Speed used until any delivery was seen, about 16 km/h.
+     */
+    public static final double DEFAULT_SPEED = 4.5;
+    /**
+     * Weight of a new delivery in the moving average of the speed.
+     */
+    public static final double SMOOTHING = 0.2;
+    /**
+     * Deliveries with an average speed outside of these bounds (in m/s) are not used, their times are most likely
+     * not the times of the trip itself.
+     */
+    public static final double MIN_SPEED = 0.5;
+    public static final double MAX_SPEED = 40;
+
+    private final DistanceCalculator distanceCalculator;
+    private final LocationHistory history;
+    private final Map<Long, Location> courierLocations = new ConcurrentHashMap<>();
+    private final Map<Long, Location> vendorLocations = new ConcurrentHashMap<>();
+    private final Map<Long, OffsetDateTime> pickupTimes = new ConcurrentHashMap<>();
+    private final Map<Long, Double> courierSpeeds = new ConcurrentHashMap<>();
+    private volatile double overallSpeed = DEFAULT_SPEED;
+
+    /**
+     * Constructor for the ETA engine.
+     *
+     * @param distanceCalculator calculator for the distances still to cover
+     * @param history            recent locations of the couriers, for their current speed
+     */
+    @Autowired
+    public EtaEngine(DistanceCalculator distanceCalculator, LocationHistory history) {
+        this.distanceCalculator = distanceCalculator;
+        this.history = history;
+    }
+
+    /**
+     * Records the current location of a courier, without adding it to their history.
+     *
+     * @param courierId the id of the courier
+     * @param location  the new location
+     */
+    public void courierMoved(Long courierId, Location location) {
+        put(courierLocations, courierId, location);
+    }
+
+    /**
+     * Records the current location of a courier and adds it to their history.
+     *
+     * @param courierId the id of the courier
+     * @param location  the new location
+     * @param at        when the courier was there
+     */
+    public void courierMoved(Long courierId, Location location, OffsetDateTime at) {
+        put(courierLocations, courierId, location);
+        history.record(courierId, location, at);
+    }
+
+    /**
+     * Records the location of a vendor, where its orders are picked up.
+     *
+     * @param vendor the new state of the vendor
+     */
+    public void vendorMoved(Vendor vendor) {
+        if (vendor != null) {
+            put(vendorLocations, vendor.getId(), vendor.getLocation());
+        }
+    }
+
+    /**
+     * Records the moment an order left the vendor, to measure how long the trip took once it is delivered.
+     *
+     * @param orderId the id of the order
+     * @param at      when the order went in transit
+     */
+    public void pickedUp(Long orderId, OffsetDateTime at) {
+        if (orderId != null && at != null) {
+            pickupTimes.put(orderId, at);
+        }
+    }
+
+    /**
+     * Learns from a delivered order: the distance from the vendor to the destination divided by how long the trip
+     * took updates the average speed of its courier. When the pickup was not seen, the trip is assumed to start
+     * when the order was ready.
+     *
+     * @param order the delivered order
+     */
+    public void deliveryCompleted(Order order) {
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        OffsetDateTime pickedUp = pickupTimes.remove(order.getId());
+        Time time = order.getTimeValues();
+        if (order.getCourierId() == null || time == null || time.getActualDeliveryTime() == null) {
+            return;
+        }
+        if (pickedUp == null) {
+            pickedUp = readyTime(time).orElse(null);
+        }
+        Optional<Float> distance = distanceCalculator.distance(get(vendorLocations, order.getVendorId()),
+            order.getDeliveryDestination());
+        if (pickedUp == null || distance.isEmpty()) {
+            return;
+        }
+
+        double seconds = (time.getActualDeliveryTime().toInstant().toEpochMilli()
+            - pickedUp.toInstant().toEpochMilli()) / 1000.0;
+        double speed = distance.get() / seconds;
+        if (seconds <= 0 || speed < MIN_SPEED || speed > MAX_SPEED) {
+            return;
+        }
+        courierSpeeds.merge(order.getCourierId(), speed, (old, sample) -> old + SMOOTHING * (sample - old));
+        // not atomic, losing a sample when two deliveries finish at once does not matter for an average
+        overallSpeed += SMOOTHING * (speed - overallSpeed);
+    }
+
+    /**
+     * Gets the speed used for a courier: their own average once they delivered something, the average of all
+     * couriers otherwise.
+     *
+     * @param courierId the id of the courier, can be null
+     * @return the speed in m/s
+     */
+    public double speedOf(Long courierId) {
+        Double speed = courierId == null ? null : courierSpeeds.get(courierId);
+        return speed == null ? overallSpeed : speed;
+    }
+
+    /**
+     * Gets the speed of a courier over the last minutes from their location history.
+     *
+     * @param courierId the id of the courier, can be null
+     * @param now       the current time
+     * @return the speed in m/s, empty if the history is too short or the speed is outside of MIN_SPEED and
+     *         MAX_SPEED, a courier that is standing still should not get an estimate of forever
+     */
+    public OptionalDouble currentSpeed(Long courierId, OffsetDateTime now) {
+        OptionalDouble speed = history.speed(courierId, now);
+        if (speed.isEmpty() || speed.getAsDouble() < MIN_SPEED || speed.getAsDouble() > MAX_SPEED) {
+            return OptionalDouble.empty();
+        }
+        return speed;
+    }
+
+    /**
+     * Estimates when an order will be delivered, without any database access.
+     * Orders that are not picked up yet are ready after their preparation time, then the courier still has to get
+     * to the vendor (if their location is known) and drive to the destination. Orders that are picked up only have
+     * the distance from the courier to the destination left.
+     *
+     * @param order the order
+     * @param now   the current time
+     * @return the estimated delivery time, empty if there is not enough information or the order is not going
+     *         to be delivered
+     */
+    public Optional<OffsetDateTime> estimate(Order order, OffsetDateTime now) {
+        if (order == null || order.getStatus() == null) {
+            return Optional.empty();
+        }
+        Time time = order.getTimeValues();
+        Location vendor = get(vendorLocations, order.getVendorId());
+        Location courier = get(courierLocations, order.getCourierId());
+        double speed = speedOf(order.getCourierId());
+
+        switch (order.getStatus()) {
+            case PENDING, ACCEPTED, PREPARING -> {
+                Optional<OffsetDateTime> ready = time == null ? Optional.empty() : readyTime(time, now);
+                Optional<Float> trip = distanceCalculator.distance(vendor, order.getDeliveryDestination());
+                if (ready.isEmpty() || trip.isEmpty()) {
+                    return Optional.empty();
+                }
+                OffsetDateTime start = ready.get();
+                Optional<Float> toVendor = distanceCalculator.distance(courier, vendor);
+                if (toVendor.isPresent()) {
+                    OffsetDateTime arrival = plus(now, toVendor.get() / speed);
+                    start = arrival.isAfter(start) ? arrival : start;
+                }
+                return Optional.of(plus(start, trip.get() / speed));
+            }
+            case GIVEN_TO_COURIER, IN_TRANSIT -> {
+                Location from = courier == null ? vendor : courier;
+                double current = currentSpeed(order.getCourierId(), now).orElse(speed);
+                return distanceCalculator.distance(from, order.getDeliveryDestination())
+                    .map(distance -> plus(now, distance / current));
+            }
+            case DELIVERED -> {
+                return Optional.ofNullable(time == null ? null : time.getActualDeliveryTime());
+            }
+            default -> {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Gets the moment the order is ready at the vendor: the order time plus the preparation time.
+     */
+    private static Optional<OffsetDateTime> readyTime(Time time) {
+        Optional<Long> prep = prepSeconds(time.getPrepTime());
+        if (prep.isEmpty() || time.getOrderTime() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(time.getOrderTime().plusSeconds(prep.get()));
+    }
+
+    /**
+     * Same as readyTime, but never in the past, and counted from now when the order time is not known.
+     */
+    private static Optional<OffsetDateTime> readyTime(Time time, OffsetDateTime now) {
+        Optional<Long> prep = prepSeconds(time.getPrepTime());
+        if (prep.isEmpty()) {
+            return Optional.empty();
+        }
+        if (time.getOrderTime() == null) {
+            return Optional.of(now.plusSeconds(prep.get()));
+        }
+        OffsetDateTime ready = time.getOrderTime().plusSeconds(prep.get());
+        return Optional.of(ready.isAfter(now) ? ready : now);
+    }
+
+    private static Optional<Long> prepSeconds(String prepTime) {
+        if (prepTime == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((long) LocalTime.parse(prepTime).toSecondOfDay());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static OffsetDateTime plus(OffsetDateTime time, double seconds) {
+        return time.plusNanos((long) (seconds * 1_000_000_000L));
+    }
+
+    /**
+     * Lookup that allows a null id, which the concurrent map itself does not.
+     */
+    private static Location get(Map<Long, Location> locations, Long id) {
+        return id == null ? null : locations.get(id);
+    }
+
+    private static void put(Map<Long, Location> locations, Long id, Location location) {
+        if (id == null) {
+            return;
+        }
+        if (location == null || location.getLatitude() == null || location.getLongitude() == null) {
+            locations.remove(id);
+            return;
+        }
+        // copied, so later changes to the entity do not change the model behind its back
+        locations.put(id, new Location().latitude(location.getLatitude()).longitude(location.getLongitude()));
+    }
+}
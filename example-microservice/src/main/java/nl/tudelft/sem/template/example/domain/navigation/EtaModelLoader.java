@@ -0,0 +1,64 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import java.util.List;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.domain.order.OrderRepository;
+import nl.tudelft.sem.template.example.domain.user.CourierRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the ETA engine from the database when the application starts: the locations of all vendors and couriers,
+ * and the speeds learned from all delivered orders, which are read in pages so they never are all in memory at once.
+ */
+@Component
+public class EtaModelLoader {
+
+    public static final int BATCH_SIZE = 500;
+
+    private final EtaEngine etaEngine;
+    private final OrderRepository orderRepo;
+    private final VendorRepository vendorRepo;
+    private final CourierRepository courierRepo;
+
+    /**
+     * Constructor for the ETA model loader.
+     *
+     * @param etaEngine   the engine to fill
+     * @param orderRepo   repo for orders
+     * @param vendorRepo  repo for vendors
+     * @param courierRepo repo for couriers
+     */
+    public EtaModelLoader(EtaEngine etaEngine, OrderRepository orderRepo, VendorRepository vendorRepo,
+                          CourierRepository courierRepo) {
+        this.etaEngine = etaEngine;
+        this.orderRepo = orderRepo;
+        this.vendorRepo = vendorRepo;
+        this.courierRepo = courierRepo;
+    }
+
+    /**
+     * Loads the locations and replays the delivered orders, oldest first.
+     */
+    @PostConstruct
+    public void load() {
+        vendorRepo.findAll().forEach(etaEngine::vendorMoved);
+        for (Courier courier : courierRepo.findAll()) {
+            etaEngine.courierMoved(courier.getId(), courier.getCurrentLocation());
+        }
+
+        Long cursor = Long.MIN_VALUE;
+        List<Order> batch;
+        do {
+            batch = orderRepo.findByStatusAndIdGreaterThanOrderByIdAsc(Order.StatusEnum.DELIVERED, cursor,
+                PageRequest.of(0, BATCH_SIZE));
+            batch.forEach(etaEngine::deliveryCompleted);
+            if (!batch.isEmpty()) {
+                cursor = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+    }
+}
@@ -0,0 +1,47 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Great-circle distance on a sphere with the mean radius of the earth, using the haversine formula.
+ * Accurate to about 0.5% everywhere, which is the difference between the sphere and the real earth.
+ */
+@Component
+public class HaversineDistanceCalculator implements DistanceCalculator {
+
+    /**
+     * Haversine distance between two points, usable without an instance.
+     *
+     * @param lat1 latitude of the first point
+     * @param lon1 longitude of the first point
+     * @param lat2 latitude of the second point
+     * @param lon2 longitude of the second point
+     * @return the distance in meters
+     */
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinDLat = Math.sin((phi2 - phi1) / 2);
+        double sinDLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinDLat * sinDLat + Math.cos(phi1) * Math.cos(phi2) * sinDLon * sinDLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    @Override
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        return haversine(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    public void distances(float lat, float lon, float[] lats, float[] lons, float[] out) {
+        double phi1 = Math.toRadians(lat);
+        double cosPhi1 = Math.cos(phi1);
+        for (int i = 0; i < lats.length; i++) {
+            double phi2 = Math.toRadians(lats[i]);
+            double sinDLat = Math.sin((phi2 - phi1) / 2);
+            double sinDLon = Math.sin(Math.toRadians(lons[i] - lon) / 2);
+            double a = sinDLat * sinDLat + cosPhi1 * Math.cos(phi2) * sinDLon * sinDLon;
+            out[i] = (float) (2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a))));
+        }
+    }
+}
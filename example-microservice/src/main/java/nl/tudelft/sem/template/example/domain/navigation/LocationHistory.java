@@ -0,0 +1,245 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.TrajectoryPoint;
+
+/**
+ * Recent locations of every courier, kept in memory next to the entities instead of in them.
+ * Every courier gets a ring buffer of at most capacity points, stored in three primitive arrays (time, latitude and
+ * longitude) so a point costs BYTES_PER_POINT bytes and no objects. The arrays start small and grow until they reach
+ * the capacity, after that the oldest point is overwritten, so the memory of a courier never exceeds
+ * capacity * BYTES_PER_POINT.
+ * Points have to arrive in time order, a point older than the last one of the courier is dropped.
+ */
+public class LocationHistory {
+
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int BYTES_PER_POINT = Long.BYTES + 2 * Float.BYTES;
+    /**
+     * Only the points of the last few minutes are used for the speed, older movement says little about the current
+     * traffic. The points have to span at least MIN_SPEED_SPAN, two points a second apart are mostly GPS noise.
+     */
+    public static final Duration SPEED_WINDOW = Duration.ofMinutes(5);
+    public static final Duration MIN_SPEED_SPAN = Duration.ofSeconds(30);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final DistanceCalculator distanceCalculator;
+    private final int capacity;
+    private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the location history.
+     *
+     * @param distanceCalculator calculator for the distance between two points, used for the speed
+     * @param capacity           the maximum number of points kept per courier
+     */
+    public LocationHistory(DistanceCalculator distanceCalculator, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("The capacity has to be at least 2, was " + capacity);
+        }
+        this.distanceCalculator = distanceCalculator;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a location of a courier.
+     *
+     * @param courierId the id of the courier
+     * @param location  the location
+     * @param at        when the courier was there
+     * @return false if the point is incomplete or older than the last point of the courier
+     */
+    public boolean record(Long courierId, Location location, OffsetDateTime at) {
+        if (courierId == null || at == null || location == null
+            || location.getLatitude() == null || location.getLongitude() == null) {
+            return false;
+        }
+        return tracks.computeIfAbsent(courierId, id -> new Track(Math.min(INITIAL_CAPACITY, capacity)))
+            .add(at.toInstant().toEpochMilli(), location.getLatitude(), location.getLongitude(), capacity);
+    }
+
+    /**
+     * Gets the points of a courier since a moment.
+     *
+     * @param courierId the id of the courier
+     * @param since     the moment of the oldest point to return
+     * @return the points from old to new, empty if there are none
+     */
+    public List<TrajectoryPoint> trajectory(Long courierId, OffsetDateTime since) {
+        Track track = courierId == null ? null : tracks.get(courierId);
+        if (track == null) {
+            return List.of();
+        }
+        return track.since(since.toInstant().toEpochMilli());
+    }
+
+    /**
+     * Estimates the current speed of a courier from the length of their path in the last SPEED_WINDOW.
+     *
+     * @param courierId the id of the courier
+     * @param now       the current time
+     * @return the speed in m/s, empty if the points in the window span less than MIN_SPEED_SPAN
+     */
+    public OptionalDouble speed(Long courierId, OffsetDateTime now) {
+        Track track = courierId == null ? null : tracks.get(courierId);
+        if (track == null) {
+            return OptionalDouble.empty();
+        }
+        return track.speed(now.toInstant().toEpochMilli(), distanceCalculator);
+    }
+
+    /**
+     * Removes the history of a courier.
+     *
+     * @param courierId the id of the courier
+     */
+    public void forget(Long courierId) {
+        if (courierId != null) {
+            tracks.remove(courierId);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of couriers with a history.
+     *
+     * @return the number of couriers
+     */
+    public int courierCount() {
+        return tracks.size();
+    }
+
+    /**
+     * Gets the memory taken by the points of all couriers, without the overhead of the arrays and maps.
+     *
+     * @return the size in bytes
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Track track : tracks.values()) {
+            bytes += track.memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the most memory a single courier can take.
+     *
+     * @return the size in bytes
+     */
+    public long maxBytesPerCourier() {
+        return (long) capacity * BYTES_PER_POINT;
+    }
+
+    /**
+     * Ring buffer of the points of one courier. Until the arrays are full the points are stored from index 0 on,
+     * after that next points at the oldest one.
+     */
+    private static final class Track {
+        private long[] times;
+        private float[] lats;
+        private float[] lons;
+        private int next;
+        private int size;
+
+        private Track(int initialCapacity) {
+            times = new long[initialCapacity];
+            lats = new float[initialCapacity];
+            lons = new float[initialCapacity];
+        }
+
+        private synchronized boolean add(long time, float lat, float lon, int capacity) {
+            if (size > 0 && time < times[index(size - 1)]) {
+                return false;
+            }
+            if (size == times.length && size < capacity) {
+                // not wrapped yet, so the points are still in order from index 0, but next wrapped to 0 when the
+                // arrays filled up and has to point behind the last point again
+                int length = Math.min(capacity, times.length * 2);
+                times = Arrays.copyOf(times, length);
+                lats = Arrays.copyOf(lats, length);
+                lons = Arrays.copyOf(lons, length);
+                next = size;
+            }
+            times[next] = time;
+            lats[next] = lat;
+            lons[next] = lon;
+            next = (next + 1) % times.length;
+            size = Math.min(size + 1, times.length);
+            return true;
+        }
+
+        private synchronized List<TrajectoryPoint> since(long from) {
+            int first = firstSince(from);
+            List<TrajectoryPoint> points = new ArrayList<>(size - first);
+            for (int i = first; i < size; i++) {
+                int at = index(i);
+                points.add(new TrajectoryPoint()
+                    .timestamp(OffsetDateTime.ofInstant(Instant.ofEpochMilli(times[at]), ZoneOffset.UTC))
+                    .latitude(lats[at])
+                    .longitude(lons[at]));
+            }
+            return points;
+        }
+
+        private synchronized OptionalDouble speed(long now, DistanceCalculator distanceCalculator) {
+            int first = firstSince(now - SPEED_WINDOW.toMillis());
+            if (size - first < 2) {
+                return OptionalDouble.empty();
+            }
+            long span = times[index(size - 1)] - times[index(first)];
+            if (span < MIN_SPEED_SPAN.toMillis()) {
+                return OptionalDouble.empty();
+            }
+            double meters = 0;
+            for (int i = first + 1; i < size; i++) {
+                int from = index(i - 1);
+                int to = index(i);
+                meters += distanceCalculator.distance(lats[from], lons[from], lats[to], lons[to]);
+            }
+            return OptionalDouble.of(meters / (span / 1000.0));
+        }
+
+        private synchronized long memoryBytes() {
+            return (long) times.length * BYTES_PER_POINT;
+        }
+
+        /**
+         * Gets the position (0 is the oldest) of the first point at or after the given time, with a binary search
+         * since the points are in time order.
+         */
+        private int firstSince(long from) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[index(mid)] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Gets the array index of the point at a position, 0 being the oldest point.
+         */
+        private int index(int position) {
+            return (next - size + position + times.length) % times.length;
+        }
+    }
+}
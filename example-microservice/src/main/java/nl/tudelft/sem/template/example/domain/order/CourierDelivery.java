@@ -0,0 +1,15 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projection of a delivered order with only the columns needed to compute the efficiency of its courier.
+ */
+public interface CourierDelivery {
+
+    Long getCourierId();
+
+    OffsetDateTime getExpectedDeliveryTime();
+
+    OffsetDateTime getActualDeliveryTime();
+}
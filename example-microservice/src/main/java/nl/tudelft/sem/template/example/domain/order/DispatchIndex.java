@@ -0,0 +1,382 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+
+/**
+ * In-memory index of the orders couriers can be dispatched to: orders that are being prepared and have no courier.
+ * The orders are partitioned per vendor, ordered by order time and then id, and orders of vendors without couriers
+ * of their own are also kept in a separate independent bucket, ordered by id.
+ * The index is filled once from the database by the DispatchIndexLoader and after that kept up to date by the
+ * services that change orders and vendors, so polling couriers never have to hit the database.
+ * Listeners are told the vendor id whenever an order becomes dispatchable, so waiting couriers can be answered
+ * as soon as there is something for them. They are called on a separate executor, so a slow listener does not hold
+ * up the status change that made the order dispatchable.
+ * The index keeps its own copies of the orders and hands out new copies, so callers can neither change the indexed
+ * orders nor get entities that are managed by a persistence context.
+ */
+public class DispatchIndex {
+
+    private static final Comparator<Entry> FIRST_PLACED = Comparator
+        .comparing((Entry e) -> e.orderTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(e -> e.id);
+    private static final Comparator<Entry> BY_ID = Comparator.comparing(e -> e.id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, NavigableSet<Entry>> byVendor = new HashMap<>();
+    private final NavigableSet<Entry> independent = new TreeSet<>(BY_ID);
+    private final Map<Long, Boolean> vendorHasCouriers = new HashMap<>();
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+    private final Executor listenerExecutor;
+    private volatile boolean loaded;
+
+    private final LongAdder droppedNotifications = new LongAdder();
+    private final LongAdder listenerFailures = new LongAdder();
+
+    /**
+     * Creates a new, not yet loaded, dispatch index.
+     *
+     * @param listenerExecutor executor the listeners are called on, when it rejects a notification it is dropped
+     */
+    public DispatchIndex(Executor listenerExecutor) {
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    /**
+     * Replaces the content of the index and marks it as loaded.
+     *
+     * @param orders  the orders to index, orders that cannot be dispatched are ignored
+     * @param vendors all vendors, to know which ones have couriers of their own
+     */
+    public void rebuild(Collection<Order> orders, Collection<Vendor> vendors) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            byVendor.clear();
+            independent.clear();
+            vendorHasCouriers.clear();
+            for (Vendor vendor : vendors) {
+                vendorHasCouriers.put(vendor.getId(), Boolean.TRUE.equals(vendor.getHasCouriers()));
+            }
+            for (Order order : orders) {
+                updateLocked(order);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index has been filled, before that lookups should go to the database.
+     *
+     * @return true if the index was loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds, replaces or removes an order depending on whether it can currently be dispatched.
+     *
+     * @param order the new state of the order
+     */
+    public void update(Order order) {
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        boolean added;
+        lock.writeLock().lock();
+        try {
+            added = updateLocked(order);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (added) {
+            notifyListeners(order.getVendorId());
+        }
+    }
+
+    /**
+     * Removes an order, for example because a courier was assigned to it.
+     *
+     * @param orderId the id of the order
+     */
+    public void remove(Long orderId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records whether a vendor has couriers of their own and moves their orders in or out of the independent bucket.
+     *
+     * @param vendor the new state of the vendor
+     */
+    public void vendorUpdated(Vendor vendor) {
+        if (vendor == null || vendor.getId() == null) {
+            return;
+        }
+        boolean becameIndependent = false;
+        lock.writeLock().lock();
+        try {
+            vendorHasCouriers.put(vendor.getId(), Boolean.TRUE.equals(vendor.getHasCouriers()));
+            boolean isIndependent = isIndependentLocked(vendor.getId());
+            for (Entry entry : byVendor.getOrDefault(vendor.getId(), new TreeSet<>(FIRST_PLACED))) {
+                if (isIndependent) {
+                    becameIndependent |= independent.add(entry);
+                } else {
+                    independent.remove(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (becameIndependent) {
+            notifyListeners(vendor.getId());
+        }
+    }
+
+    /**
+     * Registers a listener that is called with the vendor id every time an order becomes dispatchable.
+     * Listeners are called on the listener executor, exceptions they throw are counted and otherwise ignored.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added with addListener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(Consumer<Long> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Gets the dispatchable order of a vendor that was placed first.
+     *
+     * @param vendorId the id of the vendor
+     * @return the order, empty if the vendor has none
+     */
+    public Optional<Order> nextForVendor(Long vendorId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> vendorEntries = byVendor.get(vendorId);
+            if (vendorEntries == null || vendorEntries.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(copy(vendorEntries.first().order));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all dispatchable orders of vendors that do not have couriers of their own.
+     *
+     * @return the orders ordered by id
+     */
+    public List<Order> independentOrders() {
+        lock.readLock().lock();
+        try {
+            List<Order> orders = new ArrayList<>(independent.size());
+            for (Entry entry : independent) {
+                orders.add(copy(entry.order));
+            }
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the dispatchable orders of the given vendors that do not have couriers of their own.
+     *
+     * @param vendorIds the ids of the vendors
+     * @return the orders ordered by id
+     */
+    public List<Order> independentOrdersOf(Collection<Long> vendorIds) {
+        lock.readLock().lock();
+        try {
+            List<Entry> found = new ArrayList<>();
+            for (Long vendorId : vendorIds) {
+                NavigableSet<Entry> vendorEntries = byVendor.get(vendorId);
+                if (vendorEntries != null && isIndependentLocked(vendorId)) {
+                    found.addAll(vendorEntries);
+                }
+            }
+            found.sort(BY_ID);
+
+            List<Order> orders = new ArrayList<>(found.size());
+            for (Entry entry : found) {
+                orders.add(copy(entry.order));
+            }
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if the orders of a vendor go to independent couriers, because the vendor has no couriers of their own.
+     *
+     * @param vendorId the id of the vendor
+     * @return true if the vendor is independent
+     */
+    public boolean isIndependent(Long vendorId) {
+        lock.readLock().lock();
+        try {
+            return isIndependentLocked(vendorId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of dispatchable orders.
+     *
+     * @return the size of the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the order was not dispatchable before and is now.
+     */
+    private boolean updateLocked(Order order) {
+        boolean wasIndexed = removeLocked(order.getId());
+        if (order.getStatus() != Order.StatusEnum.PREPARING || order.getCourierId() != null) {
+            return false;
+        }
+
+        Entry entry = new Entry(order);
+        entries.put(entry.id, entry);
+        byVendor.computeIfAbsent(entry.vendorId, v -> new TreeSet<>(FIRST_PLACED)).add(entry);
+        if (isIndependentLocked(entry.vendorId)) {
+            independent.add(entry);
+        }
+        return !wasIndexed;
+    }
+
+    private boolean removeLocked(Long orderId) {
+        Entry entry = entries.remove(orderId);
+        if (entry == null) {
+            return false;
+        }
+
+        NavigableSet<Entry> vendorEntries = byVendor.get(entry.vendorId);
+        if (vendorEntries != null) {
+            vendorEntries.remove(entry);
+            if (vendorEntries.isEmpty()) {
+                byVendor.remove(entry.vendorId);
+            }
+        }
+        independent.remove(entry);
+        return true;
+    }
+
+    public long getDroppedNotificationCount() {
+        return droppedNotifications.sum();
+    }
+
+    public long getListenerFailureCount() {
+        return listenerFailures.sum();
+    }
+
+    private void notifyListeners(Long vendorId) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        try {
+            listenerExecutor.execute(() -> {
+                for (Consumer<Long> listener : listeners) {
+                    try {
+                        listener.accept(vendorId);
+                    } catch (RuntimeException e) {
+                        // one broken listener must not keep the others from hearing about the order
+                        listenerFailures.increment();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // couriers that are waiting only see this order on their next request
+            droppedNotifications.increment();
+        }
+    }
+
+    private static Order copy(Order order) {
+        Time time = order.getTimeValues();
+        Location destination = order.getDeliveryDestination();
+        return new Order()
+            .id(order.getId())
+            .status(order.getStatus())
+            .courierId(order.getCourierId())
+            .vendorId(order.getVendorId())
+            .deliveryDestination(destination == null ? null
+                : new Location().latitude(destination.getLatitude()).longitude(destination.getLongitude()))
+            .timeValues(time == null ? null : new Time()
+                .prepTime(time.getPrepTime())
+                .expectedDeliveryTime(time.getExpectedDeliveryTime())
+                .actualDeliveryTime(time.getActualDeliveryTime())
+                .orderTime(time.getOrderTime()))
+            .ratingNumber(order.getRatingNumber());
+    }
+
+    /**
+     * Vendors that are not known are independent, like in OrderRepository.findUnassignedIndependentOrders.
+     */
+    private boolean isIndependentLocked(Long vendorId) {
+        return !vendorHasCouriers.getOrDefault(vendorId, false);
+    }
+
+    /**
+     * Copy of the order and of the fields the index is sorted on, so later changes to the order object cannot
+     * corrupt the sets.
+     */
+    private static final class Entry {
+        private final Long id;
+        private final Long vendorId;
+        private final OffsetDateTime orderTime;
+        private final Order order;
+
+        private Entry(Order order) {
+            this.id = order.getId();
+            this.vendorId = order.getVendorId();
+            this.orderTime = order.getTimeValues() == null ? null : order.getTimeValues().getOrderTime();
+            this.order = copy(order);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import java.util.List;
+import javax.annotation.PostConstruct;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the dispatch index and the vendor spatial index from the database when the application starts,
+ * before requests are accepted.
+ */
+@Component
+public class DispatchIndexLoader {
+
+    private final DispatchIndex dispatchIndex;
+    private final VendorSpatialIndex spatialIndex;
+    private final OrderRepository orderRepo;
+    private final VendorRepository vendorRepo;
+
+    /**
+     * Constructor for the dispatch index loader.
+     *
+     * @param dispatchIndex the index of orders to fill
+     * @param spatialIndex  the index of vendor locations to fill
+     * @param orderRepo     repo for orders
+     * @param vendorRepo    repo for vendors
+     */
+    public DispatchIndexLoader(DispatchIndex dispatchIndex, VendorSpatialIndex spatialIndex,
+                               OrderRepository orderRepo, VendorRepository vendorRepo) {
+        this.dispatchIndex = dispatchIndex;
+        this.spatialIndex = spatialIndex;
+        this.orderRepo = orderRepo;
+        this.vendorRepo = vendorRepo;
+    }
+
+    /**
+     * Loads all orders that are being prepared and all vendors into the indexes.
+     */
+    @PostConstruct
+    public void load() {
+        List<Vendor> vendors = vendorRepo.findAll();
+        spatialIndex.rebuild(vendors);
+        dispatchIndex.rebuild(orderRepo.findByStatus(Order.StatusEnum.PREPARING), vendors);
+    }
+}
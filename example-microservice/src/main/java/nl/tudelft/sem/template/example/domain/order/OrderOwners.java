@@ -0,0 +1,11 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+/**
+ * Projection of the users an order belongs to inside this service, its vendor and its courier.
+ */
+public interface OrderOwners {
+
+    Long getCourierId();
+
+    Long getVendorId();
+}
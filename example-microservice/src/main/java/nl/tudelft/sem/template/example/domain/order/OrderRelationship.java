@@ -0,0 +1,31 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+/**
+ * How a user is related to an order according to this service. Customers are only known to the order
+ * microservice, so a customer of the order is NONE here.
+ */
+public enum OrderRelationship {
+    COURIER,
+    VENDOR,
+    NONE;
+
+    /**
+     * Gets the relationship of a user to an order.
+     *
+     * @param owners the vendor and courier of the order, null if the order does not exist
+     * @param userId the id of the user
+     * @return COURIER if the user delivers the order, VENDOR if they sell it, NONE otherwise
+     */
+    public static OrderRelationship of(OrderOwners owners, Long userId) {
+        if (owners == null || userId == null) {
+            return NONE;
+        }
+        if (userId.equals(owners.getCourierId())) {
+            return COURIER;
+        }
+        if (userId.equals(owners.getVendorId())) {
+            return VENDOR;
+        }
+        return NONE;
+    }
+}
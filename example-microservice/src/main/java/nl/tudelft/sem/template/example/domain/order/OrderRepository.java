@@ -1,14 +1,30 @@
 package nl.tudelft.sem.template.example.domain.order;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import nl.tudelft.sem.template.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByVendorIdAndStatusAndCourierId(Long vendorId, Order.StatusEnum status, Long courierId);
+    /**
+     * Gets the unassigned order of a vendor with the given status that was placed first, ties broken by id.
+     * Only a single row is read, however many orders the vendor has queued.
+     *
+     * @param vendorId the id of the vendor
+     * @param status   the status of the order
+     * @return the first unassigned order, empty if there is none
+     */
+    Optional<Order> findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(
+        Long vendorId, Order.StatusEnum status);
 
     List<Order> findByStatus(Order.StatusEnum status);
 
@@ -16,6 +32,164 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     boolean existsByIdAndCourierId(Long orderId, Long courierId);
 
+    /**
+     * Gets the vendor and courier of an order with a single primary key lookup, so all ownership checks of
+     * a user against the order need one round trip.
+     *
+     * @param orderId the id of the order
+     * @return the owners of the order, empty if the order does not exist
+     */
+    @Query("SELECT o.courierId AS courierId, o.vendorId AS vendorId FROM Order o WHERE o.id = :orderId")
+    Optional<OrderOwners> findOwnersById(@Param("orderId") Long orderId);
+
     List<Order> findByCourierIdAndStatus(Long courierId, Order.StatusEnum status);
 
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Order> findByStatusAndIdGreaterThanOrderByIdAsc(Order.StatusEnum status, Long id, Pageable pageable);
+
+    /**
+     * Gets the orders with the given status that have no courier yet and whose vendor does not have couriers
+     * of its own, in a single query. Orders of vendors that are not known are seen as independent as well.
+     *
+     * @param status the status of the orders
+     * @return the unassigned orders of independent vendors
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN Vendor v ON v.id = o.vendorId "
+        + "WHERE o.status = :status AND o.courierId IS NULL "
+        + "AND (v.hasCouriers = false OR v.hasCouriers IS NULL)")
+    List<Order> findUnassignedIndependentOrders(@Param("status") Order.StatusEnum status);
+
+    /**
+     * Gets the oldest unassigned orders with the given status of vendors without couriers of their own.
+     * Nothing is locked, the orders are only candidates for assignCourier, which decides who gets them.
+     *
+     * @param status   the status of the orders
+     * @param pageable how many orders to get
+     * @return the unassigned orders, ordered by id
+     */
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.courierId IS NULL "
+        + "AND NOT EXISTS (SELECT v FROM Vendor v WHERE v.id = o.vendorId AND v.hasCouriers = true) "
+        + "ORDER BY o.id")
+    List<Order> findOldestUnassignedIndependentOrders(@Param("status") Order.StatusEnum status, Pageable pageable);
+
+    /**
+     * Gets the oldest unassigned orders with the given status of a vendor, without locking them.
+     *
+     * @param vendorId the id of the vendor
+     * @param status   the status of the orders
+     * @param pageable how many orders to get
+     * @return the unassigned orders, ordered by id
+     */
+    @Query("SELECT o FROM Order o WHERE o.vendorId = :vendorId AND o.status = :status AND o.courierId IS NULL "
+        + "ORDER BY o.id")
+    List<Order> findOldestUnassignedVendorOrders(@Param("vendorId") Long vendorId,
+                                                 @Param("status") Order.StatusEnum status, Pageable pageable);
+
+    /**
+     * Gets the courier and the expected and actual delivery time of the orders with the given status that were
+     * delivered in [from, to), reading only those three columns in a single query.
+     * Timestamp differences cannot be computed portably in JPQL, so the caller averages them per courier.
+     *
+     * @param status the status of the orders, normally DELIVERED
+     * @param from   the start of the time window (inclusive)
+     * @param to     the end of the time window (exclusive)
+     * @return one row per delivered order
+     */
+    @Query("SELECT o.courierId AS courierId, o.timeValues.expectedDeliveryTime AS expectedDeliveryTime, "
+        + "o.timeValues.actualDeliveryTime AS actualDeliveryTime FROM Order o "
+        + "WHERE o.status = :status AND o.courierId IS NOT NULL AND o.timeValues.expectedDeliveryTime IS NOT NULL "
+        + "AND o.timeValues.actualDeliveryTime >= :from AND o.timeValues.actualDeliveryTime < :to")
+    List<CourierDelivery> findCourierDeliveries(@Param("status") Order.StatusEnum status,
+                                                @Param("from") OffsetDateTime from,
+                                                @Param("to") OffsetDateTime to);
+
+    /**
+     * Moves an order from one status to another in a single conditional update,
+     * so two concurrent transitions of the same order can never both succeed.
+     *
+     * @param id       the id of the order
+     * @param expected the status the order has to be in
+     * @param next     the new status
+     * @return the number of updated orders, 0 if the order does not exist or is not in the expected status
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :next WHERE o.id = :id AND o.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") Order.StatusEnum expected,
+                     @Param("next") Order.StatusEnum next);
+
+    /**
+     * Conditionally moves an order to the next status and assigns its courier in the same update.
+     *
+     * @param id        the id of the order
+     * @param expected  the status the order has to be in
+     * @param next      the new status
+     * @param courierId the id of the courier to assign
+     * @return the number of updated orders, 0 if the order does not exist or is not in the expected status
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :next, o.courierId = :courierId "
+        + "WHERE o.id = :id AND o.status = :expected")
+    int updateStatusAndCourier(@Param("id") Long id, @Param("expected") Order.StatusEnum expected,
+                               @Param("next") Order.StatusEnum next, @Param("courierId") Long courierId);
+
+    /**
+     * Conditionally assigns a courier to an order that has the expected status and no courier yet.
+     * The persistence context is cleared, so orders read before in the same transaction are not written back
+     * over the new courier.
+     *
+     * @param id        the id of the order
+     * @param expected  the status the order has to be in
+     * @param courierId the id of the courier to assign
+     * @return the number of updated orders, 0 if the order does not exist, is not in the expected status
+     *         or already has a courier
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.courierId = :courierId "
+        + "WHERE o.id = :id AND o.status = :expected AND o.courierId IS NULL")
+    int assignCourier(@Param("id") Long id, @Param("expected") Order.StatusEnum expected,
+                      @Param("courierId") Long courierId);
+
+    /**
+     * Conditionally moves an order to the next status and sets its preparation and expected delivery time.
+     *
+     * @param id                   the id of the order
+     * @param expected             the status the order has to be in
+     * @param next                 the new status
+     * @param prepTime             the preparation time
+     * @param expectedDeliveryTime the expected delivery time
+     * @return the number of updated orders, 0 if the order does not exist or is not in the expected status
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :next, o.timeValues.prepTime = :prepTime, "
+        + "o.timeValues.expectedDeliveryTime = :expectedDeliveryTime "
+        + "WHERE o.id = :id AND o.status = :expected")
+    int updateStatusAndPrepTimes(@Param("id") Long id, @Param("expected") Order.StatusEnum expected,
+                                 @Param("next") Order.StatusEnum next, @Param("prepTime") String prepTime,
+                                 @Param("expectedDeliveryTime") OffsetDateTime expectedDeliveryTime);
+
+    /**
+     * Conditionally moves an order to the next status and sets its actual delivery time.
+     * Only orders that have time values but no actual delivery time yet are updated.
+     *
+     * @param id                 the id of the order
+     * @param expected           the status the order has to be in
+     * @param next               the new status
+     * @param actualDeliveryTime the time the order was delivered
+     * @return the number of updated orders, 0 if the order does not exist, is not in the expected status
+     *         or its delivery time cannot be set
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :next, o.timeValues.actualDeliveryTime = :actualDeliveryTime "
+        + "WHERE o.id = :id AND o.status = :expected AND o.timeValues.actualDeliveryTime IS NULL "
+        + "AND (o.timeValues.prepTime IS NOT NULL OR o.timeValues.expectedDeliveryTime IS NOT NULL "
+        + "OR o.timeValues.orderTime IS NOT NULL)")
+    int updateStatusAndDeliveryTime(@Param("id") Long id, @Param("expected") Order.StatusEnum expected,
+                                    @Param("next") Order.StatusEnum next,
+                                    @Param("actualDeliveryTime") OffsetDateTime actualDeliveryTime);
 }
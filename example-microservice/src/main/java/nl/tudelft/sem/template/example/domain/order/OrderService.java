@@ -2,26 +2,55 @@ package nl.tudelft.sem.template.example.domain.order;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.domain.navigation.DistanceCalculator;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.user.CourierLocationStore;
 import nl.tudelft.sem.template.example.domain.user.CourierRepository;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
-import nl.tudelft.sem.template.example.externalservices.NavigationMock;
-import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.CourierLocationResult;
+import nl.tudelft.sem.template.model.CourierLocationUpdate;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Number of orders read per claim, so a claim that loses an order to another courier can try the next one.
+     */
+    static final int CLAIM_CANDIDATES = 5;
+
+    /**
+     * Number of times the candidates are read again when other couriers got all of them first.
+     */
+    static final int CLAIM_ROUNDS = 3;
+
     private final OrderRepository orderRepo;
     private final VendorRepository vendorRepo;
-    private final NavigationMock navigationMock;
+    private final DispatchIndex dispatchIndex;
     private final CourierRepository courierRepo;
+    private final DistanceCalculator distanceCalculator;
+    private final EtaEngine etaEngine;
+    private final CourierLocationStore locationStore;
 
 
     /**
@@ -30,13 +59,22 @@ public class OrderService {
      * @param orderRepo repo for orders
      * @param vendorRepo repo for vendors
      * @param courierRepo repo for couriers
+     * @param dispatchIndex index of the orders that can be dispatched to couriers
+     * @param distanceCalculator calculator for the distance between the courier and the destination
+     * @param etaEngine engine that predicts the delivery times
+     * @param locationStore store of the latest courier locations
      */
     @Autowired
-    public OrderService(OrderRepository orderRepo, VendorRepository vendorRepo, CourierRepository courierRepo) {
+    public OrderService(OrderRepository orderRepo, VendorRepository vendorRepo, CourierRepository courierRepo,
+                        DispatchIndex dispatchIndex, DistanceCalculator distanceCalculator, EtaEngine etaEngine,
+                        CourierLocationStore locationStore) {
         this.vendorRepo = vendorRepo;
         this.orderRepo = orderRepo;
         this.courierRepo = courierRepo;
-        this.navigationMock = new NavigationMock();
+        this.dispatchIndex = dispatchIndex;
+        this.distanceCalculator = distanceCalculator;
+        this.etaEngine = etaEngine;
+        this.locationStore = locationStore;
     }
 
     /**
@@ -140,7 +178,7 @@ public class OrderService {
             return Optional.empty();
         }
 
-        return Optional.of(orderRepo.saveAndFlush(order));
+        return Optional.of(save(order));
     }
 
     /**
@@ -156,13 +194,83 @@ public class OrderService {
         return Optional.of(o);
     }
 
+    /**
+     * Gets a page of orders ordered by id, using the id of the last order of the previous page as cursor.
+     * Unlike an offset, the cursor makes every page equally cheap to retrieve, no matter how deep it is.
+     *
+     * @param afterId the id of the last order of the previous page, null for the first page
+     * @param size    the maximum number of orders, capped at MAX_PAGE_SIZE
+     * @return the orders with an id larger than the cursor, at most size of them
+     */
+    public List<Order> getOrdersAfter(Long afterId, int size) {
+        long cursor = afterId == null ? Long.MIN_VALUE : afterId;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return orderRepo.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Claims the next unassigned order that is being prepared for a courier.
+     * The oldest unassigned orders are read without locking them, and the courier is assigned with a conditional
+     * update that only succeeds while the order has no courier. Couriers claiming at the same time never wait for
+     * each other's row locks, the one that loses an order moves on to the next candidate, on every database.
+     * The order leaves the dispatch index only once the assignment is committed.
+     *
+     * @param courierId the id of the courier claiming the order
+     * @param vendorId  the id of the vendor the courier works for, null for independent couriers
+     * @return the claimed order, empty if there was none available
+     */
+    public Optional<Order> claimNextOrder(Long courierId, Long vendorId) {
+        Pageable first = PageRequest.of(0, CLAIM_CANDIDATES);
+        for (int round = 0; round < CLAIM_ROUNDS; round++) {
+            List<Order> candidates = vendorId == null
+                ? orderRepo.findOldestUnassignedIndependentOrders(Order.StatusEnum.PREPARING, first)
+                : orderRepo.findOldestUnassignedVendorOrders(vendorId, Order.StatusEnum.PREPARING, first);
+
+            if (candidates == null || candidates.isEmpty()) {
+                return Optional.empty();
+            }
+
+            for (Order order : candidates) {
+                if (orderRepo.assignCourier(order.getId(), Order.StatusEnum.PREPARING, courierId) == 0) {
+                    // another courier got this one first
+                    continue;
+                }
+                order.setCourierId(courierId);
+                Long orderId = order.getId();
+                afterCommit(() -> dispatchIndex.remove(orderId));
+                return Optional.of(order);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Runs an action once the surrounding transaction is committed, or right away when there is none.
+     * An order that is removed from the dispatch index before a rollback would never be offered again.
+     *
+     * @param action the action to run
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * Creates new order.
      *
      * @return optional of order
      */
     public Optional<Order> createOrder(Order order) {
-        return Optional.of(orderRepo.saveAndFlush(order));
+        return Optional.of(save(order));
     }
 
     /**
@@ -202,7 +310,7 @@ public class OrderService {
 
         Order newOrder = order.get();
         newOrder.setRatingNumber(body);
-        orderRepo.saveAndFlush(newOrder);
+        save(newOrder);
 
         return Optional.of(body);
     }
@@ -229,16 +337,19 @@ public class OrderService {
         Time timeOfOrder = o.getTimeValues();
         timeOfOrder.setPrepTime(body);
 
-        orderRepo.saveAndFlush(o);
+        save(o);
 
         return Optional.of(body);
     }
 
     /**
-     * Gets the ETA.
+     * Gets the ETA, the current prediction of the ETA engine.
+     * The first prediction is persisted as the expected delivery time, later ones are not, as that is the time
+     * the efficiency of the courier is measured against. When the engine cannot predict anything the expected
+     * delivery time is returned.
      *
      * @param orderId id of the order
-     * @return Updated Order
+     * @return the estimated delivery time, empty if the order was not found or there is nothing to estimate from
      */
     public Optional<OffsetDateTime> getEta(Long orderId) {
         Optional<Order> order = orderRepo.findById(orderId);
@@ -249,29 +360,28 @@ public class OrderService {
 
         Order orderObject = order.get();
         Time time = orderObject.getTimeValues();
-
-        // if we cannot calculate ETA, return empty
-        if (time == null || time.getPrepTime() == null) {
-            return Optional.empty();
+        Optional<OffsetDateTime> eta = etaEngine.estimate(orderObject, OffsetDateTime.now());
+        if (eta.isEmpty()) {
+            return Optional.ofNullable(time == null ? null : time.getExpectedDeliveryTime());
         }
 
-        // if ETA did not exist, calculate it and persist it
-        if (time.getExpectedDeliveryTime() == null) {
-            OffsetDateTime eta = navigationMock.getEta(orderId, time);
-
-            time.setExpectedDeliveryTime(eta);
+        if (time == null) {
+            time = new Time();
             orderObject.setTimeValues(time);
-            orderRepo.saveAndFlush(orderObject);
+        }
+        if (time.getExpectedDeliveryTime() == null) {
+            time.setExpectedDeliveryTime(eta.get());
+            save(orderObject);
         }
 
-        return Optional.of(orderObject.getTimeValues().getExpectedDeliveryTime());
+        return eta;
     }
 
     /**
-     * Gets the distance.
+     * Gets the distance between the courier of the order and its delivery destination.
      *
      * @param orderId id of the order
-     * @return the distance
+     * @return the distance in meters, empty if the order, courier or one of the locations is missing
      */
     public Optional<Float> getDistance(Long orderId) {
         Optional<Order> order = orderRepo.findById(orderId);
@@ -281,18 +391,16 @@ public class OrderService {
             return Optional.empty();
         }
 
-        Long courierId = order.get().getCourierId();
-        Optional<Courier> courier = courierRepo.findById(courierId);
-
         // id there a courier with a location?
-        if (courier.isEmpty() || courier.get().getCurrentLocation() == null) {
+        Optional<Location> courier = locationStore.latest(order.get().getCourierId());
+        if (courier.isEmpty()) {
             return Optional.empty();
         }
 
-        Location courierLocation = courier.get().getCurrentLocation();
+        Location courierLocation = courier.get();
         Location deliveryLocation = order.get().getDeliveryDestination();
 
-        return Optional.of(navigationMock.getDistance(courierLocation, deliveryLocation));
+        return distanceCalculator.distance(courierLocation, deliveryLocation);
     }
 
     /**
@@ -312,7 +420,7 @@ public class OrderService {
         Order o = order.get();
         o.setCourierId(courierId);
 
-        return Optional.of(orderRepo.saveAndFlush(o));
+        return Optional.of(save(o));
     }
 
     /**
@@ -330,20 +438,13 @@ public class OrderService {
         }
         Location vendorLocation = v.get().getLocation();
 
-        Optional<Courier> c = courierRepo.findById(order.getCourierId());
-        Location courierLocation = null;
-        if (c.isPresent()) {
-            courierLocation = c.get().getCurrentLocation();
-        }
         switch (status) {
             case ACCEPTED, PREPARING -> {
                 return Optional.of(vendorLocation);
             }
             case GIVEN_TO_COURIER, IN_TRANSIT -> {
-                if (courierLocation == null) {
-                    return Optional.empty();
-                }
-                return Optional.of(courierLocation);
+                // served from memory, the courier table can be up to one flush interval behind
+                return locationStore.latest(order.getCourierId());
             }
             case DELIVERED -> {
                 return Optional.of(order.getDeliveryDestination());
@@ -363,21 +464,116 @@ public class OrderService {
      */
     public Optional<Location> updateLocation(Order order, Location location) {
         Order.StatusEnum status = order.getStatus();
+        if (status != Order.StatusEnum.GIVEN_TO_COURIER && status != Order.StatusEnum.IN_TRANSIT) {
+            return Optional.empty();
+        }
 
-        Optional<Courier> c = courierRepo.findById(order.getCourierId());
-        if (c.isEmpty()) {
+        if (!locationStore.update(order.getCourierId(), location)) {
             return Optional.empty();
         }
-        Courier courier = c.get();
-        switch (status) {
-            case GIVEN_TO_COURIER, IN_TRANSIT -> {
-                courier.setCurrentLocation(location);
-                courierRepo.saveAndFlush(courier);
-                return Optional.of(courier.getCurrentLocation());
+        etaEngine.courierMoved(order.getCourierId(), location, OffsetDateTime.now());
+        return Optional.of(location);
+    }
+
+    /**
+     * Updates the locations of many couriers at once, with the same rules as updateLocation for every update.
+     * All orders are read in one query and all locations are stored in one batch. When a courier occurs more than
+     * once only their latest location is stored, the others are accepted but superseded.
+     *
+     * @param updates the location updates
+     * @return the result of every update, in the same order as the updates
+     */
+    public List<CourierLocationResult> updateLocations(List<CourierLocationUpdate> updates) {
+        Set<Long> orderIds = updates.stream()
+            .map(CourierLocationUpdate::getOrderId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Order> orders = orderRepo.findAllById(orderIds).stream()
+            .collect(Collectors.toMap(Order::getId, o -> o));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<CourierLocationResult> results = new ArrayList<>(updates.size());
+        // index of the latest valid update of every courier
+        Map<Long, Integer> latest = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            CourierLocationUpdate update = updates.get(i);
+            CourierLocationResult result = new CourierLocationResult()
+                .courierId(update.getCourierId()).orderId(update.getOrderId());
+            results.add(result);
+
+            Location location = update.getLocation();
+            if (update.getCourierId() == null || update.getOrderId() == null || location == null
+                || location.getLatitude() == null || location.getLongitude() == null) {
+                result.status(400).message("Incomplete location update");
+                continue;
             }
-            default -> {
-                return Optional.empty();
+            Order order = orders.get(update.getOrderId());
+            if (order == null) {
+                result.status(404).message("Order not found");
+                continue;
+            }
+            if (!update.getCourierId().equals(order.getCourierId())) {
+                result.status(403).message("Courier does not deliver this order");
+                continue;
+            }
+            if (order.getStatus() != Order.StatusEnum.GIVEN_TO_COURIER
+                && order.getStatus() != Order.StatusEnum.IN_TRANSIT) {
+                result.status(400).message("Order is not being delivered");
+                continue;
+            }
+
+            result.status(200);
+            Integer previous = latest.get(update.getCourierId());
+            if (previous == null || !timeOf(update, now).isBefore(timeOf(updates.get(previous), now))) {
+                latest.put(update.getCourierId(), i);
+            }
+        }
+
+        Map<Long, Location> locations = new HashMap<>();
+        latest.forEach((courierId, i) -> locations.put(courierId, updates.get(i).getLocation()));
+        Set<Long> stored = locationStore.updateAll(locations);
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            CourierLocationResult result = results.get(i);
+            if (result.getStatus() != 200) {
+                continue;
             }
+            if (!stored.contains(result.getCourierId())) {
+                result.status(404).message("Courier not found");
+                continue;
+            }
+            if (latest.get(result.getCourierId()) != i) {
+                result.message("Superseded by a later location");
+            }
+            accepted.add(i);
+        }
+
+        // superseded locations still belong in the history, in time order so the latest one is recorded last
+        accepted.sort(Comparator.comparing((Integer i) -> timeOf(updates.get(i), now)).thenComparing(i -> i));
+        for (int i : accepted) {
+            CourierLocationUpdate update = updates.get(i);
+            etaEngine.courierMoved(update.getCourierId(), update.getLocation(), timeOf(update, now));
         }
+        return results;
+    }
+
+    /**
+     * Gets when the courier was at the location of an update, updates without a timestamp count as sent now.
+     */
+    private static OffsetDateTime timeOf(CourierLocationUpdate update, OffsetDateTime now) {
+        return update.getTimestamp() == null ? now : update.getTimestamp();
+    }
+
+    /**
+     * Saves an order and updates the dispatch index with it, every change to an order goes through here.
+     *
+     * @param order the order to save
+     * @return the saved order
+     */
+    private Order save(Order order) {
+        Order saved = orderRepo.saveAndFlush(order);
+        dispatchIndex.update(saved);
+        return saved;
     }
 }
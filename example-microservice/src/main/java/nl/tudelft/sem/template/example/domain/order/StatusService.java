@@ -3,24 +3,41 @@ package nl.tudelft.sem.template.example.domain.order;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.domain.exception.DeliveryExceptionRepository;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
 import nl.tudelft.sem.template.model.DeliveryException;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.UpdateToDeliveredRequest;
 import nl.tudelft.sem.template.model.UpdateToGivenToCourierRequest;
 import nl.tudelft.sem.template.model.UpdateToPreparingRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StatusService {
 
     private final DeliveryExceptionRepository exceptionRepo;
     private final OrderRepository orderRepo;
+    private final DispatchIndex dispatchIndex;
+    private final EtaEngine etaEngine;
 
 
-    public StatusService(OrderRepository orderRepo, DeliveryExceptionRepository exceptionRepo) {
+    /**
+     * Constructor for the StatusService that keeps the dispatch index and the ETA engine up to date.
+     *
+     * @param orderRepo     repo for orders
+     * @param exceptionRepo repo for exceptions
+     * @param dispatchIndex index of the orders that can be dispatched to couriers
+     * @param etaEngine     engine that learns the speed of couriers from their deliveries
+     */
+    @Autowired
+    public StatusService(OrderRepository orderRepo, DeliveryExceptionRepository exceptionRepo,
+                         DispatchIndex dispatchIndex, EtaEngine etaEngine) {
         this.orderRepo = orderRepo;
         this.exceptionRepo = exceptionRepo;
+        this.dispatchIndex = dispatchIndex;
+        this.etaEngine = etaEngine;
     }
 
     /**
@@ -36,143 +53,156 @@ public class StatusService {
     }
 
     /**
-     * Attempts to update the status of order to "accepted".
+     * Attempts to update the status of order from "pending" to "accepted".
      * Vendors use this.
      *
      * @param orderId the id of the order
-     * @return the optional of updated order object, empty if the order was not found
+     * @return the outcome of the transition
      */
-    public Optional<Order> updateStatusToAccepted(Long orderId) {
-        Optional<Order> o = orderRepo.findById(orderId);
-
-        if (o.isEmpty()) {
-            return Optional.empty();
-        }
-
-        Order order = o.get();
-        order.setStatus(Order.StatusEnum.ACCEPTED);
-        return Optional.of(orderRepo.saveAndFlush(order));
+    public StatusTransition updateStatusToAccepted(Long orderId) {
+        return outcome(orderId,
+            orderRepo.updateStatus(orderId, Order.StatusEnum.PENDING, Order.StatusEnum.ACCEPTED));
     }
 
 
     /**
-     * Attempts to update the status of order to "rejected".
+     * Attempts to update the status of order from "pending" to "rejected" and records a rejection exception for it.
+     * Both happen in the same transaction, so there is never a rejected order without its exception.
      * Vendors use this.
      *
      * @param orderId the id of the order
-     * @return the optional of updated order object, empty if the order was not found
+     * @return the outcome of the transition
      */
-    public Optional<Order> updateStatusToRejected(Long orderId) {
-        Optional<Order> o = orderRepo.findById(orderId);
-
-        if (o.isEmpty()) {
-            return Optional.empty();
+    @Transactional
+    public StatusTransition updateStatusToRejected(Long orderId) {
+        int updated = orderRepo.updateStatus(orderId, Order.StatusEnum.PENDING, Order.StatusEnum.REJECTED);
+        if (updated == 0) {
+            return outcome(orderId, updated);
         }
 
-        Order order = o.get();
-        order.setStatus(Order.StatusEnum.REJECTED);
-        return Optional.of(orderRepo.saveAndFlush(order));
+        // a reference is enough to link the exception, the order itself does not have to be loaded
+        DeliveryException e = new DeliveryException().isResolved(false)
+            .exceptionType(DeliveryException.ExceptionTypeEnum.REJECTED)
+            .order(orderRepo.getOne(orderId)).message("Order was rejected by the vendor");
+        exceptionRepo.saveAndFlush(e);
+        return StatusTransition.UPDATED;
     }
 
 
     /**
-     * Attempts to update the status of order to "given_to_courier".
+     * Attempts to update the status of order from "preparing" to "given_to_courier" and assigns the courier.
      * Vendors use this.
      *
      * @param orderId the id of the order
-     * @return the optional of updated order object, empty if the order was not found
+     * @param req     request holding the id of the courier
+     * @return the outcome of the transition
      */
-    public Optional<Order> updateStatusToGivenToCourier(Long orderId, UpdateToGivenToCourierRequest req) {
-        Optional<Order> o = orderRepo.findById(orderId);
+    public StatusTransition updateStatusToGivenToCourier(Long orderId, UpdateToGivenToCourierRequest req) {
+        StatusTransition transition = outcome(orderId, orderRepo.updateStatusAndCourier(orderId,
+            Order.StatusEnum.PREPARING, Order.StatusEnum.GIVEN_TO_COURIER, req.getCourierId()));
 
-        if (o.isEmpty()) {
-            return Optional.empty();
+        if (transition == StatusTransition.UPDATED) {
+            dispatchIndex.remove(orderId);
         }
-
-        Order order = o.get();
-        order.setStatus(Order.StatusEnum.GIVEN_TO_COURIER);
-        order.courierId(req.getCourierId());
-        return Optional.of(orderRepo.saveAndFlush(order));
+        return transition;
     }
 
 
     /**
-     * Attempts to update the status of order to "in_transit".
+     * Attempts to update the status of order from "given_to_courier" to "in_transit".
      * Couriers use this.
      *
      * @param orderId the id of the order
-     * @return the optional of updated order object, empty if the order was not found
+     * @return the outcome of the transition
      */
-    public Optional<Order> updateStatusToInTransit(Long orderId) {
-        Optional<Order> o = orderRepo.findById(orderId);
+    public StatusTransition updateStatusToInTransit(Long orderId) {
+        StatusTransition transition = outcome(orderId,
+            orderRepo.updateStatus(orderId, Order.StatusEnum.GIVEN_TO_COURIER, Order.StatusEnum.IN_TRANSIT));
 
-        if (o.isEmpty()) {
-            return Optional.empty();
+        if (transition == StatusTransition.UPDATED) {
+            etaEngine.pickedUp(orderId, OffsetDateTime.now());
         }
-
-        Order order = o.get();
-        order.setStatus(Order.StatusEnum.IN_TRANSIT);
-        return Optional.of(orderRepo.saveAndFlush(order));
+        return transition;
     }
 
     /**
-     * updates the status to preparing.
+     * Attempts to update the status of order from "accepted" to "preparing" and sets its time values.
+     * The dispatch index needs the whole order, so it is read once before the conditional update and the new
+     * values are applied to it, instead of reading it again afterwards. The update still decides the outcome.
+     * Vendors use this.
      *
      * @param orderId id of the order
-     * @param req     request
-     * @return the updated order
+     * @param req     request holding the preparation and expected delivery time
+     * @return the outcome of the transition
      */
-    public Optional<Order> updateStatusToPreparing(Long orderId, UpdateToPreparingRequest req) {
-        Optional<Order> o = orderRepo.findById(orderId);
-
-        if (o.isEmpty()) {
-            return Optional.empty();
+    public StatusTransition updateStatusToPreparing(Long orderId, UpdateToPreparingRequest req) {
+        Optional<Order> order = orderRepo.findById(orderId);
+        if (order.isEmpty()) {
+            return StatusTransition.NOT_FOUND;
         }
-
-        Order order = o.get();
-        order.setStatus(Order.StatusEnum.PREPARING);
-        if (order.getTimeValues() == null) {
-            order.setTimeValues(new Time());
+        if (orderRepo.updateStatusAndPrepTimes(orderId, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING,
+            req.getPrepTime(), req.getExpectedDeliveryTime()) == 0) {
+            return StatusTransition.INVALID;
         }
-        Time timeValues = order.getTimeValues();
-        timeValues.setPrepTime(req.getPrepTime());
-        timeValues.setExpectedDeliveryTime(req.getExpectedDeliveryTime());
 
-        return Optional.of(orderRepo.saveAndFlush(order));
+        // the order can now be dispatched, it is indexed here instead of read on every courier poll
+        Order prepared = order.get().status(Order.StatusEnum.PREPARING);
+        prepared.setTimeValues(timeValues(prepared).prepTime(req.getPrepTime())
+            .expectedDeliveryTime(req.getExpectedDeliveryTime()));
+        dispatchIndex.update(prepared);
+        return StatusTransition.UPDATED;
     }
 
     /**
-     * Sets the actual delivery time of an object and sets its status to delivered.
+     * Attempts to update the status of order from "in_transit" to "delivered" and sets its actual delivery time.
+     * Couriers use this.
      *
      * @param orderId                  the id of the object to be updated
-     * @param updateToDeliveredRequest object thst has the actual delivery time
-     * @return the updated version optional of order, empty if order was not found or the actual delivery time
-     *         was already set, also if required fields were missing or if the order was already delivered
+     * @param updateToDeliveredRequest object that has the actual delivery time
+     * @return the outcome of the transition, INVALID if the order is not in transit, has no time values,
+     *         already has an actual delivery time or if the request has no delivery time
      */
-    public Optional<Order> updateStatusToDelivered(Long orderId, UpdateToDeliveredRequest updateToDeliveredRequest) {
-        Optional<Order> ret = orderRepo.findById(orderId);
-        // we now the order exists as it is checked in the controller
-        if (ret.isEmpty()) {
-            return Optional.empty();
+    public StatusTransition updateStatusToDelivered(Long orderId, UpdateToDeliveredRequest updateToDeliveredRequest) {
+        OffsetDateTime deliveredTime = updateToDeliveredRequest == null
+            ? null : updateToDeliveredRequest.getActualDeliveryTime();
+        if (deliveredTime == null) {
+            return outcome(orderId, 0);
         }
-        Order order = ret.get();
-        Time timeValues = order.getTimeValues();
 
-        // Something is wrong if there is no timeValues,
-        // if there is no time to set to, and if there is already an actual delivery time
-        if (timeValues == null || updateToDeliveredRequest.getActualDeliveryTime() == null
-            || timeValues.getActualDeliveryTime() != null) {
-            return Optional.empty();
+        // read before the update for the ETA engine, like in updateStatusToPreparing
+        Optional<Order> order = orderRepo.findById(orderId);
+        if (order.isEmpty()) {
+            return StatusTransition.NOT_FOUND;
+        }
+        if (orderRepo.updateStatusAndDeliveryTime(orderId, Order.StatusEnum.IN_TRANSIT, Order.StatusEnum.DELIVERED,
+            deliveredTime) == 0) {
+            return StatusTransition.INVALID;
         }
 
-        // set the timeValues of the order object
-        OffsetDateTime deliveredTime = updateToDeliveredRequest.getActualDeliveryTime();
-        Time newTimeValues = timeValues.actualDeliveryTime(deliveredTime);
+        // the speed of the courier is learned here, so estimating an ETA never has to look at past orders
+        Order delivered = order.get().status(Order.StatusEnum.DELIVERED);
+        delivered.setTimeValues(timeValues(delivered).actualDeliveryTime(deliveredTime));
+        etaEngine.deliveryCompleted(delivered);
+        return StatusTransition.UPDATED;
+    }
 
-        order.setStatus(Order.StatusEnum.DELIVERED);
-        order.setTimeValues(newTimeValues);
-        orderRepo.saveAndFlush(order);
-        return Optional.of(order);
+    private static Time timeValues(Order order) {
+        return order.getTimeValues() == null ? new Time() : order.getTimeValues();
+    }
+
+    /**
+     * Translates the number of rows a conditional status update changed into the outcome of the transition.
+     * Only when nothing was updated a second query is needed, to tell a missing order from one in another status.
+     *
+     * @param orderId the id of the order
+     * @param updated the number of updated rows
+     * @return the outcome of the transition
+     */
+    private StatusTransition outcome(Long orderId, int updated) {
+        if (updated > 0) {
+            return StatusTransition.UPDATED;
+        }
+        return orderRepo.existsById(orderId) ? StatusTransition.INVALID : StatusTransition.NOT_FOUND;
     }
 
     /**
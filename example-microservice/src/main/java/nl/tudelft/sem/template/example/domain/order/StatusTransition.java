@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+/**
+ * Outcome of an attempt to move an order to another status.
+ */
+public enum StatusTransition {
+    /**
+     * The order was in the expected status and has been updated.
+     */
+    UPDATED,
+    /**
+     * There is no order with the given id.
+     */
+    NOT_FOUND,
+    /**
+     * The order exists but was not in the expected status (anymore), or the request was not valid for it.
+     */
+    INVALID
+}
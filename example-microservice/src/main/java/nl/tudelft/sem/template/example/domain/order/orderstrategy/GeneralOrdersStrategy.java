@@ -1,13 +1,9 @@
 package nl.tudelft.sem.template.example.domain.order.orderstrategy;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
-import nl.tudelft.sem.template.example.domain.user.VendorRepository;
 import nl.tudelft.sem.template.model.Order;
-import nl.tudelft.sem.template.model.Vendor;
 
 public class GeneralOrdersStrategy implements NextOrderStrategy {
     /**
@@ -17,11 +13,9 @@ public class GeneralOrdersStrategy implements NextOrderStrategy {
      */
 
     private final OrderRepository orderRepository;
-    private final VendorRepository vendorRepository;
 
-    public GeneralOrdersStrategy(OrderRepository orderRepository, VendorRepository vendorRepository) {
+    public GeneralOrdersStrategy(OrderRepository orderRepository) {
         this.orderRepository = orderRepository;
-        this.vendorRepository = vendorRepository;
     }
 
     /**
@@ -42,38 +36,7 @@ public class GeneralOrdersStrategy implements NextOrderStrategy {
             return Optional.empty();
         }
 
-        // get all orders that are being prepared
-        List<Order> all = orderRepository.findByStatus(Order.StatusEnum.PREPARING);
-
-        if (all.isEmpty()) {
-            return Optional.of(new ArrayList<>());
-        }
-
-        // now we have to get the ones whose vendors don't have couriers and whose couriers have not been assigned yet
-        List<Order> orders = all.stream()
-            .filter(order -> !vendorHasCouriers(order.getVendorId()))
-            .filter(order -> order.getCourierId() == null)
-            .collect(Collectors.toList());
-
-
-        return Optional.of(orders);
+        // the vendor and courier filtering is done by the database, so this is one query for any amount of orders
+        return Optional.of(orderRepository.findUnassignedIndependentOrders(Order.StatusEnum.PREPARING));
     }
-
-    /**
-     * Returns if the given vendor exists and has its own couriers.
-     *
-     * @param vendorId the id of the vendor to check for
-     * @return the boolean stating if the vendor has its oen couriers or not
-     */
-    public Boolean vendorHasCouriers(Long vendorId) {
-        Optional<Vendor> vendor = vendorRepository.findById(vendorId);
-
-        if (vendor.isEmpty()) {
-            return false;
-        }
-
-        return vendor.get().getHasCouriers();
-    }
-
-
 }
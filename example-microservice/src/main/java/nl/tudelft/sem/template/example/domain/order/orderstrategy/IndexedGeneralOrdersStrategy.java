@@ -0,0 +1,41 @@
+package nl.tudelft.sem.template.example.domain.order.orderstrategy;
+
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.model.Order;
+
+public class IndexedGeneralOrdersStrategy implements NextOrderStrategy {
+    /**
+     * Same as the GeneralOrdersStrategy, but served from the in-memory dispatch index instead of the database.
+     * Until the index is loaded the given database backed strategy is used.
+     */
+
+    private final DispatchIndex dispatchIndex;
+    private final NextOrderStrategy fallback;
+
+    public IndexedGeneralOrdersStrategy(DispatchIndex dispatchIndex, NextOrderStrategy fallback) {
+        this.dispatchIndex = dispatchIndex;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Gets the unassigned orders that are being prepared of vendors without couriers, without a database query.
+     *
+     * @param vendorId the optional id of the vendor, in this strategy it has to be empty
+     * @return an optional list of available orders, empty list if there are currently none,
+     *         empty optional if there is a vendor id passed
+     */
+    @Override
+    public Optional<List<Order>> availableOrders(Optional<Long> vendorId) {
+        if (!dispatchIndex.isLoaded()) {
+            return fallback.availableOrders(vendorId);
+        }
+
+        if (vendorId.isPresent()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(dispatchIndex.independentOrders());
+    }
+}
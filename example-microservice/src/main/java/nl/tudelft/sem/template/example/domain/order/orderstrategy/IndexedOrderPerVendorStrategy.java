@@ -0,0 +1,42 @@
+package nl.tudelft.sem.template.example.domain.order.orderstrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.model.Order;
+
+public class IndexedOrderPerVendorStrategy implements NextOrderStrategy {
+    /**
+     * Same as the OrderPerVendorStrategy, but served from the in-memory dispatch index instead of the database.
+     * Until the index is loaded the given database backed strategy is used.
+     */
+
+    private final DispatchIndex dispatchIndex;
+    private final NextOrderStrategy fallback;
+
+    public IndexedOrderPerVendorStrategy(DispatchIndex dispatchIndex, NextOrderStrategy fallback) {
+        this.dispatchIndex = dispatchIndex;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Gets the order of the vendor that was placed first, without a database query.
+     *
+     * @param vendorId the id of the vendor, required for this strategy
+     * @return a list containing the single order of the vendor that was placed first, empty list if there is none,
+     *         empty optional if there is no vendor id
+     */
+    @Override
+    public Optional<List<Order>> availableOrders(Optional<Long> vendorId) {
+        if (!dispatchIndex.isLoaded()) {
+            return fallback.availableOrders(vendorId);
+        }
+
+        if (vendorId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(dispatchIndex.nextForVendor(vendorId.get()).map(List::of).orElseGet(ArrayList::new));
+    }
+}
@@ -0,0 +1,78 @@
+package nl.tudelft.sem.template.example.domain.order.orderstrategy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Vendor;
+
+public class NearbyOrdersStrategy implements NextOrderStrategy {
+    /**
+     * Like the GeneralOrdersStrategy, but only the orders of vendors whose radius covers the location
+     * of the courier are returned. The vendors are looked up in the spatial index and their orders in the
+     * dispatch index, until both are loaded the given strategy is used and its orders are filtered one by one.
+     */
+
+    private final DispatchIndex dispatchIndex;
+    private final VendorSpatialIndex spatialIndex;
+    private final VendorRepository vendorRepository;
+    private final NextOrderStrategy fallback;
+    private final Location courierLocation;
+
+    /**
+     * Constructor for the nearby orders strategy.
+     *
+     * @param dispatchIndex    index of the orders that can be dispatched
+     * @param spatialIndex     index of the vendor locations
+     * @param vendorRepository repo for vendors, only used while the indexes are not loaded
+     * @param fallback         strategy for all independent orders, used while the indexes are not loaded
+     * @param courierLocation  the current location of the courier
+     */
+    public NearbyOrdersStrategy(DispatchIndex dispatchIndex, VendorSpatialIndex spatialIndex,
+                                VendorRepository vendorRepository, NextOrderStrategy fallback,
+                                Location courierLocation) {
+        this.dispatchIndex = dispatchIndex;
+        this.spatialIndex = spatialIndex;
+        this.vendorRepository = vendorRepository;
+        this.fallback = fallback;
+        this.courierLocation = courierLocation;
+    }
+
+    /**
+     * Gets the unassigned orders that are being prepared of vendors without couriers that deliver to the courier.
+     *
+     * @param vendorId the optional id of the vendor, in this strategy it has to be empty
+     * @return an optional list of available orders ordered by id, empty list if there are currently none,
+     *         empty optional if there is a vendor id passed or the location of the courier is unknown
+     */
+    @Override
+    public Optional<List<Order>> availableOrders(Optional<Long> vendorId) {
+        if (vendorId.isPresent() || courierLocation == null
+            || courierLocation.getLatitude() == null || courierLocation.getLongitude() == null) {
+            return Optional.empty();
+        }
+
+        if (dispatchIndex.isLoaded() && spatialIndex.isLoaded()) {
+            return Optional.of(dispatchIndex.independentOrdersOf(spatialIndex.vendorsCovering(courierLocation)));
+        }
+
+        Optional<List<Order>> orders = fallback.availableOrders(Optional.empty());
+        if (orders.isEmpty() || orders.get().isEmpty()) {
+            return orders;
+        }
+
+        Set<Long> vendorIds = orders.get().stream().map(Order::getVendorId).collect(Collectors.toSet());
+        Set<Long> covering = vendorRepository.findAllById(vendorIds).stream()
+            .filter(v -> VendorSpatialIndex.covers(v, courierLocation))
+            .map(Vendor::getId)
+            .collect(Collectors.toSet());
+        return Optional.of(orders.get().stream()
+            .filter(o -> covering.contains(o.getVendorId()))
+            .collect(Collectors.toList()));
+    }
+}
@@ -25,7 +25,7 @@ public class OrderPerVendorStrategy implements NextOrderStrategy {
      * Imagine a UI where it first shows the courier what order they're going to get,
      * then they push an "accept" button to make another request that will set the courierId of the order
      *
-     * @return a list containing a single order that was assigned by the vendor to that courier
+     * @return a list containing the single order of the vendor that was placed first, ordered by order time then id
      */
     @Override
     public Optional<List<Order>> availableOrders(Optional<Long> vendorId) {
@@ -33,22 +33,18 @@ public class OrderPerVendorStrategy implements NextOrderStrategy {
             return Optional.empty(); // well something went wrong
         }
 
-        List<Order> availableOrders =
-            orderRepository.findByVendorIdAndStatusAndCourierId(vendorId.get(), Order.StatusEnum.PREPARING, null);
+        Optional<Order> next = orderRepository
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(vendorId.get(),
+                Order.StatusEnum.PREPARING);
 
-        if (availableOrders == null) {
-            // something went wrong with communication
-            return Optional.empty();
-        }
-
-        if (availableOrders.isEmpty()) {
-            // if no available orders, return empty list
+        // if no available orders, return empty list
+        if (next.isEmpty()) {
             return Optional.of(new ArrayList<>());
         }
 
-        // return only one order as a courier is "assigned" an order, this behavior can be changed in the future
-        // according to the needs of the vendor by for example first ordering and then getting the first one
-        return Optional.of(List.of(availableOrders.get(0)));
+        // return only one order as a courier is "assigned" an order, the database picks the one placed first
+        // so only that row is read
+        return Optional.of(List.of(next.get()));
     }
 
 }
@@ -0,0 +1,339 @@
+package nl.tudelft.sem.template.example.domain.user;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.Location;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Latest known location of every courier, kept in memory and written to the courier table behind the scenes.
+ * In write-behind mode an update only replaces the location in memory and marks the courier as dirty. The dirty
+ * couriers are written in one transaction every flush interval, so a courier that sent ten locations since the
+ * last flush costs one row update instead of ten. Reads are served from memory and only go to the database the
+ * first time a courier is seen.
+ * Locations that are not flushed yet are lost if the process dies, up to one flush interval of them. When that
+ * is not acceptable the store can be put in write-through mode, where every update is written right away.
+ */
+public class CourierLocationStore implements AutoCloseable {
+
+    private final CourierRepository courierRepo;
+    private final TransactionOperations transactions;
+    private final boolean writeThrough;
+    private final Map<Long, Optional<Location>> latest = new ConcurrentHashMap<>();
+    private final Map<Long, Location> pending = new ConcurrentHashMap<>();
+    // moment of the oldest update that is not flushed yet, 0 when there is none
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushLagMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor for the courier location store.
+     *
+     * @param courierRepo  repo for couriers
+     * @param transactions runs a flush in a single transaction
+     * @param writeThrough whether every update is written right away instead of in batches
+     */
+    public CourierLocationStore(CourierRepository courierRepo, TransactionOperations transactions,
+                                boolean writeThrough) {
+        this.courierRepo = courierRepo;
+        this.transactions = transactions;
+        this.writeThrough = writeThrough;
+    }
+
+    /**
+     * Store that writes every update right away, like the courier table was used before the store existed.
+     *
+     * @param courierRepo repo for couriers
+     * @return the store
+     */
+    public static CourierLocationStore writeThrough(CourierRepository courierRepo) {
+        return new CourierLocationStore(courierRepo, TransactionOperations.withoutTransaction(), true);
+    }
+
+    /**
+     * Starts flushing the dirty couriers in the background.
+     *
+     * @param interval the time between the end of one flush and the start of the next
+     */
+    public synchronized void start(Duration interval) {
+        if (writeThrough || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "courier-location-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval.toMillis(), interval.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the latest location of a courier, from memory if the courier was seen before.
+     *
+     * @param courierId the id of the courier
+     * @return the location, empty if the courier does not exist or has no location
+     */
+    public Optional<Location> latest(Long courierId) {
+        Optional<Location> location = load(courierId);
+        return location == null ? Optional.empty() : location;
+    }
+
+    /**
+     * Gets the location of a courier that is not written to the database yet, without reading the courier.
+     *
+     * @param courierId the id of the courier
+     * @return the location, empty if the database already has the latest location
+     */
+    public Optional<Location> unwritten(Long courierId) {
+        return Optional.ofNullable(courierId == null ? null : pending.get(courierId));
+    }
+
+    /**
+     * Records a new location of a courier.
+     *
+     * @param courierId the id of the courier
+     * @param location  the new location
+     * @return false if the courier does not exist
+     */
+    public boolean update(Long courierId, Location location) {
+        if (location == null) {
+            return false;
+        }
+        Location copy = new Location().latitude(location.getLatitude()).longitude(location.getLongitude());
+
+        if (writeThrough) {
+            if (courierId == null || !write(courierId, copy)) {
+                return false;
+            }
+            latest.put(courierId, Optional.of(copy));
+            return true;
+        }
+
+        if (load(courierId) == null) {
+            return false;
+        }
+        latest.put(courierId, Optional.of(copy));
+        pending.put(courierId, copy);
+        oldestPendingMillis.compareAndSet(0, System.currentTimeMillis());
+        updates.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Records new locations of many couriers at once. Couriers that were not seen before are read in one query
+     * and in write-through mode all locations are written in one batch.
+     *
+     * @param locations the new location per courier id
+     * @return the ids of the couriers that exist and were updated
+     */
+    public Set<Long> updateAll(Map<Long, Location> locations) {
+        Map<Long, Location> copies = new HashMap<>();
+        locations.forEach((id, location) -> {
+            if (id != null && location != null) {
+                copies.put(id, new Location().latitude(location.getLatitude()).longitude(location.getLongitude()));
+            }
+        });
+        if (copies.isEmpty()) {
+            return Set.of();
+        }
+
+        if (writeThrough) {
+            Set<Long> updated = new HashSet<>();
+            transactions.executeWithoutResult(status -> copies.forEach((id, location) -> {
+                if (write(id, location)) {
+                    updated.add(id);
+                }
+            }));
+            updated.forEach(id -> latest.put(id, Optional.of(copies.get(id))));
+            return updated;
+        }
+
+        Set<Long> unseen = new HashSet<>(copies.keySet());
+        unseen.removeAll(latest.keySet());
+        if (!unseen.isEmpty()) {
+            for (Courier courier : courierRepo.findAllById(unseen)) {
+                latest.putIfAbsent(courier.getId(), Optional.ofNullable(courier.getCurrentLocation()));
+            }
+        }
+
+        Set<Long> updated = new HashSet<>();
+        copies.forEach((id, location) -> {
+            if (latest.containsKey(id)) {
+                latest.put(id, Optional.of(location));
+                pending.put(id, location);
+                updated.add(id);
+            }
+        });
+        if (!updated.isEmpty()) {
+            oldestPendingMillis.compareAndSet(0, System.currentTimeMillis());
+            updates.addAndGet(updated.size());
+        }
+        return updated;
+    }
+
+    /**
+     * Tells the store a courier was saved by someone else, so it does not keep serving an older location.
+     *
+     * @param courier the saved courier
+     */
+    public void saved(Courier courier) {
+        if (courier == null || courier.getId() == null) {
+            return;
+        }
+        // a location that is still waiting to be written is newer than the one that was saved
+        if (!pending.containsKey(courier.getId())) {
+            latest.put(courier.getId(), Optional.ofNullable(courier.getCurrentLocation()));
+        }
+    }
+
+    /**
+     * Writes the location of all dirty couriers in one transaction, without touching their other columns.
+     * Couriers that were updated again while the flush ran stay dirty.
+     *
+     * @return the number of couriers written
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        // copied before the timestamp is reset, an update that lands in between keeps its location pending
+        Map<Long, Location> batch = new HashMap<>(pending);
+        long oldest = oldestPendingMillis.getAndSet(0);
+
+        try {
+            transactions.executeWithoutResult(status -> batch.forEach(this::write));
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            oldestPendingMillis.compareAndSet(0, oldest);
+            throw e;
+        }
+
+        // only removed when the location did not change in the meantime
+        batch.forEach(pending::remove);
+        // an update that raced with the copy can leave a timestamp without a pending location, or the other way
+        // around, so the timestamp is made to match what is still pending
+        if (pending.isEmpty()) {
+            oldestPendingMillis.set(0);
+        } else {
+            oldestPendingMillis.compareAndSet(0, started);
+        }
+        writtenRows.addAndGet(batch.size());
+        lastFlushLagMillis = oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+        return batch.size();
+    }
+
+    /**
+     * Gets the number of couriers with a location that is not written yet.
+     *
+     * @return the number of dirty couriers
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets how long the oldest location that is not written yet has been waiting.
+     *
+     * @return the lag in milliseconds, 0 if everything is written
+     */
+    public long currentLagMillis() {
+        long oldest = oldestPendingMillis.get();
+        return oldest == 0 || pending.isEmpty() ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    /**
+     * Gets how long the oldest location of the last flush waited before it was written.
+     *
+     * @return the lag in milliseconds
+     */
+    public long lastFlushLagMillis() {
+        return lastFlushLagMillis;
+    }
+
+    public long updateCount() {
+        return updates.get();
+    }
+
+    public long writtenRowCount() {
+        return writtenRows.get();
+    }
+
+    public long failedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    /**
+     * Stops the background flushes and writes what is left.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        flush();
+    }
+
+    /**
+     * Flush for the scheduler, an exception would cancel all later runs, so the failure is only counted
+     * and the locations are tried again next time.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // counted in flush
+        }
+    }
+
+    /**
+     * Writes only the location columns of a courier, a whole courier would overwrite a boss that was changed
+     * since it was read.
+     *
+     * @return false if the courier does not exist
+     */
+    private boolean write(Long courierId, Location location) {
+        return courierRepo.updateLocation(courierId, location.getLatitude(), location.getLongitude()) > 0;
+    }
+
+    /**
+     * Gets the cached location of a courier, reading the courier once if it was not seen before.
+     *
+     * @return null if the courier does not exist
+     */
+    private Optional<Location> load(Long courierId) {
+        if (courierId == null) {
+            return null;
+        }
+        Optional<Location> cached = latest.get(courierId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<Courier> courier = courierRepo.findById(courierId);
+        if (courier.isEmpty()) {
+            return null;
+        }
+        Optional<Location> location = Optional.ofNullable(courier.get().getCurrentLocation());
+        Optional<Location> raced = latest.putIfAbsent(courierId, location);
+        return raced == null ? location : raced;
+    }
+}
@@ -2,9 +2,41 @@ package nl.tudelft.sem.template.example.domain.user;
 
 import nl.tudelft.sem.template.model.Courier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface CourierRepository extends JpaRepository<Courier, Long> {
     boolean existsByIdAndBossId(Long courierId, Long vendorId);
+
+    /**
+     * Sets the location of a courier without touching its other columns, so it cannot overwrite a boss that was
+     * changed at the same time.
+     *
+     * @param id        the id of the courier
+     * @param latitude  the new latitude
+     * @param longitude the new longitude
+     * @return the number of updated couriers, 0 if the courier does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Courier c SET c.currentLocation.latitude = :latitude, c.currentLocation.longitude = :longitude "
+        + "WHERE c.id = :id")
+    int updateLocation(@Param("id") Long id, @Param("latitude") Float latitude, @Param("longitude") Float longitude);
+
+    /**
+     * Sets the boss of a courier without touching its other columns, so it cannot overwrite a location that was
+     * written at the same time.
+     *
+     * @param id     the id of the courier
+     * @param bossId the new boss
+     * @return the number of updated couriers, 0 if the courier does not exist
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Courier c SET c.bossId = :bossId WHERE c.id = :id")
+    int updateBossId(@Param("id") Long id, @Param("bossId") Long bossId);
 }
@@ -10,10 +10,18 @@ import org.springframework.stereotype.Service;
 public class CourierService {
 
     private final CourierRepository courierRepo;
+    private final CourierLocationStore locationStore;
 
+    /**
+     * Courier Service Constructor that keeps the latest locations consistent with the saved couriers.
+     *
+     * @param courierRepo   repo for couriers
+     * @param locationStore store of the latest courier locations
+     */
     @Autowired
-    public CourierService(CourierRepository courierRepo) {
+    public CourierService(CourierRepository courierRepo, CourierLocationStore locationStore) {
         this.courierRepo = courierRepo;
+        this.locationStore = locationStore;
     }
 
     /**
@@ -25,27 +33,23 @@ public class CourierService {
      * @return the optional of updated courier object, empty if the courier was not found
      */
     public Optional<Long> updateBossIdOfCourier(Long courierId, Long bossId) {
-        Optional<Courier> courier = courierRepo.findById(courierId);
-
-        if (courier.isEmpty()) {
+        // only the boss is written, saving the whole courier would overwrite a location flushed in the meantime
+        if (courierRepo.updateBossId(courierId, bossId) == 0) {
             return Optional.empty();
         }
-
-        Courier c = courier.get();
-        c.setBossId(bossId);
-
-        Courier saved = courierRepo.saveAndFlush(c);
-        return Optional.of(saved.getBossId());
+        return Optional.of(bossId);
     }
 
     /**
-     * Gets the courier based on id.
+     * Gets the courier based on id, with the latest location even if it is not written to the database yet.
      *
      * @param courierId the id of the courier
      * @return empty optional if courier DNE, optional of Courier otherwise
      */
     public Optional<Courier> getCourierById(Long courierId) {
-        return courierRepo.findById(courierId);
+        Optional<Courier> courier = courierRepo.findById(courierId);
+        courier.ifPresent(c -> locationStore.unwritten(courierId).ifPresent(c::setCurrentLocation));
+        return courier;
     }
 
     /**
@@ -56,6 +60,7 @@ public class CourierService {
      */
     public Optional<Courier> makeCourier(Courier courier) {
         Courier saved = courierRepo.saveAndFlush(courier);
+        locationStore.saved(saved);
         return Optional.of(saved);
     }
 
@@ -68,6 +73,7 @@ public class CourierService {
     public Optional<Courier> makeCourierById(Long courierId) {
         Courier courier = new Courier().id(courierId);
         Courier saved = courierRepo.saveAndFlush(courier);
+        locationStore.saved(saved);
         return Optional.of(saved);
     }
 
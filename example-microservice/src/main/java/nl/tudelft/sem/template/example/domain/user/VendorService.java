@@ -1,6 +1,8 @@
 package nl.tudelft.sem.template.example.domain.user;
 
 import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.model.Vendor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,10 +12,25 @@ import org.springframework.stereotype.Service;
 public class VendorService {
 
     private final VendorRepository vendorRepo;
+    private final DispatchIndex dispatchIndex;
+    private final VendorSpatialIndex spatialIndex;
+    private final EtaEngine etaEngine;
 
+    /**
+     * Constructor for the VendorService that keeps the in-memory indexes and the ETA engine up to date.
+     *
+     * @param vendorRepo    repo for vendors
+     * @param dispatchIndex index of the orders that can be dispatched to couriers
+     * @param spatialIndex  index of the vendor locations
+     * @param etaEngine     engine that needs the vendor locations as pickup points
+     */
     @Autowired
-    public VendorService(VendorRepository vendorRepo) {
+    public VendorService(VendorRepository vendorRepo, DispatchIndex dispatchIndex, VendorSpatialIndex spatialIndex,
+                         EtaEngine etaEngine) {
         this.vendorRepo = vendorRepo;
+        this.dispatchIndex = dispatchIndex;
+        this.spatialIndex = spatialIndex;
+        this.etaEngine = etaEngine;
     }
 
     /**
@@ -24,6 +41,9 @@ public class VendorService {
      */
     public Optional<Vendor> makeVendor(Vendor vendor) {
         Vendor saved = vendorRepo.saveAndFlush(vendor);
+        dispatchIndex.vendorUpdated(saved);
+        spatialIndex.update(saved);
+        etaEngine.vendorMoved(saved);
         return Optional.of(saved);
     }
 
@@ -36,6 +56,10 @@ public class VendorService {
     public Optional<Vendor> makeVendorById(Long vendorId) {
         Vendor vendor = new Vendor().id(vendorId);
         Vendor saved = vendorRepo.saveAndFlush(vendor);
+        // the vendor is stored without location or radius, so a vendor that existed is taken out of the indexes
+        dispatchIndex.vendorUpdated(saved);
+        spatialIndex.update(saved);
+        etaEngine.vendorMoved(saved);
         return Optional.of(saved);
     }
 
@@ -81,7 +105,7 @@ public class VendorService {
         Vendor v = vendor.get();
         v.setRadius(body);
 
-        vendorRepo.saveAndFlush(vendor.get());
+        spatialIndex.update(vendorRepo.saveAndFlush(v));
         return Optional.of(v.getRadius());
     }
 
@@ -0,0 +1,239 @@
+package nl.tudelft.sem.template.example.domain.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import nl.tudelft.sem.template.example.domain.navigation.DistanceCalculator;
+import nl.tudelft.sem.template.example.domain.navigation.HaversineDistanceCalculator;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Vendor;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory grid over the locations of the vendors, used to find the vendors whose delivery radius covers a point.
+ * Every vendor is added to all grid cells its radius touches, so a lookup only has to check the vendors of the one
+ * cell the point falls in. Vendors with a radius so large that they would cover more than MAX_CELLS_PER_VENDOR cells
+ * are kept in a separate list that is checked on every lookup instead.
+ * The radius of a vendor is in kilometres, vendors without a location or radius do not deliver anywhere.
+ */
+@Component
+public class VendorSpatialIndex {
+
+    public static final double CELL_DEGREES = 0.25;
+    public static final int MAX_CELLS_PER_VENDOR = 256;
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final List<Entry> wide = new ArrayList<>();
+    private volatile boolean loaded;
+
+    /**
+     * Replaces the content of the index and marks it as loaded.
+     *
+     * @param vendors all vendors
+     */
+    public void rebuild(Collection<Vendor> vendors) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+            wide.clear();
+            for (Vendor vendor : vendors) {
+                updateLocked(vendor);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index has been filled, before that lookups should go to the database.
+     *
+     * @return true if the index was loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds or moves a vendor after their location or radius changed.
+     *
+     * @param vendor the new state of the vendor
+     */
+    public void update(Vendor vendor) {
+        if (vendor == null || vendor.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            updateLocked(vendor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the ids of all vendors whose radius covers the given location.
+     *
+     * @param location the location, for example the current location of a courier
+     * @return the ids of the vendors, empty if there are none or the location is incomplete
+     */
+    public List<Long> vendorsCovering(Location location) {
+        List<Long> res = new ArrayList<>();
+        if (location == null || location.getLatitude() == null || location.getLongitude() == null) {
+            return res;
+        }
+        double lat = location.getLatitude();
+        double lon = location.getLongitude();
+
+        lock.readLock().lock();
+        try {
+            addCovering(cells.get(cellKey(latCell(lat), lonCell(lon))), lat, lon, res);
+            addCovering(wide, lat, lon, res);
+            return res;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the radius of a vendor covers a location, without using the index.
+     *
+     * @param vendor   the vendor
+     * @param location the location
+     * @return true if the location is within the radius of the vendor
+     */
+    public static boolean covers(Vendor vendor, Location location) {
+        if (vendor == null || location == null || location.getLatitude() == null || location.getLongitude() == null) {
+            return false;
+        }
+        Entry entry = Entry.of(vendor);
+        return entry != null && entry.covers(location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Gets the number of vendors that deliver somewhere.
+     *
+     * @return the size of the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void updateLocked(Vendor vendor) {
+        removeLocked(vendor.getId());
+        Entry entry = Entry.of(vendor);
+        if (entry == null) {
+            return;
+        }
+        entries.put(entry.id, entry);
+
+        // bounding box of the radius, the longitude span grows towards the poles and covers everything
+        // when the radius reaches over a pole
+        double angle = entry.radiusKm * 1000 / DistanceCalculator.EARTH_RADIUS_METERS;
+        double latSpan = Math.toDegrees(angle);
+        double lonSpan = angle >= Math.PI / 2 - Math.abs(Math.toRadians(entry.lat)) ? 180
+            : Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(Math.toRadians(entry.lat))));
+        int minLat = latCell(Math.max(-90, entry.lat - latSpan));
+        int maxLat = latCell(Math.min(90, entry.lat + latSpan));
+        int lonCount = lonSpan >= 180 ? LON_CELLS
+            : Math.floorMod(lonCell(entry.lon + lonSpan) - lonCell(entry.lon - lonSpan), LON_CELLS) + 1;
+
+        if ((long) (maxLat - minLat + 1) * lonCount > MAX_CELLS_PER_VENDOR) {
+            wide.add(entry);
+            return;
+        }
+        int minLon = lonCell(entry.lon - lonSpan);
+        for (int latCell = minLat; latCell <= maxLat; latCell++) {
+            for (int i = 0; i < lonCount; i++) {
+                long key = cellKey(latCell, Math.floorMod(minLon + i, LON_CELLS));
+                cells.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                entry.cells.add(key);
+            }
+        }
+    }
+
+    private void removeLocked(Long vendorId) {
+        Entry entry = entries.remove(vendorId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.cells.isEmpty()) {
+            wide.remove(entry);
+            return;
+        }
+        for (Long key : entry.cells) {
+            List<Entry> cell = cells.get(key);
+            cell.remove(entry);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static void addCovering(List<Entry> candidates, double lat, double lon, List<Long> res) {
+        if (candidates == null) {
+            return;
+        }
+        for (Entry entry : candidates) {
+            if (entry.covers(lat, lon)) {
+                res.add(entry.id);
+            }
+        }
+    }
+
+    private static int latCell(double lat) {
+        return (int) Math.floor((lat + 90) / CELL_DEGREES);
+    }
+
+    private static int lonCell(double lon) {
+        return Math.floorMod((int) Math.floor((lon + 180) / CELL_DEGREES), LON_CELLS);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | lonCell;
+    }
+
+    /**
+     * Copy of the location and radius of a vendor, so later changes to the vendor object cannot corrupt the grid.
+     */
+    private static final class Entry {
+        private final Long id;
+        private final double lat;
+        private final double lon;
+        private final double radiusKm;
+        private final List<Long> cells = new ArrayList<>();
+
+        private Entry(Long id, double lat, double lon, double radiusKm) {
+            this.id = id;
+            this.lat = lat;
+            this.lon = lon;
+            this.radiusKm = radiusKm;
+        }
+
+        private static Entry of(Vendor vendor) {
+            Location location = vendor.getLocation();
+            if (vendor.getRadius() == null || vendor.getRadius() < 0 || location == null
+                || location.getLatitude() == null || location.getLongitude() == null) {
+                return null;
+            }
+            return new Entry(vendor.getId(), location.getLatitude(), location.getLongitude(), vendor.getRadius());
+        }
+
+        private boolean covers(double pointLat, double pointLon) {
+            return HaversineDistanceCalculator.haversine(lat, lon, pointLat, pointLon) <= radiusKm * 1000;
+        }
+    }
+}
@@ -1,19 +1,46 @@
 package nl.tudelft.sem.template.example.externalservices;
 
+import nl.tudelft.sem.template.example.utils.Bulkhead;
+import nl.tudelft.sem.template.example.utils.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class OrderExternalService {
 
     private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
 
     private final String orderServerBaseUrl = "http://localhost:8082";
 
     public OrderExternalService() {
-        this.restTemplate = new RestTemplate();
+        this(new RestTemplate());
+    }
+
+    public OrderExternalService(RestTemplate restTemplate) {
+        this(restTemplate, CircuitBreaker.disabled("order-service"), Bulkhead.disabled("order-service"));
+    }
+
+    /**
+     * Constructor for an OrderExternalService that guards the calls to the order microservice.
+     *
+     * @param restTemplate   the rest template
+     * @param circuitBreaker stops the calls while the order service is failing
+     * @param bulkhead       limits the number of calls in flight
+     */
+    @Autowired
+    public OrderExternalService(RestTemplate restTemplate,
+                                @Qualifier("orderServiceCircuitBreaker") CircuitBreaker circuitBreaker,
+                                @Qualifier("orderServiceBulkhead") Bulkhead bulkhead) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -22,6 +49,8 @@ public class OrderExternalService {
      * @param userId  The ID of the user.
      * @param orderId The ID of the order.
      * @return The response entity obtained from the order service as a String.
+     * @throws nl.tudelft.sem.template.example.utils.CallNotPermittedException if the circuit is open or the
+     *         bulkhead is full
      */
     public ResponseEntity<String> getOrder(Long userId, Long orderId) {
         String getOrderServiceEndpoint = orderServerBaseUrl + "/order/" + orderId;
@@ -29,12 +58,12 @@ public class OrderExternalService {
         HttpHeaders headers = new HttpHeaders();
         headers.set("userId", String.valueOf(userId));
 
-        return restTemplate.exchange(
+        return bulkhead.execute(() -> circuitBreaker.execute(() -> restTemplate.exchange(
             getOrderServiceEndpoint,
             org.springframework.http.HttpMethod.GET,
             new org.springframework.http.HttpEntity<>(headers),
             String.class
-        );
+        ), e -> !(e instanceof HttpClientErrorException)));
     }
 
 
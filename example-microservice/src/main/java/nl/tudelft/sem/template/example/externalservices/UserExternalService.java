@@ -1,17 +1,44 @@
 package nl.tudelft.sem.template.example.externalservices;
 
+import nl.tudelft.sem.template.example.utils.Bulkhead;
+import nl.tudelft.sem.template.example.utils.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class UserExternalService {
 
     private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
 
     private final String userServerBaseUrl = "http://localhost:4269";
 
     public UserExternalService() {
-        this.restTemplate = new RestTemplate();
+        this(new RestTemplate());
+    }
+
+    public UserExternalService(RestTemplate restTemplate) {
+        this(restTemplate, CircuitBreaker.disabled("user-service"), Bulkhead.disabled("user-service"));
+    }
+
+    /**
+     * Constructor for a UserExternalService that guards the calls to the user microservice.
+     *
+     * @param restTemplate   the rest template
+     * @param circuitBreaker stops the calls while the user service is failing
+     * @param bulkhead       limits the number of calls in flight
+     */
+    @Autowired
+    public UserExternalService(RestTemplate restTemplate,
+                               @Qualifier("userServiceCircuitBreaker") CircuitBreaker circuitBreaker,
+                               @Qualifier("userServiceBulkhead") Bulkhead bulkhead) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -19,9 +46,14 @@ public class UserExternalService {
      *
      * @param userId The ID of the user.
      * @return The user type obtained from the user service as a String.
+     * @throws nl.tudelft.sem.template.example.utils.CallNotPermittedException if the circuit is open or the
+     *         bulkhead is full
      */
     public String getUserTypeFromService(Long userId) {
         String userTypeServiceEndpoint = userServerBaseUrl + "/user/" + userId + "/type";
-        return restTemplate.getForObject(userTypeServiceEndpoint, String.class);
+        // a 4xx is an answer about the user, not a failure of the user service
+        return bulkhead.execute(() -> circuitBreaker.execute(
+            () -> restTemplate.getForObject(userTypeServiceEndpoint, String.class),
+            e -> !(e instanceof HttpClientErrorException)));
     }
 }
@@ -0,0 +1,94 @@
+package nl.tudelft.sem.template.example.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent calls to another service. When that service slows down only this many of our
+ * threads wait for it, the other requests are rejected right away and keep the rest of the application responsive.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Creates a new bulkhead.
+     *
+     * @param name               the name of the service, used in the exceptions and metrics
+     * @param maxConcurrentCalls the maximum number of calls in flight, 0 disables the bulkhead
+     * @param maxWait            how long a call waits for a free slot before it is rejected
+     */
+    public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrentCalls = Math.max(0, maxConcurrentCalls);
+        this.maxWaitNanos = Math.max(0, maxWait.toNanos());
+        this.permits = this.maxConcurrentCalls == 0 ? null : new Semaphore(this.maxConcurrentCalls, true);
+    }
+
+    /**
+     * Bulkhead that never rejects a call.
+     *
+     * @param name the name of the service
+     * @return a disabled bulkhead
+     */
+    public static Bulkhead disabled(String name) {
+        return new Bulkhead(name, 0, Duration.ZERO);
+    }
+
+    /**
+     * Makes the call if there is a free slot.
+     *
+     * @param call the call to the other service
+     * @param <T>  the type of the result
+     * @return the result of the call
+     * @throws CallNotPermittedException if all slots stayed taken for the maximum wait
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (permits == null) {
+            return call.get();
+        }
+        if (!tryAcquire()) {
+            rejections.increment();
+            throw new CallNotPermittedException("Bulkhead of " + name + " is full");
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of calls that are in flight.
+     *
+     * @return the number of taken slots, 0 if the bulkhead is disabled
+     */
+    public int activeCount() {
+        return permits == null ? 0 : maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+}
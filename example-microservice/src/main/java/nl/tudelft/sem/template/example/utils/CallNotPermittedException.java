@@ -0,0 +1,13 @@
+package nl.tudelft.sem.template.example.utils;
+
+/**
+ * Thrown instead of calling another service when its circuit breaker is open or its bulkhead is full.
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,212 @@
+package nl.tudelft.sem.template.example.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stops calling another service after a number of consecutive failures, so requests fail right away instead of
+ * waiting for the timeouts of a service that is down. After the open duration a single probe call is let through
+ * (half open), if it succeeds the circuit closes again, if it fails the circuit stays open for another period.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    // in half open only one probe is in flight at a time
+    private boolean probing;
+    // incremented on every change of state, a call only affects the state it was let through in
+    private long generation;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder openings = new LongAdder();
+
+    /**
+     * Creates a new circuit breaker.
+     *
+     * @param name             the name of the service, used in the exceptions and metrics
+     * @param failureThreshold the number of consecutive failures that opens the circuit, 0 disables the breaker
+     * @param openDuration     how long the circuit stays open before a probe call is let through
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Circuit breaker that never opens.
+     *
+     * @param name the name of the service
+     * @return a disabled circuit breaker
+     */
+    public static CircuitBreaker disabled(String name) {
+        return new CircuitBreaker(name, 0, Duration.ZERO);
+    }
+
+    /**
+     * Makes the call if the circuit allows it, every exception counts as a failure.
+     *
+     * @param call the call to the other service
+     * @param <T>  the type of the result
+     * @return the result of the call
+     * @throws CallNotPermittedException if the circuit is open
+     */
+    public <T> T execute(Supplier<T> call) {
+        return execute(call, e -> true);
+    }
+
+    /**
+     * Makes the call if the circuit allows it.
+     *
+     * @param call      the call to the other service
+     * @param isFailure decides if an exception of the call means the service is failing, other exceptions (like
+     *                  a 404 for a missing resource) are answers of a working service and count as successes
+     * @param <T>       the type of the result
+     * @return the result of the call
+     * @throws CallNotPermittedException if the circuit is open
+     */
+    public <T> T execute(Supplier<T> call, Predicate<RuntimeException> isFailure) {
+        long acquired = tryAcquire();
+        if (acquired < 0) {
+            rejections.increment();
+            throw new CallNotPermittedException("Circuit breaker of " + name + " is open");
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            if (isFailure.test(e)) {
+                onFailure(acquired);
+            } else {
+                onSuccess(acquired);
+            }
+            throw e;
+        } catch (Error e) {
+            onFailure(acquired);
+            throw e;
+        }
+        onSuccess(acquired);
+        return result;
+    }
+
+    /**
+     * Checks if a call may be made, moving an open circuit to half open once the open duration has passed.
+     *
+     * @return the generation the call is let through in, -1 if the call may not be made
+     */
+    private synchronized long tryAcquire() {
+        if (failureThreshold == 0) {
+            return generation;
+        }
+        switch (state) {
+            case CLOSED -> {
+                return generation;
+            }
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openNanos) {
+                    return -1;
+                }
+                moveTo(State.HALF_OPEN);
+                probing = true;
+                return generation;
+            }
+            default -> {
+                if (probing) {
+                    return -1;
+                }
+                probing = true;
+                return generation;
+            }
+        }
+    }
+
+    /**
+     * Records a success. A call that was let through before the last change of state is only counted, a slow call
+     * that started while the circuit was closed must not close it after other calls opened it.
+     */
+    private synchronized void onSuccess(long acquired) {
+        successes.increment();
+        if (acquired != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        probing = false;
+        if (state != State.CLOSED) {
+            moveTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failure, a call that was let through before the last change of state is only counted.
+     */
+    private synchronized void onFailure(long acquired) {
+        failures.increment();
+        if (failureThreshold == 0 || acquired != generation) {
+            return;
+        }
+        probing = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            openings.increment();
+            moveTo(State.OPEN);
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    private void moveTo(State next) {
+        state = next;
+        generation++;
+    }
+
+    /**
+     * Gets the state of the circuit, an open circuit whose open duration has passed is reported as open until
+     * the next call probes the service.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    public long getOpenedCount() {
+        return openings.sum();
+    }
+}
@@ -1,5 +1,10 @@
 package nl.tudelft.sem.template.example.utils;
 
+import java.util.Arrays;
+import java.util.List;
+import nl.tudelft.sem.template.example.authorization.Authorization;
+import nl.tudelft.sem.template.example.authorization.UserTypeCache;
+import nl.tudelft.sem.template.example.domain.order.OrderRelationship;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.user.CourierRepository;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
@@ -15,6 +20,9 @@ public class DbUtils {
     private final CourierRepository courierRepo;
 
     private final OrderExternalService orderExternalService;
+    private final UserTypeCache userTypeCache;
+    // concurrent ownership checks of the same customer and order share one call to the order service
+    private final SingleFlight<List<Long>, Boolean> customerChecks = new SingleFlight<>();
 
     /**
      * Constructor for DBUtils.
@@ -23,27 +31,55 @@ public class DbUtils {
      * @param vendorRepo           The vendor repository.
      * @param courierRepo          The courier repository.
      * @param orderExternalService The External Service for order
+     * @param userTypeCache        The user types the authorization looked up.
      */
     @Autowired
     public DbUtils(OrderRepository orderRepo, VendorRepository vendorRepo, CourierRepository courierRepo,
-                   OrderExternalService orderExternalService) {
+                   OrderExternalService orderExternalService, UserTypeCache userTypeCache) {
         this.orderRepo = orderRepo;
         this.vendorRepo = vendorRepo;
         this.courierRepo = courierRepo;
         this.orderExternalService = orderExternalService;
+        this.userTypeCache = userTypeCache;
     }
 
     /**
-     * Checks if a user belongs to an order.
+     * Checks if a user belongs to an order. The courier and vendor are checked with one query, only when the user
+     * is neither and is a customer the order service is asked whether they are the customer.
      *
      * @param userId  The ID of the user.
      * @param orderId The ID of the order.
      * @return True if the user belongs to the order, false otherwise.
      */
     public boolean userBelongsToOrder(Long userId, Long orderId) {
-        return orderRepo.existsByIdAndCourierId(orderId, userId)
-            || orderRepo.existsByIdAndVendorId(orderId, userId)
-            || customerBelongsToOrder(orderId, userId);
+        return relationshipToOrder(userId, orderId) != OrderRelationship.NONE
+            || mayBeCustomer(userId) && customerBelongsToOrder(orderId, userId);
+    }
+
+    /**
+     * Checks if a user can be a customer, by the user type the authorization step looked up right before the
+     * validation. Vendors and couriers that do not own the order are turned away without asking the order service.
+     *
+     * @param userId The ID of the user.
+     * @return False if the user is known to be no customer, true if they are or their type is not cached.
+     */
+    private boolean mayBeCustomer(Long userId) {
+        Authorization.UserType userType = userTypeCache.getIfPresent(userId);
+        return userType == null || userType == Authorization.UserType.CUSTOMER;
+    }
+
+    /**
+     * Gets how a user is related to an order, in a single query.
+     *
+     * @param userId  The ID of the user.
+     * @param orderId The ID of the order.
+     * @return COURIER or VENDOR if the user delivers or sells the order, NONE otherwise.
+     */
+    public OrderRelationship relationshipToOrder(Long userId, Long orderId) {
+        if (orderId == null) {
+            return OrderRelationship.NONE;
+        }
+        return OrderRelationship.of(orderRepo.findOwnersById(orderId).orElse(null), userId);
     }
 
     /**
@@ -57,20 +93,41 @@ public class DbUtils {
         return courierRepo.existsByIdAndBossId(courierId, vendorId);
     }
 
+    /**
+     * Checks if a user is a courier themselves or the vendor they work for.
+     *
+     * @param userId    The ID of the user.
+     * @param courierId The ID of the courier.
+     * @return True if the user is the courier or their boss, false otherwise.
+     */
+    public boolean userIsCourierOrTheirVendor(Long userId, Long courierId) {
+        return userId.equals(courierId) || courierBelongsToVendor(courierId, userId);
+    }
+
     /**
      * Checks if a customer belongs to an order.
      *
      * @param customerId The ID of the customer.
      * @param orderId    The ID of the order.
      * @return True if the customer belongs to the order, false otherwise.
+     * @throws CallNotPermittedException if the order service was not called because its circuit is open or its
+     *         bulkhead is full, the customer might own the order so this is no answer
      */
     public boolean customerBelongsToOrder(Long orderId, Long customerId) {
-        try {
-            orderExternalService.getOrder(customerId, orderId);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return customerChecks.execute(Arrays.asList(orderId, customerId), () -> {
+            try {
+                orderExternalService.getOrder(customerId, orderId);
+                return true;
+            } catch (CallNotPermittedException e) {
+                throw e;
+            } catch (Exception e) {
+                return false;
+            }
+        });
+    }
+
+    public SingleFlight<List<Long>, Boolean> getCustomerChecks() {
+        return customerChecks;
     }
 
 }
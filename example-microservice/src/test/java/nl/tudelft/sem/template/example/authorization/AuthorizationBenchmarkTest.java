@@ -0,0 +1,100 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.externalservices.UserExternalService;
+import nl.tudelft.sem.template.example.utils.DbUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Compares the authorization hot path with a chain that is built for every call, like checkIfUserIsAuthorized
+ * used to do, against the chain that the AuthorizationService builds once. The user types come from a warm cache,
+ * so only the chain itself is measured.
+ * Run with ./gradlew benchmark, the time and the allocated bytes per call are printed to standard out.
+ */
+@Tag("benchmark")
+class AuthorizationBenchmarkTest {
+
+    private static final int CALLS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int USERS = 100;
+
+    private final UserExternalService userExternalService = mock(UserExternalService.class);
+    // a mock would record every call, so the check is a plain override
+    private final DbUtils dbUtils = new DbUtils(null, null, null, null, null) {
+        @Override
+        public boolean userBelongsToOrder(Long userId, Long orderId) {
+            return true;
+        }
+    };
+    private final UserTypeCache userTypeCache = new UserTypeCache(USERS, Duration.ofHours(1), Duration.ofHours(1));
+    // keeps the JIT from removing the calls
+    private long sink;
+
+    @Test
+    void compareChains() {
+        Mockito.when(userExternalService.getUserTypeFromService(Mockito.anyLong())).thenReturn("vendor");
+        AuthorizationService service = new AuthorizationService(dbUtils, userExternalService, userTypeCache);
+        for (long user = 0; user < USERS; user++) {
+            assertEquals(Optional.empty(), service.checkIfUserIsAuthorized(user, Operation.GET_ORDER, 1L));
+        }
+
+        System.out.printf("%-28s | %10s | %12s%n", "variant", "ns/op", "bytes/op");
+        report("chain per call", this::chainPerCall);
+        report("shared chain", () -> sharedChain(service));
+
+        // the numbers are only reported, allocation counts depend on the JIT and are not stable enough to assert on
+        assertTrue(sink > 0);
+    }
+
+    private void chainPerCall() {
+        long authorized = 0;
+        for (int i = 0; i < CALLS; i++) {
+            Handler chain = new Authorization(userExternalService, userTypeCache, new Validation(dbUtils));
+            if (chain.check((long) (i % USERS), Operation.GET_ORDER, 1L).isEmpty()) {
+                authorized++;
+            }
+        }
+        sink += authorized;
+    }
+
+    private void sharedChain(AuthorizationService service) {
+        long authorized = 0;
+        for (int i = 0; i < CALLS; i++) {
+            if (service.checkIfUserIsAuthorized((long) (i % USERS), Operation.GET_ORDER, 1L).isEmpty()) {
+                authorized++;
+            }
+        }
+        sink += authorized;
+    }
+
+    /**
+     * Runs the warmup and measured rounds and prints the average time and allocation of one call.
+     *
+     * @return the nanoseconds and the bytes per call
+     */
+    private static void report(String name, Runnable round) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        long calls = (long) MEASURED_ROUNDS * CALLS;
+        double nsPerOp = (System.nanoTime() - start) / (double) calls;
+        double bytesPerOp = (threads.getThreadAllocatedBytes(thread) - bytesBefore) / (double) calls;
+        System.out.printf("%-28s | %10.2f | %12.2f%n", name, nsPerOp, bytesPerOp);
+    }
+}
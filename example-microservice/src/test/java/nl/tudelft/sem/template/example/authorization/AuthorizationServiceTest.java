@@ -9,18 +9,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.BiFunction;
+import java.util.Set;
 import nl.tudelft.sem.template.example.controllers.OrderController;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.example.domain.order.OrderOwners;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.user.CourierRepository;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.example.externalservices.OrderExternalService;
 import nl.tudelft.sem.template.example.externalservices.UserExternalService;
 import nl.tudelft.sem.template.example.utils.DbUtils;
@@ -41,11 +45,6 @@ public class AuthorizationServiceTest {
 
     private final UserExternalService userExternalService = new UserExternalService();
     private final OrderExternalService orderExternalService = new OrderExternalService();
-    private final HashMap<String, List<Authorization.UserType>> permissions = new HashMap<>(
-        Map.of("getFinalDestination", List.of(Authorization.UserType.VENDOR),
-            "getPickupDestination", List.of(Authorization.UserType.VENDOR),
-            "getNextOrderForVendor", List.of(Authorization.UserType.COURIER))
-    );
     private OrderRepository orderRepo;
     private VendorRepository vendorRepo;
     private CourierRepository courierRepo;
@@ -56,7 +55,6 @@ public class AuthorizationServiceTest {
     private Order order1;
     private Vendor vendor1;
     private DbUtils dbUtils;
-    private HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods;
 
     @BeforeEach
     void setUp() {
@@ -68,18 +66,14 @@ public class AuthorizationServiceTest {
         orderRepo = mock(OrderRepository.class);
         vendorRepo = mock(VendorRepository.class);
         courierRepo = mock(CourierRepository.class);
-        dbUtils = new DbUtils(orderRepo, vendorRepo, courierRepo, orderExternalService);
-        validationMethods = new HashMap<>(
-            Map.of(
-                "getFinalDestination", dbUtils::userBelongsToOrder,
-                "getPickupDestination", dbUtils::userBelongsToOrder,
-                "getNextOrderForVendor", dbUtils::courierBelongsToVendor
-            )
-        );
+        dbUtils = new DbUtils(orderRepo, vendorRepo, courierRepo, orderExternalService,
+            UserTypeCache.disabled());
         order1 = new Order().id(1L).vendorId(2L).deliveryDestination(new Location().latitude(11F).longitude(22F));
         vendor1 = new Vendor().id(2L).location(new Location().latitude(22F).longitude(33F));
-        authorizationService = new AuthorizationService(dbUtils, userExternalService, permissions, validationMethods);
-        this.controller = new OrderController(orderService, courierService, authorizationService, orderRepo, vendorRepo);
+        authorizationService = new AuthorizationService(dbUtils, userExternalService);
+        this.controller = new OrderController(orderService, courierService, authorizationService, orderRepo, vendorRepo,
+            new ObjectMapper(), new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
     }
 
     @Test
@@ -118,7 +112,7 @@ public class AuthorizationServiceTest {
                 .withBody("vendor")));
         Optional<Location> proper = Optional.of(new Location().latitude(1F).longitude(2F));
         Mockito.when(orderService.getFinalDestinationOfOrder(anyLong())).thenReturn(proper);
-        Mockito.when(orderRepo.existsByIdAndVendorId(1L, 11L)).thenReturn(true);
+        Mockito.when(orderRepo.findOwnersById(1L)).thenReturn(Optional.of(owners(null, 11L)));
         var res = controller.getFinalDestination(11L, 1L);
         assertEquals(new ResponseEntity<>(proper.get(), HttpStatus.OK), res);
     }
@@ -139,8 +133,7 @@ public class AuthorizationServiceTest {
 
     @Test
     void getFinalDestinationNoValidation() {
-        Mockito.when(orderRepo.existsByIdAndVendorId(1L, 11L)).thenReturn(false);
-        Mockito.when(orderRepo.existsByIdAndCourierId(1L, 11L)).thenReturn(false);
+        Mockito.when(orderRepo.findOwnersById(1L)).thenReturn(Optional.of(owners(5L, 6L)));
         WireMockConfig.userMicroservice.stubFor(WireMock.get(urlPathMatching(("/user/11/type")))
             .willReturn(aResponse()
                 .withStatus(200)
@@ -183,74 +176,114 @@ public class AuthorizationServiceTest {
     }
 
     @Test
-    void permissionsAndValidations() throws NoSuchMethodException {
-        HashMap<String, List<Authorization.UserType>> permissionsExpected = new HashMap<>();
-        HashMap<String, BiFunction<Long, Long, Boolean>> validationMethodsExpected = new HashMap<>();
+    void userTypeIsCheckedBeforeValidation() {
+        WireMockConfig.userMicroservice.stubFor(WireMock.get(urlPathMatching(("/user/1/type")))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .withBody("customer")));
+        var res = controller.getPickupDestination(11L, 1L);
+        assertEquals(ResponseEntity.status(403).body("User with id " + 1 + " does not have access rights"), res);
+        Mockito.verify(orderRepo, Mockito.never()).findOwnersById(anyLong());
+    }
+
+    @Test
+    void permissionsAndValidations() {
+        HashMap<String, Set<Authorization.UserType>> permissionsExpected = new HashMap<>();
+        // the DbUtils method each operation validates with, "equals" when the user is compared to the id directly
+        HashMap<String, String> validatorsExpected = new HashMap<>();
 
         // OrderController
-        permissionsExpected.put("getNextOrderForVendor", List.of(COURIER));
-        validationMethodsExpected.put("getNextOrderForVendor", dbUtils::courierBelongsToVendor);
+        permissionsExpected.put("getNextOrderForVendor", EnumSet.of(COURIER));
+        validatorsExpected.put("getNextOrderForVendor", "courierBelongsToVendor");
 
-        permissionsExpected.put("getIndependentOrders", List.of(COURIER));
-        validationMethodsExpected.put("getIndependentOrders", dbUtils::courierBelongsToVendor);
+        permissionsExpected.put("getIndependentOrders", EnumSet.of(COURIER));
+        validatorsExpected.put("getIndependentOrders", "courierBelongsToVendor");
 
-        permissionsExpected.put("getFinalDestination", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("getFinalDestination", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("claimNextOrder", EnumSet.of(COURIER));
+        validatorsExpected.put("claimNextOrder", "courierBelongsToVendor");
 
-        permissionsExpected.put("getOrder", List.of(VENDOR));
-        validationMethodsExpected.put("getOrder", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("waitForNextOrder", EnumSet.of(COURIER));
+        validatorsExpected.put("waitForNextOrder", "courierBelongsToVendor");
 
-        permissionsExpected.put("getPickupDestination", List.of(COURIER));
-        validationMethodsExpected.put("getPickupDestination", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getFinalDestination", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("getFinalDestination", "userBelongsToOrder");
 
-        permissionsExpected.put("updateOrder", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("updateOrder", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getOrder", EnumSet.of(VENDOR));
+        validatorsExpected.put("getOrder", "userBelongsToOrder");
 
-        permissionsExpected.put("getOrderRating", List.of(CUSTOMER, VENDOR));
-        validationMethodsExpected.put("getOrderRating", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getPickupDestination", EnumSet.of(COURIER));
+        validatorsExpected.put("getPickupDestination", "userBelongsToOrder");
 
-        permissionsExpected.put("putOrderRating", List.of(CUSTOMER));
-        validationMethodsExpected.put("putOrderRating", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("updateOrder", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("updateOrder", "userBelongsToOrder");
 
-        permissionsExpected.put("setDeliverTime", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("setDeliverTime", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getOrderRating", EnumSet.of(CUSTOMER, VENDOR));
+        validatorsExpected.put("getOrderRating", "userBelongsToOrder");
 
-        permissionsExpected.put("getETA", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("getETA", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("putOrderRating", EnumSet.of(CUSTOMER));
+        validatorsExpected.put("putOrderRating", "userBelongsToOrder");
 
-        permissionsExpected.put("getOrderDistance", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("getOrderDistance", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("setDeliverTime", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("setDeliverTime", "userBelongsToOrder");
 
-        // StatusController
-        permissionsExpected.put("updateToAccepted", List.of(VENDOR));
-        validationMethodsExpected.put("updateToAccepted", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getETA", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("getETA", "userBelongsToOrder");
 
-        permissionsExpected.put("updateToRejected", List.of(VENDOR));
-        validationMethodsExpected.put("updateToRejected", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getOrderDistance", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("getOrderDistance", "userBelongsToOrder");
 
-        permissionsExpected.put("updateToGivenToCourier", List.of(VENDOR));
-        validationMethodsExpected.put("updateToGivenToCourier", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("getOrderLocation", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("getOrderLocation", "userBelongsToOrder");
 
-        permissionsExpected.put("updateToInTransit", List.of(COURIER));
-        validationMethodsExpected.put("updateToInTransit", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("updateLocation", EnumSet.of(COURIER));
+        validatorsExpected.put("updateLocation", "userBelongsToOrder");
 
-        permissionsExpected.put("updateToPreparing", List.of(VENDOR));
-        validationMethodsExpected.put("updateToPreparing", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("updateLocations", EnumSet.of(COURIER));
+        validatorsExpected.put("updateLocations", "equals");
 
-        permissionsExpected.put("updateToDelivered", List.of(COURIER));
-        validationMethodsExpected.put("updateToDelivered", dbUtils::userBelongsToOrder);
+        // StatusController
+        permissionsExpected.put("updateToAccepted", EnumSet.of(VENDOR));
+        validatorsExpected.put("updateToAccepted", "userBelongsToOrder");
 
-        permissionsExpected.put("getStatus", List.of(CUSTOMER, VENDOR, COURIER));
-        validationMethodsExpected.put("getStatus", dbUtils::userBelongsToOrder);
+        permissionsExpected.put("updateToRejected", EnumSet.of(VENDOR));
+        validatorsExpected.put("updateToRejected", "userBelongsToOrder");
 
-        // UserController
-        permissionsExpected.put("updateBossOfCourier", List.of(VENDOR));
-        validationMethodsExpected.put("updateBossOfCourier", dbUtils::courierBelongsToVendor);
+        permissionsExpected.put("updateToGivenToCourier", EnumSet.of(VENDOR));
+        validatorsExpected.put("updateToGivenToCourier", "userBelongsToOrder");
+
+        permissionsExpected.put("updateToInTransit", EnumSet.of(COURIER));
+        validatorsExpected.put("updateToInTransit", "userBelongsToOrder");
+
+        permissionsExpected.put("updateToPreparing", EnumSet.of(VENDOR));
+        validatorsExpected.put("updateToPreparing", "userBelongsToOrder");
+
+        permissionsExpected.put("updateToDelivered", EnumSet.of(COURIER));
+        validatorsExpected.put("updateToDelivered", "userBelongsToOrder");
 
-        authorizationService.init();
-        assertEquals(permissionsExpected, authorizationService.getPermissions());
-        assertEquals(validationMethodsExpected.keySet(), authorizationService.getValidationMethods().keySet());
+        permissionsExpected.put("getStatus", EnumSet.of(CUSTOMER, VENDOR, COURIER));
+        validatorsExpected.put("getStatus", "userBelongsToOrder");
 
+        // UserController
+        permissionsExpected.put("updateBossOfCourier", EnumSet.of(VENDOR));
+        validatorsExpected.put("updateBossOfCourier", "courierBelongsToVendor");
+
+        permissionsExpected.put("getCourierTrajectory", EnumSet.of(COURIER, VENDOR));
+        validatorsExpected.put("getCourierTrajectory", "userIsCourierOrTheirVendor");
+
+        HashMap<String, Set<Authorization.UserType>> permissions = new HashMap<>();
+        HashMap<String, String> validators = new HashMap<>();
+        for (Operation operation : Operation.values()) {
+            permissions.put(operation.getMethodName(), operation.getAllowed());
+            DbUtils validatorDbUtils = mock(DbUtils.class);
+            operation.validate(validatorDbUtils, 1L, 2L);
+            validators.put(operation.getMethodName(), Mockito.mockingDetails(validatorDbUtils).getInvocations().stream()
+                .map(invocation -> invocation.getMethod().getName())
+                .findFirst()
+                .orElse("equals"));
+        }
+        assertEquals(permissionsExpected, permissions);
+        assertEquals(validatorsExpected, validators);
     }
 
     @AfterEach()
@@ -258,5 +291,18 @@ public class AuthorizationServiceTest {
         WireMockConfig.stopUserServer();
         WireMockConfig.stopOrderServer();
     }
-}
 
+    private static OrderOwners owners(Long courierId, Long vendorId) {
+        return new OrderOwners() {
+            @Override
+            public Long getCourierId() {
+                return courierId;
+            }
+
+            @Override
+            public Long getVendorId() {
+                return vendorId;
+            }
+        };
+    }
+}
@@ -5,20 +5,23 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.BiFunction;
+import java.util.concurrent.atomic.AtomicLong;
 import nl.tudelft.sem.template.example.controllers.OrderController;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.example.externalservices.UserExternalService;
+import nl.tudelft.sem.template.example.utils.Bulkhead;
+import nl.tudelft.sem.template.example.utils.CircuitBreaker;
 import nl.tudelft.sem.template.example.utils.DbUtils;
 import nl.tudelft.sem.template.example.wiremock.WireMockConfig;
 import nl.tudelft.sem.template.model.Location;
@@ -30,30 +33,28 @@ import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
 
 public class AuthorizationTest {
 
     private final UserExternalService userExternalService = new UserExternalService();
-    private final HashMap<String, List<Authorization.UserType>> permissions = new HashMap<>(
-        Map.of("getFinalDestination", List.of(Authorization.UserType.CUSTOMER, Authorization.UserType.COURIER))
-    );
+    private DbUtils dbUtils;
     private OrderService orderService;
     private OrderController controller;
 
     @BeforeEach
     void setUp() {
         WireMockConfig.startUserServer();
-        DbUtils dbUtils = Mockito.mock(DbUtils.class);
+        dbUtils = Mockito.mock(DbUtils.class);
         orderService = Mockito.mock(OrderService.class);
         OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
         VendorRepository vendorRepository = Mockito.mock(VendorRepository.class);
-        HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods = Mockito.mock(HashMap.class);
-        Mockito.when(validationMethods.get(anyString())).thenReturn((a, b) -> true);
-        AuthorizationService authorizationService =
-            new AuthorizationService(dbUtils, userExternalService, permissions, validationMethods);
+        Mockito.when(dbUtils.userBelongsToOrder(anyLong(), anyLong())).thenReturn(true);
+        AuthorizationService authorizationService = new AuthorizationService(dbUtils, userExternalService);
         CourierService courierService = Mockito.mock(CourierService.class);
-        controller =
-            new OrderController(orderService, courierService, authorizationService, orderRepository, vendorRepository);
+        controller = new OrderController(orderService, courierService, authorizationService, orderRepository,
+            vendorRepository, new ObjectMapper(), new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
     }
 
     @Test
@@ -65,7 +66,7 @@ public class AuthorizationTest {
                 .withBody("")));
         var res = controller.getFinalDestination(11L, 1L);
         assertEquals(ResponseEntity.status(500).body("Error while retrieving user type"), res);
-        Authorization authorization = new Authorization(userExternalService, permissions);
+        Authorization authorization = new Authorization(userExternalService);
         assertThrows(IllegalArgumentException.class, () -> authorization.parseUserType(""));
     }
 
@@ -150,6 +151,43 @@ public class AuthorizationTest {
         assertEquals(ResponseEntity.status(500).body("Error while retrieving user type"), res);
     }
 
+    @Test
+    void lastKnownUserTypeIsUsedWhileUserMicroServiceIsDown() {
+        WireMockConfig.userMicroservice.stubFor(WireMock.get(urlPathMatching(("/user/11/type")))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .withBody("courier")));
+        Optional<Location> proper = Optional.of(new Location().latitude(1F).longitude(2F));
+        Mockito.when(orderService.getFinalDestinationOfOrder(anyLong())).thenReturn(proper);
+        AtomicLong now = new AtomicLong();
+        UserTypeCache cache = new UserTypeCache(10, Duration.ofSeconds(10), Duration.ofSeconds(1),
+            Duration.ofMinutes(10), now::get);
+        CircuitBreaker circuitBreaker = new CircuitBreaker("user-service", 1, Duration.ofMinutes(1));
+        UserExternalService guarded = new UserExternalService(new RestTemplate(), circuitBreaker,
+            Bulkhead.disabled("user-service"));
+        AuthorizationService guardedAuthorization = new AuthorizationService(dbUtils, guarded, cache);
+        OrderController guardedController = new OrderController(orderService, Mockito.mock(CourierService.class),
+            guardedAuthorization, Mockito.mock(OrderRepository.class), Mockito.mock(VendorRepository.class),
+            new ObjectMapper(), new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(guardedAuthorization));
+        assertEquals(new ResponseEntity<>(proper.get(), HttpStatus.OK), guardedController.getFinalDestination(11L, 1L));
+
+        // the cached user type expired, the failing call opens the circuit and the next call is not made at all
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        WireMockConfig.stopUserServer();
+        assertEquals(new ResponseEntity<>(proper.get(), HttpStatus.OK), guardedController.getFinalDestination(11L, 1L));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(new ResponseEntity<>(proper.get(), HttpStatus.OK), guardedController.getFinalDestination(11L, 1L));
+        assertEquals(1, circuitBreaker.getRejectedCount());
+        assertEquals(2, cache.getStaleHitCount());
+
+        // too old to be trusted
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        var res = guardedController.getFinalDestination(11L, 1L);
+        assertEquals(ResponseEntity.status(500).body("Error while retrieving user type"), res);
+    }
+
     @AfterEach()
     void tearDown() {
         WireMockConfig.stopUserServer();
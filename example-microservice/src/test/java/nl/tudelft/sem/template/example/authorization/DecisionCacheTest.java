@@ -0,0 +1,123 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DecisionCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger calls;
+    private DecisionCache cache;
+    private Supplier<Boolean> allow;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        calls = new AtomicInteger(0);
+        cache = new DecisionCache(2, Duration.ofSeconds(10), now::get);
+        allow = () -> {
+            calls.incrementAndGet();
+            return true;
+        };
+    }
+
+    @Test
+    void secondDecisionIsHit() {
+        assertTrue(cache.get(1L, "getStatus", 5L, allow));
+        assertTrue(cache.get(1L, "getStatus", 5L, allow));
+        assertEquals(1, calls.get());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void keyContainsMethodAndResource() {
+        cache.get(1L, "getStatus", 5L, allow);
+        cache.get(1L, "getETA", 5L, allow);
+        cache.get(1L, "getStatus", 6L, allow);
+        assertEquals(3, calls.get());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void denialsAreNotCached() {
+        assertFalse(cache.get(1L, "getStatus", 5L, () -> false));
+        assertEquals(0, cache.size());
+        assertTrue(cache.get(1L, "getStatus", 5L, allow));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void decisionsExpire() {
+        cache.get(1L, "getStatus", 5L, allow);
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.get(1L, "getStatus", 5L, allow);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void invalidateOnlyRemovesDecisionsWithTheIdInThatPosition() {
+        cache.get(1L, "getStatus", 5L, allow);
+        // user 5 is not order 5
+        cache.get(5L, "getStatus", 6L, allow);
+
+        cache.invalidateResource(5L);
+        assertEquals(1, cache.size());
+        cache.get(5L, "getStatus", 6L, allow);
+        assertEquals(2, calls.get());
+
+        cache.invalidateUser(5L);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getInvalidationCount());
+    }
+
+    @Test
+    void evictedDecisionsLeaveTheIndexes() {
+        cache.get(1L, "getStatus", 5L, allow);
+        cache.get(2L, "getStatus", 6L, allow);
+        cache.get(3L, "getStatus", 7L, allow);
+
+        cache.invalidateUser(1L);
+        cache.invalidateResource(5L);
+        assertEquals(2, cache.size());
+        cache.invalidateResource(6L);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void decisionLoadedDuringInvalidationIsNotStored() {
+        cache.get(1L, "getStatus", 5L, () -> {
+            cache.invalidateResource(5L);
+            return true;
+        });
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, "getStatus", 5L, () -> {
+            throw new IllegalStateException();
+        }));
+        assertTrue(cache.get(1L, "getStatus", 5L, allow));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void missingIdsAndDisabledCacheAlwaysLoad() {
+        cache.get(1L, "updateLocations", null, allow);
+        cache.get(1L, "updateLocations", null, allow);
+        DecisionCache disabled = DecisionCache.disabled();
+        disabled.get(1L, "getStatus", 5L, allow);
+        disabled.get(1L, "getStatus", 5L, allow);
+        assertEquals(4, calls.get());
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,98 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.controllers.AdminController;
+import nl.tudelft.sem.template.example.controllers.OrderController;
+import nl.tudelft.sem.template.example.controllers.StatusController;
+import nl.tudelft.sem.template.example.controllers.UserController;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+class OperationTest {
+
+    private static final List<Class<?>> CONTROLLERS =
+        List.of(AdminController.class, OrderController.class, StatusController.class, UserController.class);
+
+    // endpoints that go through authorizeAdminOnly instead of an operation
+    private static final Set<String> ADMIN_ONLY = Set.of(
+        // AdminController
+        "updateException", "getExceptions", "makeException", "getExceptionForOrder", "updateDefaultRadius",
+        "getDefaultRadius", "getDeliveredOrders", "getCourierEfficiencies", "getAllDeliveryTimes", "getAllRatings",
+        // OrderController
+        "getOrders", "getOrdersPage", "streamOrders", "makeOrder", "setCourierId",
+        // UserController
+        "getCourier", "getSpecificRadius", "makeCourier", "makeCourierById", "updateSpecificRadius", "makeVendor",
+        "makeVendorById"
+    );
+
+    // endpoints that are guarded by the operation of another endpoint
+    private static final Map<String, Operation> SHARED = Map.of(
+        "getNearbyIndependentOrders", Operation.GET_INDEPENDENT_ORDERS,
+        "streamAvailableOrders", Operation.WAIT_FOR_NEXT_ORDER,
+        "setPreparationTime", Operation.SET_DELIVER_TIME
+    );
+
+    @Test
+    void everyEndpointIsRegistered() {
+        Set<String> operations = Arrays.stream(Operation.values())
+            .map(Operation::getMethodName)
+            .collect(Collectors.toSet());
+        Set<String> used = new HashSet<>();
+
+        for (String endpoint : endpoints()) {
+            if (ADMIN_ONLY.contains(endpoint)) {
+                continue;
+            }
+            String operation = SHARED.containsKey(endpoint) ? SHARED.get(endpoint).getMethodName() : endpoint;
+            assertTrue(operations.contains(operation),
+                endpoint + " is neither admin only nor registered as an Operation");
+            used.add(operation);
+        }
+
+        assertEquals(operations, used);
+    }
+
+    @Test
+    void everyOperationHasUserTypes() {
+        for (Operation operation : Operation.values()) {
+            assertFalse(operation.getAllowed().isEmpty(), operation.name());
+            assertFalse(operation.allows(Authorization.UserType.NAN), operation.name());
+        }
+    }
+
+    @Test
+    void allowsMatchesAllowed() {
+        assertTrue(Operation.GET_STATUS.allows(Authorization.UserType.CUSTOMER));
+        assertFalse(Operation.GET_PICKUP_DESTINATION.allows(Authorization.UserType.CUSTOMER));
+        assertFalse(Operation.UPDATE_LOCATION.allows(Authorization.UserType.VENDOR));
+    }
+
+    private static Set<String> endpoints() {
+        Set<String> endpoints = new HashSet<>();
+        for (Class<?> controller : CONTROLLERS) {
+            for (Method method : controller.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(GetMapping.class) || method.isAnnotationPresent(PostMapping.class)
+                    || method.isAnnotationPresent(PutMapping.class) || method.isAnnotationPresent(DeleteMapping.class)
+                    || method.isAnnotationPresent(PatchMapping.class) || method.isAnnotationPresent(RequestMapping.class)) {
+                    endpoints.add(method.getName());
+                }
+            }
+        }
+        return endpoints;
+    }
+}
@@ -0,0 +1,156 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class ParallelAuthorizationTest {
+
+    private AuthorizationService authorizationService;
+    private ParallelAuthorization parallelAuthorization;
+
+    @BeforeEach
+    void setUp() {
+        authorizationService = Mockito.mock(AuthorizationService.class);
+        parallelAuthorization = new ParallelAuthorization(authorizationService, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelAuthorization.close();
+    }
+
+    @Test
+    void fetchRunsWhileTheUserIsAuthorized() {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        // the authorization only finishes once the fetch started, so this would time out if they ran one after another
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any())).thenAnswer(invocation -> {
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            return Optional.empty();
+        });
+
+        ResponseEntity<String> res = parallelAuthorization.authorizeAndFetch(1L, Operation.GET_ORDER, 2L, () -> {
+            fetchStarted.countDown();
+            return new ResponseEntity<>("order", HttpStatus.OK);
+        });
+
+        assertEquals(new ResponseEntity<>("order", HttpStatus.OK), res);
+        assertEquals(1, parallelAuthorization.getParallelCount());
+        assertEquals(0, parallelAuthorization.getDiscardedCount());
+    }
+
+    @Test
+    void fetchIsNotReturnedWhenForbidden() {
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any()))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        ResponseEntity<String> notFound = parallelAuthorization.authorizeAndFetch(1L, Operation.GET_ORDER, 2L,
+            () -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        ResponseEntity<String> failed = parallelAuthorization.authorizeAndFetch(1L, Operation.GET_ORDER, 2L, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), notFound);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), failed);
+        assertEquals(2, parallelAuthorization.getDiscardedCount());
+    }
+
+    @Test
+    void exceptionOfTheFetchIsRethrownWhenAuthorized() {
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any())).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> parallelAuthorization.authorizeAndFetch(1L,
+            Operation.GET_ORDER, 2L, () -> {
+                throw new IllegalStateException("database down");
+            }));
+    }
+
+    @Test
+    void sequentialDoesNotFetchWhenForbidden() {
+        ParallelAuthorization sequential = ParallelAuthorization.sequential(authorizationService);
+        AtomicInteger fetches = new AtomicInteger();
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any()))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        ResponseEntity<String> res = sequential.authorizeAndFetch(1L, Operation.GET_ORDER, 2L, () -> {
+            fetches.incrementAndGet();
+            return new ResponseEntity<>("order", HttpStatus.OK);
+        });
+
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+        assertEquals(0, fetches.get());
+        assertFalse(sequential.isEnabled());
+        assertEquals(1, sequential.getSequentialCount());
+    }
+
+    @Test
+    void fullPoolFallsBackToSequential() throws Exception {
+        ParallelAuthorization single = new ParallelAuthorization(authorizationService, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any())).thenReturn(Optional.empty());
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(eq(3L), any(), any()))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        try {
+            // one fetch runs on the only thread and one waits in the queue
+            List<Future<ResponseEntity<String>>> blocked = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                blocked.add(requests.submit(() -> single.authorizeAndFetch(1L, Operation.GET_ORDER, 2L, () -> {
+                    await(release);
+                    return new ResponseEntity<>("order", HttpStatus.OK);
+                })));
+            }
+            while (single.inFlightCount() < 2) {
+                Thread.sleep(1);
+            }
+
+            AtomicInteger fetches = new AtomicInteger();
+            ResponseEntity<String> res = single.authorizeAndFetch(3L, Operation.GET_ORDER, 2L, () -> {
+                fetches.incrementAndGet();
+                return new ResponseEntity<>("order", HttpStatus.OK);
+            });
+
+            assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+            assertEquals(0, fetches.get());
+            assertEquals(1, single.getRejectedCount());
+            assertEquals(1, single.getSequentialCount());
+
+            release.countDown();
+            for (Future<ResponseEntity<String>> request : blocked) {
+                assertEquals(new ResponseEntity<>("order", HttpStatus.OK), request.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            requests.shutdownNow();
+            single.close();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package nl.tudelft.sem.template.example.authorization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UserTypeCacheTest {
+
+    private AtomicLong now;
+    private AtomicInteger calls;
+    private UserTypeCache cache;
+    private Function<Long, Authorization.UserType> loader;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        calls = new AtomicInteger(0);
+        cache = new UserTypeCache(2, Duration.ofSeconds(10), Duration.ofSeconds(1), now::get);
+        loader = id -> {
+            calls.incrementAndGet();
+            return id < 0 ? Authorization.UserType.NAN : Authorization.UserType.COURIER;
+        };
+    }
+
+    @Test
+    void secondLookupIsHit() {
+        assertEquals(Authorization.UserType.COURIER, cache.get(1L, loader));
+        assertEquals(Authorization.UserType.COURIER, cache.get(1L, loader));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void entriesExpire() {
+        cache.get(1L, loader);
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.get(1L, loader);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void failuresExpireSooner() {
+        assertEquals(Authorization.UserType.NAN, cache.get(-1L, loader));
+        cache.get(-1L, loader);
+        assertEquals(1, calls.get());
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get(-1L, loader);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(1L, loader);
+        cache.get(3L, loader);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.getIfPresent(2L));
+        assertEquals(Authorization.UserType.COURIER, cache.getIfPresent(1L));
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        cache.get(1L, loader);
+        cache.invalidate(1L);
+        cache.get(1L, loader);
+        assertEquals(2, calls.get());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void lastKnownTypeIsServedWhileTheLoaderFails() {
+        UserTypeCache stale = new UserTypeCache(2, Duration.ofSeconds(10), Duration.ofSeconds(1),
+            Duration.ofSeconds(60), now::get);
+        Function<Long, Authorization.UserType> down = id -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("user service down");
+        };
+        stale.get(1L, loader);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertNull(stale.getIfPresent(1L));
+        assertEquals(Authorization.UserType.COURIER, stale.get(1L, down));
+        // the stale type is not stored again, every lookup tries the user service
+        assertEquals(Authorization.UserType.COURIER, stale.get(1L, down));
+        assertEquals(3, calls.get());
+        assertEquals(2, stale.getStaleHitCount());
+
+        assertEquals(Authorization.UserType.CUSTOMER, stale.get(1L, id -> Authorization.UserType.CUSTOMER));
+    }
+
+    @Test
+    void lastKnownTypeIsNotServedWhenTooOld() {
+        UserTypeCache stale = new UserTypeCache(2, Duration.ofSeconds(10), Duration.ofSeconds(1),
+            Duration.ofSeconds(60), now::get);
+        stale.get(1L, loader);
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        assertThrows(IllegalStateException.class, () -> stale.get(1L, id -> {
+            throw new IllegalStateException("user service down");
+        }));
+        // the failure is not cached, the next lookup asks again
+        assertNull(stale.getIfPresent(1L));
+        assertEquals(0, stale.getStaleHitCount());
+        assertEquals(Authorization.UserType.CUSTOMER, stale.get(1L, id -> Authorization.UserType.CUSTOMER));
+    }
+
+    @Test
+    void failedLookupForgetsLastKnownType() {
+        UserTypeCache stale = new UserTypeCache(2, Duration.ofSeconds(10), Duration.ofSeconds(1),
+            Duration.ofSeconds(60), now::get);
+        stale.get(1L, loader);
+        stale.put(1L, Authorization.UserType.NAN);
+
+        assertNull(stale.getLastKnown(1L));
+    }
+
+    @Test
+    void withoutMaxStaleFailuresArePassedOn() {
+        cache.get(1L, loader);
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, id -> {
+            throw new IllegalStateException("user service down");
+        }));
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        UserTypeCache disabled = UserTypeCache.disabled();
+        disabled.get(1L, loader);
+        disabled.get(1L, loader);
+        assertEquals(2, calls.get());
+        assertEquals(0, disabled.size());
+    }
+}
@@ -5,18 +5,19 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyLong;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.client.WireMock;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.function.BiFunction;
 import nl.tudelft.sem.template.example.controllers.OrderController;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.example.externalservices.UserExternalService;
+import nl.tudelft.sem.template.example.utils.CallNotPermittedException;
 import nl.tudelft.sem.template.example.utils.DbUtils;
 import nl.tudelft.sem.template.example.wiremock.WireMockConfig;
 import nl.tudelft.sem.template.model.Location;
@@ -36,11 +37,6 @@ public class ValidationTest {
     private final UserExternalService userExternalService = new UserExternalService();
 
     private DbUtils dbUtils;
-    private HashMap<String, BiFunction<Long, Long, Boolean>> validationMethods;
-
-    private final HashMap<String, List<Authorization.UserType>> permissions = new HashMap<>(
-        Map.of("getFinalDestination", List.of(Authorization.UserType.CUSTOMER))
-    );
 
     @BeforeEach
     void setUp() {
@@ -52,19 +48,13 @@ public class ValidationTest {
                 .withBody("customer")));
         dbUtils = Mockito.mock(DbUtils.class);
         orderService = Mockito.mock(OrderService.class);
-        validationMethods = new HashMap<>(
-            Map.of(
-                "getFinalDestination", dbUtils::userBelongsToOrder,
-                "getPickupDestination", dbUtils::userBelongsToOrder
-            )
-        );
-        AuthorizationService authorizationService =
-            new AuthorizationService(dbUtils, userExternalService, permissions, validationMethods);
+        AuthorizationService authorizationService = new AuthorizationService(dbUtils, userExternalService);
         CourierService courierService = Mockito.mock(CourierService.class);
         OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
         VendorRepository vendorRepository = Mockito.mock(VendorRepository.class);
-        controller =
-            new OrderController(orderService, courierService, authorizationService, orderRepository, vendorRepository);
+        controller = new OrderController(orderService, courierService, authorizationService, orderRepository,
+            vendorRepository, new ObjectMapper(), new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
     }
 
     @Test
@@ -87,13 +77,36 @@ public class ValidationTest {
     }
 
     @Test
-    void getFinalDestinationNoMapping() {
-        validationMethods.remove("getFinalDestination");
+    void getFinalDestinationValidationFails() {
+        Mockito.when(dbUtils.userBelongsToOrder(11L, 1L)).thenThrow(new IllegalStateException("database down"));
         var res = controller.getFinalDestination(11L, 1L);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, res.getStatusCode());
     }
 
 
+    @Test
+    void getFinalDestinationOrderServiceUnavailable() {
+        Mockito.when(dbUtils.userBelongsToOrder(11L, 1L))
+            .thenThrow(new CallNotPermittedException("Circuit breaker of order-service is open"));
+        var res = controller.getFinalDestination(11L, 1L);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, res.getStatusCode());
+    }
+
+    @Test
+    void decisionsAreCachedUntilInvalidated() {
+        Mockito.when(dbUtils.userBelongsToOrder(11L, 1L)).thenReturn(true);
+        DecisionCache decisionCache = new DecisionCache(10, Duration.ofMinutes(1));
+        Validation validation = new Validation(dbUtils, decisionCache, null);
+
+        assertEquals(Optional.empty(), validation.check(11L, Operation.GET_FINAL_DESTINATION, 1L));
+        assertEquals(Optional.empty(), validation.check(11L, Operation.GET_FINAL_DESTINATION, 1L));
+        Mockito.verify(dbUtils, Mockito.times(1)).userBelongsToOrder(11L, 1L);
+
+        decisionCache.invalidateResource(1L);
+        Mockito.when(dbUtils.userBelongsToOrder(11L, 1L)).thenReturn(false);
+        assertEquals(HttpStatus.FORBIDDEN, validation.check(11L, Operation.GET_FINAL_DESTINATION, 1L).get().getStatusCode());
+    }
+
     @AfterEach()
     void tearDown() {
         WireMockConfig.stopUserServer();
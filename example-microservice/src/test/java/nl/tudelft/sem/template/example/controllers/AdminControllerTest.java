@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -192,28 +193,39 @@ class AdminControllerTest {
 
     @Test
     void getCourierEfficienciesWorks200() {
-        Mockito.when(adminService.getCouriersEfficiencies()).thenReturn(
+        Mockito.when(adminService.getCouriersEfficiencies(null, null)).thenReturn(
             Optional.of(Map.of("22", 60.0D, "23", 120.0D)));
 
-        var res = controller.getCourierEfficiencies(1L);
+        var res = controller.getCourierEfficiencies(1L, null, null);
         assertEquals(new ResponseEntity<>(Map.of("22", 60.0D, "23", 120.0D), HttpStatus.OK), res);
     }
 
     @Test
     void getCourierEfficienciesWorks404() {
-        Mockito.when(adminService.getCouriersEfficiencies()).thenReturn(
+        Mockito.when(adminService.getCouriersEfficiencies(null, null)).thenReturn(
             Optional.empty());
 
-        var res = controller.getCourierEfficiencies(1L);
+        var res = controller.getCourierEfficiencies(1L, null, null);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
     }
 
+    @Test
+    void getCourierEfficienciesWithWindow() {
+        OffsetDateTime from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        Mockito.when(adminService.getCouriersEfficiencies(from, to)).thenReturn(
+            Optional.of(Map.of("22", 60.0D)));
+
+        var res = controller.getCourierEfficiencies(1L, from, to);
+        assertEquals(new ResponseEntity<>(Map.of("22", 60.0D), HttpStatus.OK), res);
+    }
+
     @Test
     void getCourierEfficienciesWorks403() {
         Mockito.when(authorizationService.authorizeAdminOnly(anyLong())).thenReturn(
             Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
-        var res = controller.getCourierEfficiencies(1L);
+        var res = controller.getCourierEfficiencies(1L, null, null);
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
@@ -1,26 +1,38 @@
 package nl.tudelft.sem.template.example.controllers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
+import nl.tudelft.sem.template.example.authorization.ParallelAuthorization;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.order.orderstrategy.GeneralOrdersStrategy;
 import nl.tudelft.sem.template.example.domain.order.orderstrategy.OrderPerVendorStrategy;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
-import nl.tudelft.sem.template.example.externalservices.NavigationMock;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.CourierLocationResult;
+import nl.tudelft.sem.template.model.CourierLocationUpdate;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
-import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -64,17 +76,17 @@ class OrderControllerTest {
         this.perVendorStrategy = Mockito.mock(OrderPerVendorStrategy.class);
 
         this.order1 = new Order().id(2L).status(Order.StatusEnum.PREPARING).vendorId(44L);
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), anyString(), any())).thenReturn(Optional.empty());
-        this.controller = new OrderController(orderService, courierService, authorizationService, orderRepo, vendorRepo);
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any())).thenReturn(Optional.empty());
+        this.controller = new OrderController(orderService, courierService, authorizationService, orderRepo, vendorRepo,
+            new ObjectMapper().findAndRegisterModules(), new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
 
-        NavigationMock navigationMock = new NavigationMock();
-        this.eta = navigationMock.getEta(1L, new Time());
+        this.eta = OffsetDateTime.of(2024, 1, 9, 11, 45, 0, 0, ZoneOffset.UTC);
     }
 
     @Test
     void getIndependentOrdersWorks() {
-        Mockito.when(orderRepo.findByStatus(any())).thenReturn(List.of(order1));
-        Mockito.when(vendorRepo.findById(any())).thenReturn(Optional.ofNullable(new Vendor().id(33L).hasCouriers(false)));
+        Mockito.when(orderRepo.findUnassignedIndependentOrders(any())).thenReturn(List.of(order1));
         Mockito.when(generalStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
 
         var res = controller.getIndependentOrders(11L);
@@ -83,10 +95,9 @@ class OrderControllerTest {
 
     @Test
     void getIndependentOrdersForbidden() {
-        Mockito.when(orderRepo.findByStatus(any())).thenReturn(List.of(order1));
-        Mockito.when(vendorRepo.findById(any())).thenReturn(Optional.ofNullable(new Vendor().id(33L).hasCouriers(false)));
+        Mockito.when(orderRepo.findUnassignedIndependentOrders(any())).thenReturn(List.of(order1));
         Mockito.when(generalStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), anyString(), any()))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any()))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getIndependentOrders(11L);
@@ -95,8 +106,7 @@ class OrderControllerTest {
 
     @Test
     void getIndependentOrders404() {
-        Mockito.when(orderRepo.findByStatus(any())).thenReturn(List.of());
-        Mockito.when(vendorRepo.findById(any())).thenReturn(Optional.ofNullable(new Vendor().id(33L).hasCouriers(false)));
+        Mockito.when(orderRepo.findUnassignedIndependentOrders(any())).thenReturn(List.of());
         Mockito.when(generalStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
 
         var res = controller.getIndependentOrders(11L);
@@ -106,7 +116,9 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorWorks() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.of(new Courier().bossId(4L)));
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of(order1));
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.of(order1));
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -116,9 +128,11 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorForbidden() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.of(new Courier().bossId(4L)));
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of(order1));
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.of(order1));
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), anyString(), any()))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(any(), any(), any()))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -128,7 +142,9 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorForbiddenNotCourier() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.empty());
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of(order1));
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.of(order1));
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -138,8 +154,9 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorWorksMultipleOrders() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.of(new Courier().bossId(4L)));
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any()))
-            .thenReturn(List.of(order1, new Order()));
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.of(order1));
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.of(List.of(order1)));
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -149,7 +166,9 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorNotFound() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.of(new Courier().bossId(4L)));
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of());
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.empty());
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.of(List.of()));
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -159,7 +178,9 @@ class OrderControllerTest {
     @Test
     void getNextOrderForVendorBadRequest() {
         Mockito.when(courierService.getCourierById(anyLong())).thenReturn(Optional.of(new Courier().bossId(4L)));
-        Mockito.when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(null);
+        Mockito.when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.empty());
         Mockito.when(perVendorStrategy.availableOrders(any())).thenReturn(Optional.empty());
 
         var res = controller.getNextOrderForVendor(11L, 1L);
@@ -185,7 +206,7 @@ class OrderControllerTest {
 
     @Test
     void getFinalDestinationGives403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getFinalDestination", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_FINAL_DESTINATION, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getFinalDestination(1L, 11L);
@@ -210,7 +231,7 @@ class OrderControllerTest {
 
     @Test
     void getPickUpDestinationGives403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getPickupDestination", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_PICKUP_DESTINATION, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getPickupDestination(11L, 1L);
@@ -235,13 +256,34 @@ class OrderControllerTest {
     @Test
     void getOrder403() {
         Mockito.when(orderService.getOrderById(11L)).thenReturn(Optional.empty());
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getOrder", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_ORDER, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getOrder(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
+    @Test
+    void getOrderFetchedWhileAuthorizing() {
+        Optional<Order> proper = Optional.of(new Order().id(11L).status(Order.StatusEnum.ACCEPTED));
+        Mockito.when(orderService.getOrderById(11L)).thenReturn(proper);
+        Mockito.when(orderService.getOrderById(12L)).thenReturn(Optional.empty());
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_ORDER, 12L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        try (ParallelAuthorization parallel = new ParallelAuthorization(authorizationService, 2, 2)) {
+            OrderController parallelController = new OrderController(orderService, courierService,
+                authorizationService, orderRepo, vendorRepo, new ObjectMapper(), new DispatchIndex(Runnable::run),
+                new VendorSpatialIndex(), parallel);
+
+            assertEquals(new ResponseEntity<>(proper.get(), HttpStatus.OK), parallelController.getOrder(11L, 1L));
+            // the missing order is not revealed to a user that may not see it
+            assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), parallelController.getOrder(12L, 1L));
+            assertEquals(2, parallel.getParallelCount());
+            assertEquals(1, parallel.getDiscardedCount());
+        }
+    }
+
     @Test
     void getOrderRating200() {
         Mockito.when(authorizationService.authorizeAdminOnly(1L))
@@ -254,7 +296,7 @@ class OrderControllerTest {
 
     @Test
     void getOrderRating403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getOrderRating", 1L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_ORDER_RATING, 1L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getOrderRating(1L, 1L);
@@ -289,7 +331,7 @@ class OrderControllerTest {
     @Test
     void updateOrder403() {
         Order updated = new Order().id(11L).status(Order.StatusEnum.PENDING);
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateOrder", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_ORDER, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.updateOrder(11L, 1L, updated);
@@ -322,6 +364,242 @@ class OrderControllerTest {
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
     }
 
+    @Test
+    void getOrdersPageFull() {
+        List<Order> proper = List.of(new Order().id(11L), new Order().id(22L));
+        Mockito.when(orderService.getOrdersAfter(5L, 2)).thenReturn(proper);
+
+        var res = controller.getOrdersPage(1L, 5L, 2);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(proper, res.getBody().getOrders());
+        assertEquals(22L, res.getBody().getNextCursor());
+    }
+
+    @Test
+    void getOrdersPageLast() {
+        List<Order> proper = List.of(new Order().id(11L));
+        Mockito.when(orderService.getOrdersAfter(null, 2)).thenReturn(proper);
+
+        var res = controller.getOrdersPage(1L, null, 2);
+        assertEquals(proper, res.getBody().getOrders());
+        assertNull(res.getBody().getNextCursor());
+    }
+
+    @Test
+    void getOrdersPage400() {
+        var res = controller.getOrdersPage(1L, null, 0);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
+    }
+
+    @Test
+    void getOrdersPage403() {
+        Mockito.when(authorizationService.authorizeAdminOnly(1L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.getOrdersPage(1L, null, 2);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+    }
+
+    @Test
+    void streamOrdersWritesBatches() throws Exception {
+        List<Order> full = new ArrayList<>();
+        for (long i = 1; i <= OrderController.STREAM_BATCH_SIZE; i++) {
+            full.add(new Order().id(i));
+        }
+        Mockito.when(orderService.getOrdersAfter(null, OrderController.STREAM_BATCH_SIZE)).thenReturn(full);
+        Mockito.when(orderService.getOrdersAfter((long) OrderController.STREAM_BATCH_SIZE,
+            OrderController.STREAM_BATCH_SIZE)).thenReturn(List.of(new Order().id(1000L)));
+
+        var res = controller.streamOrders(1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        res.getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(OrderController.STREAM_BATCH_SIZE + 1, lines.length);
+        assertTrue(lines[lines.length - 1].contains("\"id\":1000"));
+        Mockito.verify(orderService, Mockito.times(2)).getOrdersAfter(any(), anyInt());
+    }
+
+    @Test
+    void streamOrders403() {
+        Mockito.when(authorizationService.authorizeAdminOnly(1L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.streamOrders(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+    }
+
+    @Test
+    void claimNextOrder200() {
+        Order claimed = new Order().id(2L).courierId(1L);
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L).bossId(44L)));
+        Mockito.when(orderService.claimNextOrder(1L, 44L)).thenReturn(Optional.of(claimed));
+
+        var res = controller.claimNextOrder(1L);
+        assertEquals(new ResponseEntity<>(claimed, HttpStatus.OK), res);
+    }
+
+    @Test
+    void claimNextOrderIndependent404() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L)));
+        Mockito.when(orderService.claimNextOrder(1L, null)).thenReturn(Optional.empty());
+
+        var res = controller.claimNextOrder(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+    }
+
+    @Test
+    void claimNextOrderNoCourier403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.empty());
+
+        var res = controller.claimNextOrder(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+    }
+
+    @Test
+    void claimNextOrderUnauthorized403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L).bossId(44L)));
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.CLAIM_NEXT_ORDER, 44L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.claimNextOrder(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+        Mockito.verify(orderService, Mockito.never()).claimNextOrder(any(), any());
+    }
+
+    @Test
+    void getNearbyIndependentOrders200() {
+        Location courierLocation = new Location().latitude(52.0F).longitude(4.36F);
+        Vendor near = new Vendor().id(44L).hasCouriers(false).radius(5.0)
+            .location(new Location().latitude(52.01F).longitude(4.36F));
+        Vendor far = new Vendor().id(45L).hasCouriers(false).radius(5.0)
+            .location(new Location().latitude(52.5F).longitude(4.36F));
+        Order farOrder = new Order().id(3L).status(Order.StatusEnum.PREPARING).vendorId(45L);
+        DispatchIndex index = new DispatchIndex(Runnable::run);
+        index.rebuild(List.of(order1, farOrder), List.of(near, far));
+        VendorSpatialIndex spatialIndex = new VendorSpatialIndex();
+        spatialIndex.rebuild(List.of(near, far));
+        OrderController indexed = new OrderController(orderService, courierService, authorizationService, orderRepo,
+            vendorRepo, new ObjectMapper(), index, spatialIndex,
+            ParallelAuthorization.sequential(authorizationService));
+        Mockito.when(courierService.getCourierById(1L))
+            .thenReturn(Optional.of(new Courier().id(1L).currentLocation(courierLocation)));
+
+        var res = indexed.getNearbyIndependentOrders(1L);
+        assertEquals(new ResponseEntity<>(List.of(order1), HttpStatus.OK), res);
+    }
+
+    @Test
+    void getNearbyIndependentOrdersNoLocation400() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L)));
+
+        var res = controller.getNearbyIndependentOrders(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
+    }
+
+    @Test
+    void getNearbyIndependentOrdersNoCourier403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.empty());
+
+        var res = controller.getNearbyIndependentOrders(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+    }
+
+    @Test
+    void waitForNextOrderAnsweredWhenOrderArrives() {
+        DispatchIndex index = new DispatchIndex(Runnable::run);
+        index.rebuild(List.of(), List.of(new Vendor().id(44L).hasCouriers(true)));
+        OrderController indexed = new OrderController(orderService, courierService, authorizationService, orderRepo,
+            vendorRepo, new ObjectMapper(), index, new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L).bossId(44L)));
+
+        var res = indexed.waitForNextOrder(1L, 5L);
+        assertFalse(res.hasResult());
+
+        index.update(new Order().id(3L).vendorId(45L).status(Order.StatusEnum.PREPARING));
+        assertFalse(res.hasResult());
+
+        index.update(order1);
+        assertEquals(new ResponseEntity<>(List.of(order1), HttpStatus.OK), res.getResult());
+    }
+
+    @Test
+    void waitForNextOrderIndependentCourierIgnoresVendorsWithCouriers() {
+        DispatchIndex index = Mockito.spy(new DispatchIndex(Runnable::run));
+        index.rebuild(List.of(), List.of(new Vendor().id(44L).hasCouriers(true)));
+        OrderController indexed = new OrderController(orderService, courierService, authorizationService, orderRepo,
+            vendorRepo, new ObjectMapper(), index, new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L)));
+
+        var res = indexed.waitForNextOrder(1L, 5L);
+        index.update(order1);
+        assertFalse(res.hasResult());
+        // only the check right after registering, the order of vendor 44 did not make the courier look again
+        Mockito.verify(index, Mockito.times(1)).independentOrders();
+
+        Order independent = new Order().id(3L).vendorId(45L).status(Order.StatusEnum.PREPARING);
+        index.update(independent);
+        assertEquals(new ResponseEntity<>(List.of(independent), HttpStatus.OK), res.getResult());
+    }
+
+    @Test
+    void waitForNextOrderAvailableRightAway() {
+        DispatchIndex index = new DispatchIndex(Runnable::run);
+        index.rebuild(List.of(order1), List.of());
+        OrderController indexed = new OrderController(orderService, courierService, authorizationService, orderRepo,
+            vendorRepo, new ObjectMapper(), index, new VendorSpatialIndex(),
+            ParallelAuthorization.sequential(authorizationService));
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L)));
+
+        var res = indexed.waitForNextOrder(1L, null);
+        assertEquals(new ResponseEntity<>(List.of(order1), HttpStatus.OK), res.getResult());
+    }
+
+    @Test
+    void waitForNextOrderInvalidTimeout400() {
+        var res = controller.waitForNextOrder(1L, 0L);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res.getResult());
+    }
+
+    @Test
+    void waitForNextOrderNoCourier403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.empty());
+
+        var res = controller.waitForNextOrder(1L, 5L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res.getResult());
+    }
+
+    @Test
+    void waitForNextOrderUnauthorized403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L).bossId(44L)));
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.WAIT_FOR_NEXT_ORDER, 44L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.waitForNextOrder(1L, 5L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res.getResult());
+    }
+
+    @Test
+    void streamAvailableOrders200() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.of(new Courier().id(1L).bossId(44L)));
+        Mockito.when(orderRepo.findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(
+            44L, Order.StatusEnum.PREPARING)).thenReturn(Optional.empty());
+
+        var res = controller.streamAvailableOrders(1L);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(OrderController.EVENTS_TIMEOUT_MILLIS, res.getBody().getTimeout());
+    }
+
+    @Test
+    void streamAvailableOrdersNoCourier403() {
+        Mockito.when(courierService.getCourierById(1L)).thenReturn(Optional.empty());
+
+        var res = controller.streamAvailableOrders(1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+    }
+
     @Test
     void makeOrder200() {
         Order o = new Order().id(11L);
@@ -379,7 +657,7 @@ class OrderControllerTest {
 
     @Test
     void updateOrderRating403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "putOrderRating", 1L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.PUT_ORDER_RATING, 1L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.putOrderRating(1L, 1L, new BigDecimal("1.0"));
@@ -443,7 +721,7 @@ class OrderControllerTest {
 
     @Test
     void setDeliverTime200() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "setDeliverTime", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.SET_DELIVER_TIME, 11L))
             .thenReturn(Optional.empty());
         Mockito.when(orderService.updatePrepTime(11L, "03:30:00")).thenReturn(Optional.of("03:30:00"));
         var ret = controller.setPreparationTime(11L, 1L, "03:30:00");
@@ -453,7 +731,7 @@ class OrderControllerTest {
 
     @Test
     void setDeliverTime403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "setDeliverTime", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.SET_DELIVER_TIME, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         Mockito.when(orderService.updatePrepTime(11L, "03:30:00")).thenReturn(Optional.of("03:30:00"));
         var ret = controller.setPreparationTime(11L, 1L, "03:30:00");
@@ -463,7 +741,7 @@ class OrderControllerTest {
 
     @Test
     void setDeliverTime404() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "setDeliverTime", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.SET_DELIVER_TIME, 11L))
             .thenReturn(Optional.empty());
         Mockito.when(orderService.updatePrepTime(11L, "03:30:00")).thenReturn(Optional.empty());
         var ret = controller.setPreparationTime(11L, 1L, "03:30:00");
@@ -518,6 +796,38 @@ class OrderControllerTest {
         assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
+    @Test
+    void updateLocationsAuthorizedOnceForTheCourier() {
+        List<CourierLocationUpdate> updates = List.of(
+            new CourierLocationUpdate().courierId(1L).orderId(2L).location(new Location().latitude(1F).longitude(2F)),
+            new CourierLocationUpdate().courierId(1L).orderId(3L).location(new Location().latitude(1F).longitude(2F)));
+        List<CourierLocationResult> results = List.of(new CourierLocationResult().status(200),
+            new CourierLocationResult().status(404));
+        Mockito.when(orderService.updateLocations(updates)).thenReturn(results);
+
+        var res = controller.updateLocations(1L, updates);
+        assertEquals(new ResponseEntity<>(results, HttpStatus.OK), res);
+        Mockito.verify(authorizationService, Mockito.times(1)).checkIfUserIsAuthorized(1L, Operation.UPDATE_LOCATIONS, 1L);
+    }
+
+    @Test
+    void updateLocationsOfSeveralCouriersNeedAnAdmin() {
+        List<CourierLocationUpdate> updates = List.of(new CourierLocationUpdate().courierId(1L).orderId(2L),
+            new CourierLocationUpdate().courierId(4L).orderId(3L));
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_LOCATIONS, null))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.updateLocations(1L, updates);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
+        Mockito.verify(orderService, Mockito.never()).updateLocations(any());
+    }
+
+    @Test
+    void updateLocationsEmpty400() {
+        var res = controller.updateLocations(1L, List.of());
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
+    }
+
     @Test
     void updateLocation200() {
         Order order = new Order().id(2L);
@@ -534,7 +844,7 @@ class OrderControllerTest {
         Order order = new Order().id(2L);
         Location newLocation = new Location().longitude(23F).latitude(32F);
 
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(11L, "getOrderLocation", 2L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(11L, Operation.GET_ORDER_LOCATION, 2L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         Mockito.when(orderService.getOrderById(anyLong())).thenReturn(Optional.of(order));
         Mockito.when(orderService.getOrderLocation(order)).thenReturn(Optional.of(newLocation));
@@ -548,7 +858,7 @@ class OrderControllerTest {
         Order order = new Order().id(2L);
         Location newLocation = new Location().longitude(23F).latitude(32F);
 
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(11L, "updateLocation", 2L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(11L, Operation.UPDATE_LOCATION, 2L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         Mockito.when(orderService.getOrderById(anyLong())).thenReturn(Optional.of(order));
         Mockito.when(orderService.updateLocation(order, newLocation)).thenReturn(Optional.of(newLocation));
@@ -567,7 +877,7 @@ class OrderControllerTest {
     @Test
     void getEta403() {
         Mockito.when(orderService.getEta(1L)).thenReturn(Optional.of(eta));
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(anyLong(), anyString(), any()))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(anyLong(), any(), any()))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getETA(2L, 1L);
@@ -591,7 +901,7 @@ class OrderControllerTest {
     @Test
     void getDistance403() {
         Mockito.when(orderService.getDistance(1L)).thenReturn(Optional.of(5.0F));
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(anyLong(), anyString(), any()))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(anyLong(), any(), any()))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         var res = controller.getOrderDistance(1L, 2L);
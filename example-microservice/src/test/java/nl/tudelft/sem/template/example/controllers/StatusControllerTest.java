@@ -3,15 +3,18 @@ package nl.tudelft.sem.template.example.controllers;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
 import nl.tudelft.sem.template.example.domain.order.OrderService;
 import nl.tudelft.sem.template.example.domain.order.StatusService;
+import nl.tudelft.sem.template.example.domain.order.StatusTransition;
 import nl.tudelft.sem.template.model.Order;
-import nl.tudelft.sem.template.model.Time;
 import nl.tudelft.sem.template.model.UpdateToDeliveredRequest;
 import nl.tudelft.sem.template.model.UpdateToGivenToCourierRequest;
 import nl.tudelft.sem.template.model.UpdateToPreparingRequest;
@@ -40,61 +43,55 @@ public class StatusControllerTest {
 
     @Test
     void updateStatusToAccepted200() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.PENDING));
-        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(
-            Optional.of(new Order().id(11L).status(Order.StatusEnum.ACCEPTED)));
+        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(StatusTransition.UPDATED);
 
         var res = controller.updateToAccepted(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
     }
 
     @Test
-    void updateStatusToRejected200() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.PENDING));
-        Mockito.when(statusService.updateStatusToRejected(11L)).thenReturn(
-            Optional.of(new Order().id(11L).status(Order.StatusEnum.REJECTED)));
+    void updateStatusToAccepted404() {
+        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(StatusTransition.NOT_FOUND);
 
-        var res = controller.updateToRejected(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        var res = controller.updateToAccepted(11L, 1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
     }
 
     @Test
-    void updateStatusToAccepted404() {
-        Mockito.when(statusService.updateStatusToAccepted(anyLong())).thenReturn(Optional.empty());
+    void updateStatusToAccepted400() {
+        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(StatusTransition.INVALID);
 
         var res = controller.updateToAccepted(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
     @Test
-    void updateStatusToAccepted404second() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToAccepted", 11L))
-            .thenReturn(Optional.empty());
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.PENDING));
-        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(Optional.empty());
-
+    void updateStatusToAccepted403() {
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_ACCEPTED, 11L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         var res = controller.updateToAccepted(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
     @Test
-    void updateStatusToRejected404() {
-        Mockito.when(statusService.updateStatusToRejected(anyLong())).thenReturn(Optional.empty());
+    void updateStatusToAcceptedDoesNotReadStatus() {
+        Mockito.when(statusService.updateStatusToAccepted(11L)).thenReturn(StatusTransition.UPDATED);
 
-        var res = controller.updateToRejected(1L, 11L);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+        controller.updateToAccepted(11L, 1L);
+        verify(statusService, never()).getOrderStatus(anyLong());
     }
 
     @Test
-    void updateStatusToRejected404second() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToRejected", 11L))
-            .thenReturn(Optional.empty());
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.PENDING));
-        Mockito.when(statusService.updateStatusToRejected(11L)).thenReturn(Optional.empty());
+    void updateStatusToRejected200() {
+        Mockito.when(statusService.updateStatusToRejected(11L)).thenReturn(StatusTransition.UPDATED);
+
+        var res = controller.updateToRejected(11L, 1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+    }
+
+    @Test
+    void updateStatusToRejected404() {
+        Mockito.when(statusService.updateStatusToRejected(11L)).thenReturn(StatusTransition.NOT_FOUND);
 
         var res = controller.updateToRejected(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
@@ -102,17 +99,15 @@ public class StatusControllerTest {
 
     @Test
     void updateStatusToRejected400() {
-        Mockito.when(statusService.updateStatusToRejected(anyLong())).thenReturn(Optional.empty());
-        Mockito.when(statusService.getOrderStatus(anyLong()))
-            .thenReturn(Optional.of(Order.StatusEnum.GIVEN_TO_COURIER));
+        Mockito.when(statusService.updateStatusToRejected(11L)).thenReturn(StatusTransition.INVALID);
 
-        var res = controller.updateToRejected(1L, 11L);
+        var res = controller.updateToRejected(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
     @Test
     void updateStatusToRejected500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToRejected", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_REJECTED, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
         var res = controller.updateToRejected(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
@@ -120,36 +115,12 @@ public class StatusControllerTest {
 
     @Test
     void updateStatusToRejected403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToRejected", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_REJECTED, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         var res = controller.updateToRejected(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
-    @Test
-    void updateStatusToAccepted500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToAccepted", 11L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
-        var res = controller.updateToAccepted(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
-    }
-
-    @Test
-    void updateStatusToAccepted403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToAccepted", 11L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
-        var res = controller.updateToAccepted(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
-    }
-
-    @Test
-    void updateStatusToAccepted400() {
-        Mockito.when(statusService.getOrderStatus(11L))
-            .thenReturn(Optional.of(Order.StatusEnum.DELIVERED));
-        var res = controller.updateToAccepted(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
-    }
-
     @Test
     void getStatus404() {
         Mockito.when(statusService.getOrderStatus(anyLong())).thenReturn(Optional.empty());
@@ -167,7 +138,7 @@ public class StatusControllerTest {
 
     @Test
     void getStatus500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getStatus", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_STATUS, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
         Mockito.when(statusService.getOrderStatus(11L)).thenReturn(Optional.of(Order.StatusEnum.ACCEPTED));
         var res = controller.getStatus(11L, 1L);
@@ -176,7 +147,7 @@ public class StatusControllerTest {
 
     @Test
     void getStatus403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "getStatus", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_STATUS, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         Mockito.when(statusService.getOrderStatus(11L)).thenReturn(Optional.of(Order.StatusEnum.ACCEPTED));
         var res = controller.getStatus(11L, 1L);
@@ -187,11 +158,7 @@ public class StatusControllerTest {
     void updateStatusToGivenToCourier200() {
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
-
-        Mockito.when(statusService.getOrderStatus(2L)).thenReturn(
-            Optional.of(Order.StatusEnum.PREPARING));
-        Mockito.when(statusService.updateStatusToGivenToCourier(2L, req)).thenReturn(
-            Optional.of(new Order().id(2L).status(Order.StatusEnum.GIVEN_TO_COURIER)));
+        Mockito.when(statusService.updateStatusToGivenToCourier(2L, req)).thenReturn(StatusTransition.UPDATED);
 
         var res = controller.updateToGivenToCourier(2L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
@@ -199,7 +166,8 @@ public class StatusControllerTest {
 
     @Test
     void updateStatusToGivenToCourier404() {
-        Mockito.when(statusService.updateStatusToGivenToCourier(anyLong(), any())).thenReturn(Optional.empty());
+        Mockito.when(statusService.updateStatusToGivenToCourier(anyLong(), any()))
+            .thenReturn(StatusTransition.NOT_FOUND);
 
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
@@ -208,37 +176,20 @@ public class StatusControllerTest {
     }
 
     @Test
-    void updateStatusToGivenToCourier404second() {
-        UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
-        req.courierId(3L);
-
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToGivenToCourier", 2L))
-            .thenReturn(Optional.empty());
-        Mockito.when(statusService.getOrderStatus(2L)).thenReturn(
-            Optional.of(Order.StatusEnum.PREPARING));
-        Mockito.when(statusService.updateStatusToGivenToCourier(2L, req)).thenReturn(Optional.empty());
-
-        var res = controller.updateToGivenToCourier(2L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
-    }
-
-    @Test
-    void updateStatusToGivenToCourier500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToGivenToCourier", 2L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
-        Mockito.when(statusService.updateStatusToGivenToCourier(anyLong(), any())).thenReturn(Optional.empty());
+    void updateStatusToGivenToCourier400() {
+        Mockito.when(statusService.updateStatusToGivenToCourier(anyLong(), any()))
+            .thenReturn(StatusTransition.INVALID);
 
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
-        var res = controller.updateToGivenToCourier(2L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
+        var res = controller.updateToGivenToCourier(11L, 1L, req);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
     @Test
     void updateStatusToGivenToCourier403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToGivenToCourier", 2L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_GIVEN_TO_COURIER, 2L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
-        Mockito.when(statusService.updateStatusToGivenToCourier(anyLong(), any())).thenReturn(Optional.empty());
 
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
@@ -246,25 +197,9 @@ public class StatusControllerTest {
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
-    @Test
-    void updateStatusToGivenToCourier400() {
-        UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
-        req.courierId(3L);
-
-        Mockito.when(statusService.getOrderStatus(11L))
-            .thenReturn(Optional.of(Order.StatusEnum.DELIVERED));
-
-        var res = controller.updateToGivenToCourier(11L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
-    }
-
-
     @Test
     void updateStatusToInTransit200() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.GIVEN_TO_COURIER));
-        Mockito.when(statusService.updateStatusToInTransit(11L)).thenReturn(
-            Optional.of(new Order().id(11L).status(Order.StatusEnum.IN_TRANSIT)));
+        Mockito.when(statusService.updateStatusToInTransit(11L)).thenReturn(StatusTransition.UPDATED);
 
         var res = controller.updateToInTransit(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
@@ -272,101 +207,62 @@ public class StatusControllerTest {
 
     @Test
     void updateStatusToInTransit404() {
-        Mockito.when(statusService.updateStatusToInTransit(anyLong())).thenReturn(Optional.empty());
+        Mockito.when(statusService.updateStatusToInTransit(11L)).thenReturn(StatusTransition.NOT_FOUND);
 
         var res = controller.updateToInTransit(11L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
     }
 
     @Test
-    void updateStatusToInTransit404second() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToInTransit", 11L))
-            .thenReturn(Optional.empty());
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.GIVEN_TO_COURIER));
-        Mockito.when(statusService.updateStatusToInTransit(11L)).thenReturn(Optional.empty());
+    void updateStatusToInTransit400() {
+        Mockito.when(statusService.updateStatusToInTransit(11L)).thenReturn(StatusTransition.INVALID);
 
         var res = controller.updateToInTransit(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
     @Test
-    void updateStatusToDelivered200() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.IN_TRANSIT));
-
-        OffsetDateTime time = OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC);
-        UpdateToDeliveredRequest req =
-            new UpdateToDeliveredRequest().actualDeliveryTime(time);
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(true);
-        Mockito.when(statusService.updateStatusToDelivered(11L, req)).thenReturn(
-            Optional.of(
-                new Order().id(11L).timeValues(new Time().actualDeliveryTime(time)).status(Order.StatusEnum.DELIVERED)));
-
-        var res = controller.updateToDelivered(11L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+    void updateStatusToInTransit403() {
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_IN_TRANSIT, 2L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+        var res = controller.updateToInTransit(2L, 1L);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
     @Test
-    void updateStatusToDelivered403NotInTransit() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.REJECTED));
-
-        OffsetDateTime time = OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC);
-        UpdateToDeliveredRequest req =
-            new UpdateToDeliveredRequest().actualDeliveryTime(time);
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(true);
-        Mockito.when(statusService.updateStatusToDelivered(11L, req)).thenReturn(
-            Optional.of(
-                new Order().id(11L).timeValues(new Time().actualDeliveryTime(time)).status(Order.StatusEnum.DELIVERED)));
+    void updateStatusToDelivered200() {
+        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest()
+            .actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
+        Mockito.when(statusService.updateStatusToDelivered(11L, req)).thenReturn(StatusTransition.UPDATED);
 
         var res = controller.updateToDelivered(11L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
+        assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        verify(orderService, never()).orderExists(anyLong());
     }
 
     @Test
     void updateStatusToDelivered404() {
-        Mockito.when(statusService.updateStatusToDelivered(anyLong(), any()))
-            .thenReturn(Optional.of(new Order().id(11L)));
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(
-            false);
-
-        UpdateToDeliveredRequest update =
-            new UpdateToDeliveredRequest().actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
-        var res = controller.updateToDelivered(11L, 1L, update);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
-    }
+        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest()
+            .actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
+        Mockito.when(statusService.updateStatusToDelivered(11L, req)).thenReturn(StatusTransition.NOT_FOUND);
 
-    @Test
-    void updateStatusToDelivered404NoStatus() {
-        Mockito.when(statusService.updateStatusToDelivered(anyLong(), any()))
-            .thenReturn(Optional.of(new Order().id(11L)));
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(
-            true);
-
-        UpdateToDeliveredRequest update =
-            new UpdateToDeliveredRequest().actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
-        var res = controller.updateToDelivered(11L, 1L, update);
+        var res = controller.updateToDelivered(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
     }
 
     @Test
     void updateStatusToDelivered400() {
-        Mockito.when(statusService.getOrderStatus(any())).thenReturn(Optional.of(Order.StatusEnum.IN_TRANSIT));
-        Mockito.when(statusService.updateStatusToDelivered(anyLong(), any()))
-            .thenReturn(Optional.empty());
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(
-            true);
+        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest()
+            .actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
+        Mockito.when(statusService.updateStatusToDelivered(11L, req)).thenReturn(StatusTransition.INVALID);
 
-        UpdateToDeliveredRequest update =
-            new UpdateToDeliveredRequest().actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
-        var res = controller.updateToDelivered(11L, 1L, update);
+        var res = controller.updateToDelivered(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
     }
 
     @Test
     void updateStatusToDelivered403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToDelivered", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_DELIVERED, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
 
         UpdateToDeliveredRequest update =
@@ -375,66 +271,12 @@ public class StatusControllerTest {
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
-    @Test
-    void updateStatusToDelivered500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToDelivered", 11L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
-        Mockito.when(statusService.updateStatusToDelivered(anyLong(), any()))
-            .thenReturn(Optional.empty());
-        Mockito.when(orderService.orderExists(anyLong())).thenReturn(
-            true);
-
-        UpdateToDeliveredRequest update =
-            new UpdateToDeliveredRequest().actualDeliveryTime(OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC));
-        var res = controller.updateToDelivered(11L, 1L, update);
-        assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
-    }
-
-    @Test
-    void updateStatusToInTransit500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToInTransit", 2L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
-        Mockito.when(statusService.updateStatusToInTransit(anyLong())).thenReturn(Optional.empty());
-
-        var res = controller.updateToInTransit(2L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
-    }
-
-    @Test
-    void updateStatusToInTransit403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToInTransit", 2L))
-            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
-        Mockito.when(statusService.updateStatusToInTransit(anyLong())).thenReturn(Optional.empty());
-
-        var res = controller.updateToInTransit(2L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
-    }
-
-    @Test
-    void updateStatusToInTransit400() {
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.DELIVERED));
-
-        var res = controller.updateToInTransit(11L, 1L);
-        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
-    }
-
     @Test
     void updateToPreparingWorks200() {
-        OffsetDateTime time1 = OffsetDateTime.of(2023, 01, 01,
-            12, 30, 00, 0, ZoneOffset.ofHours(2));
         OffsetDateTime time2 = OffsetDateTime.of(2024, 01, 01,
             14, 30, 00, 0, ZoneOffset.ofHours(2));
         UpdateToPreparingRequest req = new UpdateToPreparingRequest().expectedDeliveryTime(time2).prepTime("02:30:00");
-        Time tv = new Time().prepTime("01:30:00").expectedDeliveryTime(time1);
-        Time tv2 = new Time().prepTime("02:30:00").expectedDeliveryTime(time2);
-        Order order1 = new Order().id(11L).status(Order.StatusEnum.PREPARING).timeValues(tv);
-        Order order2 = new Order().id(11L).status(Order.StatusEnum.ACCEPTED).timeValues(tv2);
-
-        Mockito.when(statusService.getOrderStatus(11L)).thenReturn(
-            Optional.of(Order.StatusEnum.ACCEPTED));
-        Mockito.when(statusService.updateStatusToPreparing(11L, req)).thenReturn(
-            Optional.of(order2));
+        Mockito.when(statusService.updateStatusToPreparing(11L, req)).thenReturn(StatusTransition.UPDATED);
 
         var res = controller.updateToPreparing(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
@@ -445,24 +287,7 @@ public class StatusControllerTest {
         OffsetDateTime time2 = OffsetDateTime.of(2024, 01, 01,
             14, 30, 00, 0, ZoneOffset.ofHours(2));
         UpdateToPreparingRequest req = new UpdateToPreparingRequest().expectedDeliveryTime(time2).prepTime("02:30:00");
-
-        Mockito.when(statusService.getOrderStatus(anyLong())).thenReturn(
-            Optional.empty());
-
-        var res = controller.updateToPreparing(11L, 1L, req);
-        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
-    }
-
-    @Test
-    void updateToPreparingGives404Variant() {
-        OffsetDateTime time2 = OffsetDateTime.of(2024, 01, 01,
-            14, 30, 00, 0, ZoneOffset.ofHours(2));
-        UpdateToPreparingRequest req = new UpdateToPreparingRequest().expectedDeliveryTime(time2).prepTime("02:30:00");
-
-        Mockito.when(statusService.getOrderStatus(anyLong())).thenReturn(
-            Optional.of(Order.StatusEnum.ACCEPTED));
-        Mockito.when(statusService.updateStatusToPreparing(11L, req)).thenReturn(
-            Optional.empty());
+        Mockito.when(statusService.updateStatusToPreparing(11L, req)).thenReturn(StatusTransition.NOT_FOUND);
 
         var res = controller.updateToPreparing(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
@@ -473,9 +298,7 @@ public class StatusControllerTest {
         OffsetDateTime time2 = OffsetDateTime.of(2024, 01, 01,
             14, 30, 00, 0, ZoneOffset.ofHours(2));
         UpdateToPreparingRequest req = new UpdateToPreparingRequest().expectedDeliveryTime(time2).prepTime("02:30:00");
-
-        Mockito.when(statusService.getOrderStatus(anyLong())).thenReturn(
-            Optional.of(Order.StatusEnum.DELIVERED));
+        Mockito.when(statusService.updateStatusToPreparing(11L, req)).thenReturn(StatusTransition.INVALID);
 
         var res = controller.updateToPreparing(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), res);
@@ -487,11 +310,8 @@ public class StatusControllerTest {
             14, 30, 00, 0, ZoneOffset.ofHours(2));
         UpdateToPreparingRequest req = new UpdateToPreparingRequest().expectedDeliveryTime(time2).prepTime("02:30:00");
 
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateToPreparing", 11L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_TO_PREPARING, 11L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
-        Mockito.when(statusService.getOrderStatus(anyLong())).thenReturn(
-            Optional.empty());
-
 
         var res = controller.updateToPreparing(11L, 1L, req);
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
@@ -4,11 +4,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.authorization.AuthorizationService;
+import nl.tudelft.sem.template.example.authorization.Operation;
+import nl.tudelft.sem.template.example.domain.navigation.HaversineDistanceCalculator;
+import nl.tudelft.sem.template.example.domain.navigation.LocationHistory;
 import nl.tudelft.sem.template.example.domain.user.CourierService;
 import nl.tudelft.sem.template.example.domain.user.VendorService;
 import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +27,7 @@ public class UserControllerTest {
     private VendorService vendorService;
     private CourierService courierService;
     private AuthorizationService authorizationService;
+    private LocationHistory history;
     private UserController controller;
 
     @BeforeEach
@@ -29,7 +35,44 @@ public class UserControllerTest {
         this.vendorService = Mockito.mock(VendorService.class);
         this.courierService = Mockito.mock(CourierService.class);
         this.authorizationService = Mockito.mock(AuthorizationService.class);
-        this.controller = new UserController(vendorService, courierService, authorizationService);
+        this.history = new LocationHistory(new HaversineDistanceCalculator(), LocationHistory.DEFAULT_CAPACITY);
+        this.controller = new UserController(vendorService, courierService, authorizationService, history);
+    }
+
+    @Test
+    void getCourierTrajectory200() {
+        OffsetDateTime now = OffsetDateTime.now();
+        history.record(100L, new Location().latitude(52.0F).longitude(4.36F), now.minusMinutes(30));
+        history.record(100L, new Location().latitude(52.01F).longitude(4.36F), now.minusMinutes(2));
+        history.record(100L, new Location().latitude(52.02F).longitude(4.36F), now.minusMinutes(1));
+
+        var res = controller.getCourierTrajectory(100L, 1L, 10);
+        assertEquals(HttpStatus.OK, res.getStatusCode());
+        assertEquals(100L, res.getBody().getCourierId());
+        assertEquals(2, res.getBody().getPoints().size());
+        assertEquals(1111.95 / 60, res.getBody().getSpeed(), 0.1);
+    }
+
+    @Test
+    void getCourierTrajectory404() {
+        var res = controller.getCourierTrajectory(100L, 1L, null);
+        assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+    }
+
+    @Test
+    void getCourierTrajectory400() {
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST), controller.getCourierTrajectory(100L, 1L, 0));
+        assertEquals(new ResponseEntity<>(HttpStatus.BAD_REQUEST),
+            controller.getCourierTrajectory(100L, 1L, UserController.MAX_TRAJECTORY_MINUTES + 1));
+    }
+
+    @Test
+    void getCourierTrajectory403() {
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.GET_COURIER_TRAJECTORY, 100L))
+            .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
+
+        var res = controller.getCourierTrajectory(100L, 1L, null);
+        assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
     }
 
     @Test
@@ -39,6 +82,8 @@ public class UserControllerTest {
 
         var res = controller.updateBossOfCourier(100L, 6L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        Mockito.verify(authorizationService).invalidateUserDecisions(100L);
+        Mockito.verify(authorizationService).invalidateResourceDecisions(100L);
     }
 
     @Test
@@ -52,7 +97,7 @@ public class UserControllerTest {
 
     @Test
     void updateBossOfCourier500() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateBossOfCourier", 6L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_BOSS_OF_COURIER, 6L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR)));
         var res = controller.updateBossOfCourier(100L, 6L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR), res);
@@ -60,7 +105,7 @@ public class UserControllerTest {
 
     @Test
     void updateBossOfCourier403() {
-        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, "updateBossOfCourier", 6L))
+        Mockito.when(authorizationService.checkIfUserIsAuthorized(1L, Operation.UPDATE_BOSS_OF_COURIER, 6L))
             .thenReturn(Optional.of(new ResponseEntity<>(HttpStatus.FORBIDDEN)));
         var res = controller.updateBossOfCourier(100L, 6L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.FORBIDDEN), res);
@@ -75,6 +120,7 @@ public class UserControllerTest {
 
         var res = controller.makeVendorById(2L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        Mockito.verify(authorizationService).invalidateUserType(1L);
     }
 
     @Test
@@ -99,6 +145,7 @@ public class UserControllerTest {
 
         var res = controller.makeVendorById(2L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.NOT_FOUND), res);
+        Mockito.verify(authorizationService, Mockito.never()).invalidateUserType(anyLong());
     }
 
     @Test
@@ -109,6 +156,7 @@ public class UserControllerTest {
         Mockito.when(vendorService.makeVendor(any())).thenReturn(proper);
         var res = controller.makeVendor(2L, vendor);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        Mockito.verify(authorizationService).invalidateUserType(1L);
     }
 
     @Test
@@ -143,6 +191,7 @@ public class UserControllerTest {
 
         var res = controller.makeCourierById(2L, 1L);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        Mockito.verify(authorizationService).invalidateUserType(1L);
     }
 
     @Test
@@ -176,6 +225,7 @@ public class UserControllerTest {
         Mockito.when(courierService.makeCourier(any())).thenReturn(proper);
         var res = controller.makeCourier(2L, courier);
         assertEquals(new ResponseEntity<>(HttpStatus.OK), res);
+        Mockito.verify(authorizationService).invalidateUserType(1L);
     }
 
     @Test
@@ -0,0 +1,15 @@
+package nl.tudelft.sem.template.example.domain;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Minimal configuration for repository tests, only the entities and repositories are loaded
+ * on top of the JPA auto configuration of {@code @DataJpaTest}.
+ */
+@Configuration
+@EntityScan("nl.tudelft.sem.template.model")
+@EnableJpaRepositories("nl.tudelft.sem.template.example.domain")
+public class JpaTestConfig {
+}
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -16,8 +18,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.domain.exception.DeliveryExceptionRepository;
+import nl.tudelft.sem.template.example.domain.order.CourierDelivery;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
 import nl.tudelft.sem.template.model.DeliveryException;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
@@ -43,6 +47,7 @@ public class AdminServiceTest {
 
     private DeliveryExceptionRepository exceptionRepo;
 
+    private VendorSpatialIndex spatialIndex;
 
     @BeforeEach
     void setUp() {
@@ -59,7 +64,8 @@ public class AdminServiceTest {
         this.vendorRepo = Mockito.mock(VendorRepository.class);
         this.orderRepo = Mockito.mock(OrderRepository.class);
         this.exceptionRepo = Mockito.mock(DeliveryExceptionRepository.class);
-        this.adminService = new AdminService(vendorRepo, orderRepo, exceptionRepo);
+        this.spatialIndex = new VendorSpatialIndex();
+        this.adminService = new AdminService(vendorRepo, orderRepo, exceptionRepo, spatialIndex);
     }
 
     @Test
@@ -210,6 +216,20 @@ public class AdminServiceTest {
         assertEquals(res.get(), vendors2);
     }
 
+    @Test
+    void updateDefaultRadiusUpdatesTheSpatialIndex() {
+        spatialIndex.rebuild(List.of(vendor1));
+        // about 2.2 km north of the vendor, outside the radius of 1 km
+        Location customer = new Location().latitude(22.02F).longitude(33F);
+        assertTrue(spatialIndex.vendorsCovering(customer).isEmpty());
+        Mockito.when(vendorRepo.findVendorsByHasCouriers(false)).thenReturn(List.of(vendor1));
+        Mockito.when(vendorRepo.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        adminService.updateDefaultRadius(5D);
+
+        assertEquals(List.of(vendor1.getId()), spatialIndex.vendorsCovering(customer));
+    }
+
     @Test
     void getDefaultRadiusEmpty() {
         Mockito.when(vendorRepo.findVendorsByHasCouriers(false)).thenReturn(new ArrayList<>());
@@ -251,46 +271,64 @@ public class AdminServiceTest {
 
     @Test
     void getCouriersEfficienciesWorks() {
-        Time time1 = new Time().actualDeliveryTime(OffsetDateTime.parse("2024-01-14T12:30:00+05:00"))
-            .expectedDeliveryTime(OffsetDateTime.parse("2024-01-14T12:31:00+05:00"));
-        Order order1 = new Order().id(1L).courierId(22L).timeValues(time1).status(Order.StatusEnum.DELIVERED);
-        Mockito.when(orderRepo.findByStatus(Order.StatusEnum.DELIVERED))
-            .thenReturn(List.of(order1));
-        Mockito.when(orderRepo.findByCourierIdAndStatus(22L, Order.StatusEnum.DELIVERED))
-            .thenReturn(List.of(order1));
+        when(orderRepo.findCourierDeliveries(eq(Order.StatusEnum.DELIVERED), any(), any()))
+            .thenReturn(List.of(delivery(22L, 60)));
 
         var res = adminService.getCouriersEfficiencies();
         assertEquals(Optional.of(Map.of("22", 60D)), res);
     }
 
     @Test
-    void getCouriersEfficienciesWorksTwoOrders() {
-        Time time1 = new Time().actualDeliveryTime(OffsetDateTime.parse("2024-01-14T12:30:00+05:00"))
-                .expectedDeliveryTime(OffsetDateTime.parse("2024-01-14T12:31:00+05:00"));
-        Order order1 = new Order().id(1L).courierId(22L).timeValues(time1).status(Order.StatusEnum.DELIVERED);
+    void getCouriersEfficienciesWorksTwoCouriers() {
+        when(orderRepo.findCourierDeliveries(eq(Order.StatusEnum.DELIVERED), any(), any()))
+            .thenReturn(List.of(delivery(22L, 30), delivery(23L, -30), delivery(22L, 90)));
 
-        Time time2 = new Time().actualDeliveryTime(OffsetDateTime.parse("2024-01-14T12:30:00+05:00"))
-                .expectedDeliveryTime(OffsetDateTime.parse("2024-01-14T12:31:00+05:00"));
-        Order order2 = new Order().id(2L).courierId(22L).timeValues(time2).status(Order.StatusEnum.DELIVERED);
+        var res = adminService.getCouriersEfficiencies();
+        assertEquals(Optional.of(Map.of("22", 60D, "23", -30D)), res);
+        // all couriers are read in one query, there are no per courier queries
+        verify(orderRepo, never()).findByCourierIdAndStatus(any(), any());
+    }
 
-        Mockito.when(orderRepo.findByStatus(Order.StatusEnum.DELIVERED))
-                .thenReturn(List.of(order1, order2));
-        Mockito.when(orderRepo.findByCourierIdAndStatus(22L, Order.StatusEnum.DELIVERED))
-                .thenReturn(List.of(order1, order2));
+    @Test
+    void getCouriersEfficienciesUsesWindow() {
+        OffsetDateTime from = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime to = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        when(orderRepo.findCourierDeliveries(Order.StatusEnum.DELIVERED, from, to))
+            .thenReturn(List.of(delivery(22L, 60)));
 
-        var res = adminService.getCouriersEfficiencies();
+        var res = adminService.getCouriersEfficiencies(from, to);
         assertEquals(Optional.of(Map.of("22", 60D)), res);
     }
 
     @Test
     void getCouriersEfficienciesDoesNotWork() {
-        Mockito.when(orderRepo.findByStatus(Order.StatusEnum.DELIVERED))
+        when(orderRepo.findCourierDeliveries(any(), any(), any()))
             .thenReturn(new ArrayList<>());
 
         var res = adminService.getCouriersEfficiencies();
         assertEquals(Optional.empty(), res);
     }
 
+    private static CourierDelivery delivery(Long courierId, long secondsEarly) {
+        OffsetDateTime expected = OffsetDateTime.parse("2024-01-14T12:30:00Z");
+        return new CourierDelivery() {
+            @Override
+            public Long getCourierId() {
+                return courierId;
+            }
+
+            @Override
+            public OffsetDateTime getExpectedDeliveryTime() {
+                return expected;
+            }
+
+            @Override
+            public OffsetDateTime getActualDeliveryTime() {
+                return expected.minusSeconds(secondsEarly);
+            }
+        };
+    }
+
     @Test
     void getAllDeliveryTimesWorks() {
         OffsetDateTime orderTime = OffsetDateTime.parse("2024-01-16T10:00:00+00:00");
@@ -0,0 +1,71 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the cost per distance of the haversine and equirectangular calculators, one call at a time and with
+ * the batch API, for one courier and DESTINATIONS destinations spread over a city.
+ * Run with ./gradlew benchmark, the results are printed to standard out.
+ */
+@Tag("benchmark")
+class DistanceCalculatorBenchmarkTest {
+
+    private static final int DESTINATIONS = 100_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private final float[] lats = new float[DESTINATIONS];
+    private final float[] lons = new float[DESTINATIONS];
+    private final float[] out = new float[DESTINATIONS];
+    // keeps the JIT from removing the loops
+    private double sink;
+
+    @Test
+    void compareVariants() {
+        Random random = new Random(42);
+        for (int i = 0; i < DESTINATIONS; i++) {
+            lats[i] = 52.0F + (random.nextFloat() - 0.5F) * 0.2F;
+            lons[i] = 4.36F + (random.nextFloat() - 0.5F) * 0.3F;
+        }
+        DistanceCalculator haversine = new HaversineDistanceCalculator();
+        DistanceCalculator equirectangular = new EquirectangularDistanceCalculator();
+
+        System.out.printf("%-28s | %10s%n", "variant", "ns/op");
+        report("haversine single", () -> single(haversine));
+        report("haversine batch", () -> batch(haversine));
+        report("equirectangular single", () -> single(equirectangular));
+        report("equirectangular batch", () -> batch(equirectangular));
+
+        // the timings are only reported, an ordering of wall clock times is too noisy to assert on shared machines
+        assertTrue(sink > 0);
+    }
+
+    private void single(DistanceCalculator calculator) {
+        double sum = 0;
+        for (int i = 0; i < DESTINATIONS; i++) {
+            sum += calculator.distance(52.0F, 4.36F, lats[i], lons[i]);
+        }
+        sink += sum;
+    }
+
+    private void batch(DistanceCalculator calculator) {
+        calculator.distances(52.0F, 4.36F, lats, lons, out);
+        sink += out[DESTINATIONS - 1];
+    }
+
+    private static void report(String name, Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        double nsPerOp = (System.nanoTime() - start) / (double) MEASURED_ROUNDS / DESTINATIONS;
+        System.out.printf("%-28s | %10.2f%n", name, nsPerOp);
+    }
+}
@@ -0,0 +1,63 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.Test;
+
+class DistanceCalculatorTest {
+
+    private final DistanceCalculator haversine = new HaversineDistanceCalculator();
+    private final DistanceCalculator equirectangular = new EquirectangularDistanceCalculator();
+
+    @Test
+    void haversineKnownDistances() {
+        assertEquals(0, haversine.distance(52.0, 4.36, 52.0, 4.36));
+        // Paris to London
+        assertEquals(343_500, haversine.distance(48.8566, 2.3522, 51.5074, -0.1278), 1_000);
+        // half way around the equator
+        assertEquals(Math.PI * DistanceCalculator.EARTH_RADIUS_METERS, haversine.distance(0, 0, 0, 180), 1);
+        assertEquals(haversine.distance(0, 179.99, 0, -179.99), haversine.distance(0, 0, 0, 0.02), 1e-6);
+    }
+
+    @Test
+    void equirectangularCloseForShortDistances() {
+        double[][] points = {{52.0, 4.36, 52.03, 4.41}, {-33.9, 18.4, -33.95, 18.47}, {64.1, -21.9, 64.15, -21.8}};
+        for (double[] p : points) {
+            double exact = haversine.distance(p[0], p[1], p[2], p[3]);
+            double fast = equirectangular.distance(p[0], p[1], p[2], p[3]);
+            assertEquals(exact, fast, exact * 0.001);
+        }
+        assertEquals(haversine.distance(0, 179.99, 0, -179.99), equirectangular.distance(0, 179.99, 0, -179.99), 1);
+    }
+
+    @Test
+    void batchMatchesSingle() {
+        float[] lats = {52.01F, 51.9F, 52.1F, 52.0F};
+        float[] lons = {4.36F, 4.47F, 4.5F, 4.36F};
+        float[] out = new float[lats.length];
+
+        for (DistanceCalculator calculator : new DistanceCalculator[] {haversine, equirectangular}) {
+            calculator.distances(52.0F, 4.36F, lats, lons, out);
+            for (int i = 0; i < lats.length; i++) {
+                double single = calculator.distance(52.0F, 4.36F, lats[i], lons[i]);
+                // the batch variant of the equirectangular calculator uses the origin latitude
+                assertEquals(single, out[i], Math.max(1, single * 0.005));
+            }
+        }
+        assertEquals(0F, out[3]);
+    }
+
+    @Test
+    void distanceBetweenLocations() {
+        Location from = new Location().latitude(52.0F).longitude(4.36F);
+
+        Optional<Float> res = haversine.distance(from, new Location().latitude(52.01F).longitude(4.36F));
+        assertTrue(res.isPresent());
+        assertEquals(1112F, res.get(), 1F);
+        assertEquals(Optional.empty(), haversine.distance(from, new Location().latitude(52.01F)));
+        assertEquals(Optional.empty(), haversine.distance(null, from));
+    }
+}
@@ -0,0 +1,145 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EtaEngineTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-01-14T12:00:00Z");
+    // 0.01 degree of latitude north of the vendor
+    private static final double TRIP = 1111.95;
+
+    private EtaEngine engine;
+    private Location destination;
+
+    @BeforeEach
+    void setUp() {
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        engine = new EtaEngine(distanceCalculator,
+            new LocationHistory(distanceCalculator, LocationHistory.DEFAULT_CAPACITY));
+        engine.vendorMoved(new Vendor().id(1L).location(new Location().latitude(52.0F).longitude(4.36F)));
+        destination = new Location().latitude(52.01F).longitude(4.36F);
+    }
+
+    @Test
+    void preparingWaitsForThePreparationTime() {
+        Order order = order(Order.StatusEnum.PREPARING).timeValues(new Time().orderTime(NOW).prepTime("00:20:00"));
+
+        assertSeconds(20 * 60 + TRIP / EtaEngine.DEFAULT_SPEED, engine.estimate(order, NOW));
+        // already ready, the trip starts now
+        assertSeconds(TRIP / EtaEngine.DEFAULT_SPEED, engine.estimate(order, NOW.plusMinutes(30)), NOW.plusMinutes(30));
+    }
+
+    @Test
+    void preparingWaitsForTheCourierToArrive() {
+        Order order = order(Order.StatusEnum.PREPARING).courierId(7L)
+            .timeValues(new Time().orderTime(NOW).prepTime("00:01:00"));
+        // 0.02 degree south of the vendor, takes longer than the preparation
+        engine.courierMoved(7L, new Location().latitude(51.98F).longitude(4.36F));
+
+        assertSeconds(3 * TRIP / EtaEngine.DEFAULT_SPEED, engine.estimate(order, NOW));
+    }
+
+    @Test
+    void inTransitUsesTheCourierLocation() {
+        Order order = order(Order.StatusEnum.IN_TRANSIT).courierId(7L);
+
+        // location unknown, assumed to be at the vendor
+        assertSeconds(TRIP / EtaEngine.DEFAULT_SPEED, engine.estimate(order, NOW));
+
+        engine.courierMoved(7L, destination);
+        assertSeconds(0, engine.estimate(order, NOW));
+    }
+
+    @Test
+    void inTransitUsesTheCurrentSpeed() {
+        Order order = order(Order.StatusEnum.IN_TRANSIT).courierId(7L);
+        Location vendor = new Location().latitude(52.0F).longitude(4.36F);
+        // 0.01 degree in 100 seconds, still as far from the destination
+        engine.courierMoved(7L, new Location().latitude(51.99F).longitude(4.36F), NOW.minusSeconds(100));
+        engine.courierMoved(7L, vendor, NOW);
+
+        assertEquals(TRIP / 100, engine.currentSpeed(7L, NOW).getAsDouble(), 0.01);
+        assertSeconds(100, engine.estimate(order, NOW));
+    }
+
+    @Test
+    void standingStillFallsBackToTheAverageSpeed() {
+        Order order = order(Order.StatusEnum.IN_TRANSIT).courierId(7L);
+        Location vendor = new Location().latitude(52.0F).longitude(4.36F);
+        engine.courierMoved(7L, vendor, NOW.minusSeconds(100));
+        engine.courierMoved(7L, vendor, NOW);
+
+        assertTrue(engine.currentSpeed(7L, NOW).isEmpty());
+        assertSeconds(TRIP / EtaEngine.DEFAULT_SPEED, engine.estimate(order, NOW));
+    }
+
+    @Test
+    void learnsTheSpeedOfTheCourier() {
+        engine.pickedUp(1L, NOW);
+        engine.deliveryCompleted(order(Order.StatusEnum.DELIVERED).courierId(7L)
+            .timeValues(new Time().actualDeliveryTime(NOW.plusSeconds(100))));
+
+        double speed = EtaEngine.DEFAULT_SPEED + EtaEngine.SMOOTHING * (TRIP / 100 - EtaEngine.DEFAULT_SPEED);
+        assertEquals(TRIP / 100, engine.speedOf(7L), 0.01);
+        assertEquals(speed, engine.speedOf(8L), 0.01);
+        assertSeconds(100, engine.estimate(order(Order.StatusEnum.IN_TRANSIT).courierId(7L), NOW));
+    }
+
+    @Test
+    void learnsFromReadyTimeWithoutPickup() {
+        engine.deliveryCompleted(order(Order.StatusEnum.DELIVERED).courierId(7L).timeValues(new Time()
+            .orderTime(NOW).prepTime("00:10:00").actualDeliveryTime(NOW.plusSeconds(600 + 200))));
+
+        assertEquals(TRIP / 200, engine.speedOf(7L), 0.01);
+    }
+
+    @Test
+    void ignoresImplausibleDeliveries() {
+        engine.pickedUp(1L, NOW);
+        engine.deliveryCompleted(order(Order.StatusEnum.DELIVERED).courierId(7L)
+            .timeValues(new Time().actualDeliveryTime(NOW.plusSeconds(1))));
+
+        assertEquals(EtaEngine.DEFAULT_SPEED, engine.speedOf(7L));
+    }
+
+    @Test
+    void noEstimateWithoutInformation() {
+        assertEquals(Optional.empty(), engine.estimate(new Order(), NOW));
+        assertEquals(Optional.empty(), engine.estimate(order(Order.StatusEnum.REJECTED), NOW));
+        // no preparation time
+        assertEquals(Optional.empty(), engine.estimate(order(Order.StatusEnum.PREPARING), NOW));
+        // unknown vendor
+        assertEquals(Optional.empty(), engine.estimate(order(Order.StatusEnum.IN_TRANSIT).vendorId(2L), NOW));
+    }
+
+    @Test
+    void deliveredIsTheActualTime() {
+        Order order = order(Order.StatusEnum.DELIVERED).timeValues(new Time().actualDeliveryTime(NOW));
+
+        assertEquals(Optional.of(NOW), engine.estimate(order, NOW.plusDays(1)));
+    }
+
+    private Order order(Order.StatusEnum status) {
+        return new Order().id(1L).vendorId(1L).status(status).deliveryDestination(destination);
+    }
+
+    private static void assertSeconds(double expected, Optional<OffsetDateTime> eta) {
+        assertSeconds(expected, eta, NOW);
+    }
+
+    private static void assertSeconds(double expected, Optional<OffsetDateTime> eta, OffsetDateTime from) {
+        assertTrue(eta.isPresent());
+        assertEquals(expected, Duration.between(from, eta.get()).toMillis() / 1000.0, 1);
+    }
+}
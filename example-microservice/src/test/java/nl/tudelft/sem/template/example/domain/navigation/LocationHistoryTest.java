@@ -0,0 +1,138 @@
+package nl.tudelft.sem.template.example.domain.navigation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.TrajectoryPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LocationHistoryTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2024-01-14T12:00:00Z");
+
+    private LocationHistory history;
+
+    @BeforeEach
+    void setUp() {
+        history = new LocationHistory(new HaversineDistanceCalculator(), 40);
+    }
+
+    @Test
+    void trajectoryReturnsThePointsSinceTheGivenMoment() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(history.record(1L, location(52.0F + i * 0.001F), NOW.plusMinutes(i)));
+        }
+
+        List<TrajectoryPoint> points = history.trajectory(1L, NOW.plusMinutes(7));
+        assertEquals(List.of(NOW.plusMinutes(7), NOW.plusMinutes(8), NOW.plusMinutes(9)),
+            points.stream().map(TrajectoryPoint::getTimestamp).collect(Collectors.toList()));
+        assertEquals(52.007F, points.get(0).getLatitude(), 0.00001);
+        assertEquals(4.36F, points.get(0).getLongitude(), 0.00001);
+        assertTrue(history.trajectory(1L, NOW.plusMinutes(10)).isEmpty());
+        assertTrue(history.trajectory(2L, NOW).isEmpty());
+    }
+
+    @Test
+    void oldestPointsAreOverwrittenAtTheCapacity() {
+        for (int i = 0; i < 100; i++) {
+            history.record(1L, location(52.0F), NOW.plusSeconds(i));
+        }
+
+        List<TrajectoryPoint> points = history.trajectory(1L, NOW);
+        assertEquals(40, points.size());
+        assertEquals(NOW.plusSeconds(60), points.get(0).getTimestamp());
+        assertEquals(NOW.plusSeconds(99), points.get(39).getTimestamp());
+        assertEquals(40L * LocationHistory.BYTES_PER_POINT, history.memoryBytes());
+        assertEquals(history.maxBytesPerCourier(), history.memoryBytes());
+    }
+
+    @Test
+    void pointsSurviveTheArraysGrowing() {
+        // 17 and 33 points need one and two grows of the arrays, 39 is one point below the capacity
+        for (int count : new int[] {17, 33, 39}) {
+            LocationHistory grown = new LocationHistory(new HaversineDistanceCalculator(), 40);
+            for (int i = 0; i < count; i++) {
+                grown.record(1L, location(52.0F + i * 0.001F), NOW.plusSeconds(i));
+            }
+
+            List<TrajectoryPoint> points = grown.trajectory(1L, NOW);
+            assertEquals(count, points.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(NOW.plusSeconds(i), points.get(i).getTimestamp());
+                assertEquals(52.0F + i * 0.001F, points.get(i).getLatitude(), 0.00001);
+            }
+            assertEquals(List.of(NOW.plusSeconds(count - 1)), grown.trajectory(1L, NOW.plusSeconds(count - 1))
+                .stream().map(TrajectoryPoint::getTimestamp).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void speedAfterTheArraysGrew() {
+        // 20 points, 10 seconds and about 11 meters apart, the first 16 filled the initial arrays
+        for (int i = 0; i < 20; i++) {
+            history.record(1L, location(52.0F + i * 0.0001F), NOW.plusSeconds(i * 10L));
+        }
+
+        assertEquals(1.11, history.speed(1L, NOW.plusSeconds(190)).getAsDouble(), 0.05);
+    }
+
+    @Test
+    void memoryGrowsWithThePoints() {
+        history.record(1L, location(52.0F), NOW);
+        history.record(2L, location(52.0F), NOW);
+
+        assertEquals(2, history.courierCount());
+        assertEquals(2 * 16L * LocationHistory.BYTES_PER_POINT, history.memoryBytes());
+
+        history.forget(2L);
+        assertEquals(1, history.courierCount());
+        assertEquals(16L * LocationHistory.BYTES_PER_POINT, history.memoryBytes());
+    }
+
+    @Test
+    void olderAndIncompletePointsAreDropped() {
+        assertTrue(history.record(1L, location(52.0F), NOW));
+        assertFalse(history.record(1L, location(52.1F), NOW.minusSeconds(1)));
+        assertFalse(history.record(1L, new Location().latitude(52.0F), NOW.plusSeconds(1)));
+        assertFalse(history.record(null, location(52.0F), NOW));
+        assertFalse(history.record(1L, location(52.0F), null));
+
+        assertEquals(1, history.trajectory(1L, NOW.minusMinutes(1)).size());
+    }
+
+    @Test
+    void speedIsThePathLengthOverTheRecentPoints() {
+        // an old point that is outside of the speed window
+        history.record(1L, location(51.0F), NOW.minusMinutes(30));
+        history.record(1L, location(52.0F), NOW.minusSeconds(100));
+        history.record(1L, location(52.005F), NOW.minusSeconds(50));
+        history.record(1L, location(52.01F), NOW);
+
+        assertEquals(1111.95 / 100, history.speed(1L, NOW).getAsDouble(), 0.05);
+    }
+
+    @Test
+    void speedNeedsEnoughTime() {
+        history.record(1L, location(52.0F), NOW.minusSeconds(10));
+        history.record(1L, location(52.01F), NOW);
+
+        assertTrue(history.speed(1L, NOW).isEmpty());
+        assertTrue(history.speed(2L, NOW).isEmpty());
+    }
+
+    @Test
+    void capacityHasToHoldTwoPoints() {
+        assertThrows(IllegalArgumentException.class, () -> new LocationHistory(new HaversineDistanceCalculator(), 1));
+    }
+
+    private static Location location(Float latitude) {
+        return new Location().latitude(latitude).longitude(4.36F);
+    }
+}
@@ -0,0 +1,190 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DispatchIndexTest {
+
+    private static final OffsetDateTime PLACED = OffsetDateTime.parse("2024-01-14T12:30:00Z");
+
+    private DispatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DispatchIndex(Runnable::run);
+        index.rebuild(List.of(
+            preparing(3L, 1L, PLACED.plusMinutes(1)),
+            preparing(2L, 1L, PLACED.plusMinutes(2)),
+            preparing(4L, 2L, PLACED),
+            new Order().id(5L).vendorId(1L).status(Order.StatusEnum.PREPARING).courierId(9L),
+            new Order().id(6L).vendorId(1L).status(Order.StatusEnum.ACCEPTED)
+        ), List.of(new Vendor().id(1L).hasCouriers(false), new Vendor().id(2L).hasCouriers(true)));
+    }
+
+    @Test
+    void rebuildKeepsOnlyDispatchableOrders() {
+        assertTrue(index.isLoaded());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void nextForVendorIsFirstPlaced() {
+        assertEquals(3L, index.nextForVendor(1L).get().getId());
+        assertEquals(4L, index.nextForVendor(2L).get().getId());
+        assertEquals(Optional.empty(), index.nextForVendor(7L));
+    }
+
+    @Test
+    void independentOrdersExcludeVendorsWithCouriers() {
+        assertEquals(List.of(2L, 3L), ids(index.independentOrders()));
+    }
+
+    @Test
+    void unknownVendorIsIndependent() {
+        index.update(preparing(8L, 7L, PLACED));
+        assertEquals(List.of(2L, 3L, 8L), ids(index.independentOrders()));
+    }
+
+    @Test
+    void updateRemovesAssignedOrder() {
+        index.update(preparing(3L, 1L, PLACED).courierId(4L));
+
+        assertEquals(2L, index.nextForVendor(1L).get().getId());
+        assertEquals(List.of(2L), ids(index.independentOrders()));
+    }
+
+    @Test
+    void removeDropsEmptyVendor() {
+        index.remove(4L);
+        index.remove(404L);
+
+        assertFalse(index.nextForVendor(2L).isPresent());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void vendorUpdatedMovesOrders() {
+        index.vendorUpdated(new Vendor().id(2L).hasCouriers(false));
+        assertEquals(List.of(2L, 3L, 4L), ids(index.independentOrders()));
+
+        index.vendorUpdated(new Vendor().id(1L).hasCouriers(true));
+        assertEquals(List.of(4L), ids(index.independentOrders()));
+    }
+
+    @Test
+    void indexedOrdersAreCopies() {
+        Order order = preparing(8L, 3L, PLACED);
+        index.update(order);
+
+        // changing the inserted order does not change the index
+        order.courierId(5L).getTimeValues().orderTime(PLACED.plusDays(1));
+        Order returned = index.nextForVendor(3L).get();
+        assertNull(returned.getCourierId());
+        assertEquals(PLACED, returned.getTimeValues().getOrderTime());
+
+        // and neither does changing a returned order
+        returned.courierId(6L).getTimeValues().orderTime(PLACED.plusDays(2));
+        assertNull(index.nextForVendor(3L).get().getCourierId());
+        assertEquals(PLACED, index.independentOrders().get(2).getTimeValues().getOrderTime());
+    }
+
+    @Test
+    void notLoadedUntilRebuilt() {
+        DispatchIndex empty = new DispatchIndex(Runnable::run);
+        empty.update(preparing(1L, 1L, PLACED));
+
+        assertFalse(empty.isLoaded());
+        assertEquals(1, empty.size());
+    }
+
+    @Test
+    void listenersHearAboutNewlyDispatchableOrders() {
+        List<Long> heard = new ArrayList<>();
+        Consumer<Long> listener = heard::add;
+        index.addListener(listener);
+
+        index.update(preparing(8L, 2L, PLACED));
+        // already indexed, nothing new for couriers
+        index.update(preparing(8L, 2L, PLACED));
+        index.update(preparing(9L, 2L, PLACED).courierId(1L));
+        assertEquals(List.of(2L), heard);
+
+        index.removeListener(listener);
+        index.update(preparing(10L, 2L, PLACED));
+        assertEquals(List.of(2L), heard);
+    }
+
+    @Test
+    void listenersAreCalledOnTheExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        DispatchIndex async = new DispatchIndex(queued::add);
+        List<Long> heard = new ArrayList<>();
+        async.addListener(heard::add);
+
+        async.update(preparing(8L, 2L, PLACED));
+        assertEquals(1, async.size());
+        assertTrue(heard.isEmpty());
+
+        queued.forEach(Runnable::run);
+        assertEquals(List.of(2L), heard);
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheOthers() {
+        List<Long> heard = new ArrayList<>();
+        index.addListener(vendorId -> {
+            throw new IllegalStateException("client went away");
+        });
+        index.addListener(heard::add);
+
+        index.update(preparing(8L, 2L, PLACED));
+
+        assertEquals(List.of(2L), heard);
+        assertEquals(1, index.getListenerFailureCount());
+    }
+
+    @Test
+    void notificationIsDroppedWhenTheExecutorIsFull() {
+        DispatchIndex full = new DispatchIndex(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        full.addListener(vendorId -> {
+        });
+
+        full.update(preparing(8L, 2L, PLACED));
+
+        assertEquals(1, full.size());
+        assertEquals(1, full.getDroppedNotificationCount());
+    }
+
+    @Test
+    void isIndependentTreatsUnknownVendorsAsIndependent() {
+        assertTrue(index.isIndependent(1L));
+        assertFalse(index.isIndependent(2L));
+        assertTrue(index.isIndependent(3L));
+    }
+
+    private static Order preparing(Long id, Long vendorId, OffsetDateTime orderTime) {
+        return new Order().id(id).vendorId(vendorId).status(Order.StatusEnum.PREPARING)
+            .timeValues(new Time().orderTime(orderTime));
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+}
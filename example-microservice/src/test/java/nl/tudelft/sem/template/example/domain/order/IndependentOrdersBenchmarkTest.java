@@ -0,0 +1,117 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.domain.JpaTestConfig;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.GeneralOrdersStrategy;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Vendor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * Compares the old way of finding independent orders (all preparing orders, then one vendor lookup per order)
+ * with the single query used by the GeneralOrdersStrategy, for a growing amount of orders.
+ * Run with ./gradlew benchmark, the results are printed to standard out.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = JpaTestConfig.class)
+class IndependentOrdersBenchmarkTest {
+
+    private static final int[] ORDER_COUNTS = {100, 1_000, 5_000};
+    private static final int ORDERS_PER_VENDOR = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private VendorRepository vendorRepo;
+
+    @Test
+    void singleQueryScalesWithOrders() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        GeneralOrdersStrategy strategy = new GeneralOrdersStrategy(orderRepo);
+
+        System.out.printf("%8s | %14s | %12s | %14s | %12s%n",
+            "orders", "n+1 queries", "n+1 ms", "join queries", "join ms");
+
+        for (int orderCount : ORDER_COUNTS) {
+            seed(orderCount);
+
+            statistics.clear();
+            long start = System.nanoTime();
+            List<Order> perOrder = perOrderLookup();
+            double perOrderMs = (System.nanoTime() - start) / 1e6;
+            long perOrderQueries = statistics.getPrepareStatementCount();
+            entityManager.clear();
+
+            statistics.clear();
+            start = System.nanoTime();
+            List<Order> joined = strategy.availableOrders(Optional.empty()).orElseThrow();
+            double joinedMs = (System.nanoTime() - start) / 1e6;
+            long joinedQueries = statistics.getPrepareStatementCount();
+            entityManager.clear();
+
+            System.out.printf("%8d | %14d | %12.2f | %14d | %12.2f%n",
+                orderCount, perOrderQueries, perOrderMs, joinedQueries, joinedMs);
+
+            assertEquals(ids(perOrder), ids(joined));
+            assertEquals(1, joinedQueries);
+            assertTrue(perOrderQueries > orderCount / ORDERS_PER_VENDOR);
+        }
+    }
+
+    /**
+     * The access pattern the GeneralOrdersStrategy used before, kept here as the baseline.
+     */
+    private List<Order> perOrderLookup() {
+        return orderRepo.findByStatus(Order.StatusEnum.PREPARING).stream()
+            .filter(order -> !vendorHasCouriers(order.getVendorId()))
+            .filter(order -> order.getCourierId() == null)
+            .collect(Collectors.toList());
+    }
+
+    private boolean vendorHasCouriers(Long vendorId) {
+        return vendorRepo.findById(vendorId).map(Vendor::getHasCouriers).orElse(false);
+    }
+
+    private void seed(int orderCount) {
+        orderRepo.deleteAllInBatch();
+        vendorRepo.deleteAllInBatch();
+
+        int vendorCount = orderCount / ORDERS_PER_VENDOR;
+        for (long v = 1; v <= vendorCount; v++) {
+            entityManager.persist(new Vendor().id(v).hasCouriers(v % 2 == 0));
+        }
+        for (long o = 1; o <= orderCount; o++) {
+            Order order = new Order().id(o).vendorId(o % vendorCount + 1).status(Order.StatusEnum.PREPARING);
+            if (o % 5 == 0) {
+                order.setCourierId(o);
+            }
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static Set<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toSet());
+    }
+}
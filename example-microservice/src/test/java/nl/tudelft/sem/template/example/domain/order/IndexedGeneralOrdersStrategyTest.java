@@ -0,0 +1,57 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.IndexedGeneralOrdersStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.NextOrderStrategy;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndexedGeneralOrdersStrategyTest {
+
+    private DispatchIndex index;
+    private NextOrderStrategy fallback;
+    private IndexedGeneralOrdersStrategy strategy;
+    private Order order1;
+    private Order order2;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new DispatchIndex(Runnable::run);
+        this.fallback = mock(NextOrderStrategy.class);
+        this.strategy = new IndexedGeneralOrdersStrategy(index, fallback);
+        this.order1 = new Order().id(1L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        this.order2 = new Order().id(2L).vendorId(3L).status(Order.StatusEnum.PREPARING);
+    }
+
+    @Test
+    void notLoadedUsesFallback() {
+        when(fallback.availableOrders(Optional.empty())).thenReturn(Optional.of(List.of(order1)));
+
+        assertEquals(Optional.of(List.of(order1)), strategy.availableOrders(Optional.empty()));
+    }
+
+    @Test
+    void loadedUsesIndex() {
+        index.rebuild(List.of(order1, order2), List.of(new Vendor().id(3L).hasCouriers(true)));
+
+        assertEquals(Optional.of(List.of(order1)), strategy.availableOrders(Optional.empty()));
+        verify(fallback, never()).availableOrders(any());
+    }
+
+    @Test
+    void loadedWithVendorId() {
+        index.rebuild(List.of(order1), List.of());
+
+        assertEquals(Optional.empty(), strategy.availableOrders(Optional.of(2L)));
+    }
+}
@@ -0,0 +1,55 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.IndexedOrderPerVendorStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.NextOrderStrategy;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndexedOrderPerVendorStrategyTest {
+
+    private DispatchIndex index;
+    private NextOrderStrategy fallback;
+    private IndexedOrderPerVendorStrategy strategy;
+    private Order order1;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new DispatchIndex(Runnable::run);
+        this.fallback = mock(NextOrderStrategy.class);
+        this.strategy = new IndexedOrderPerVendorStrategy(index, fallback);
+        this.order1 = new Order().id(1L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+    }
+
+    @Test
+    void notLoadedUsesFallback() {
+        when(fallback.availableOrders(Optional.of(2L))).thenReturn(Optional.of(List.of(order1)));
+
+        assertEquals(Optional.of(List.of(order1)), strategy.availableOrders(Optional.of(2L)));
+    }
+
+    @Test
+    void loadedUsesIndex() {
+        index.rebuild(List.of(order1), List.of());
+
+        assertEquals(Optional.of(List.of(order1)), strategy.availableOrders(Optional.of(2L)));
+        assertEquals(Optional.of(List.of()), strategy.availableOrders(Optional.of(3L)));
+        verify(fallback, never()).availableOrders(any());
+    }
+
+    @Test
+    void loadedNoVendorId() {
+        index.rebuild(List.of(order1), List.of());
+
+        assertEquals(Optional.empty(), strategy.availableOrders(Optional.empty()));
+    }
+}
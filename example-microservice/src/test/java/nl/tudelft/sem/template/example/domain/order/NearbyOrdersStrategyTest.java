@@ -0,0 +1,88 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.NearbyOrdersStrategy;
+import nl.tudelft.sem.template.example.domain.order.orderstrategy.NextOrderStrategy;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorSpatialIndex;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NearbyOrdersStrategyTest {
+
+    private DispatchIndex dispatchIndex;
+    private VendorSpatialIndex spatialIndex;
+    private VendorRepository vendorRepo;
+    private NextOrderStrategy fallback;
+    private Location courierLocation;
+    private Vendor near;
+    private Vendor far;
+    private Order nearOrder;
+    private Order farOrder;
+
+    @BeforeEach
+    void setUp() {
+        this.dispatchIndex = new DispatchIndex(Runnable::run);
+        this.spatialIndex = new VendorSpatialIndex();
+        this.vendorRepo = mock(VendorRepository.class);
+        this.fallback = mock(NextOrderStrategy.class);
+        this.courierLocation = new Location().latitude(52.0F).longitude(4.36F);
+        this.near = new Vendor().id(1L).hasCouriers(false).radius(5.0)
+            .location(new Location().latitude(52.01F).longitude(4.36F));
+        this.far = new Vendor().id(2L).hasCouriers(false).radius(5.0)
+            .location(new Location().latitude(52.5F).longitude(4.36F));
+        this.nearOrder = new Order().id(10L).vendorId(1L).status(Order.StatusEnum.PREPARING);
+        this.farOrder = new Order().id(11L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+    }
+
+    @Test
+    void loadedUsesIndexes() {
+        dispatchIndex.rebuild(List.of(nearOrder, farOrder), List.of(near, far));
+        spatialIndex.rebuild(List.of(near, far));
+
+        var res = strategy(courierLocation).availableOrders(Optional.empty());
+        assertEquals(Optional.of(List.of(nearOrder)), res);
+        verify(fallback, never()).availableOrders(any());
+    }
+
+    @Test
+    void vendorWithCouriersIsSkipped() {
+        Vendor ownCouriers = new Vendor().id(1L).hasCouriers(true).radius(5.0).location(near.getLocation());
+        dispatchIndex.rebuild(List.of(nearOrder, farOrder), List.of(ownCouriers, far));
+        spatialIndex.rebuild(List.of(ownCouriers, far));
+
+        assertEquals(Optional.of(List.of()), strategy(courierLocation).availableOrders(Optional.empty()));
+    }
+
+    @Test
+    void notLoadedFiltersFallback() {
+        when(fallback.availableOrders(Optional.empty())).thenReturn(Optional.of(List.of(nearOrder, farOrder)));
+        when(vendorRepo.findAllById(Set.of(1L, 2L))).thenReturn(List.of(near, far));
+
+        var res = strategy(courierLocation).availableOrders(Optional.empty());
+        assertEquals(Optional.of(List.of(nearOrder)), res);
+    }
+
+    @Test
+    void noLocationOrVendorId() {
+        assertEquals(Optional.empty(), strategy(null).availableOrders(Optional.empty()));
+        assertEquals(Optional.empty(), strategy(new Location().latitude(52.0F)).availableOrders(Optional.empty()));
+        assertEquals(Optional.empty(), strategy(courierLocation).availableOrders(Optional.of(1L)));
+    }
+
+    private NearbyOrdersStrategy strategy(Location location) {
+        return new NearbyOrdersStrategy(dispatchIndex, spatialIndex, vendorRepo, fallback, location);
+    }
+}
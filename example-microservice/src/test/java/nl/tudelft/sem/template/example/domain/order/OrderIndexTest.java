@@ -0,0 +1,99 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import nl.tudelft.sem.template.example.domain.JpaTestConfig;
+import nl.tudelft.sem.template.model.DeliveryException;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * Checks that H2 answers the hot repository queries with an index instead of a table scan.
+ * The queries mirror the SQL Hibernate generates for the derived finders.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+class OrderIndexTest {
+
+    private static final int PREPARING = Order.StatusEnum.PREPARING.ordinal();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (long i = 1; i <= 200; i++) {
+            Order order = new Order().id(i).vendorId(i % 10).courierId(i % 3 == 0 ? null : i % 20)
+                .status(Order.StatusEnum.values()[(int) (i % Order.StatusEnum.values().length)]);
+            entityManager.persist(order);
+            if (i % 50 == 0) {
+                entityManager.persist(new DeliveryException().order(order).message("late"));
+            }
+        }
+        entityManager.flush();
+        entityManager.getEntityManager().createNativeQuery("ANALYZE").executeUpdate();
+    }
+
+    @Test
+    void findByStatusUsesIndex() {
+        assertUsesIndex("order_status_courier_idx",
+            "SELECT * FROM \"order_table\" o WHERE o.\"status\" = " + PREPARING);
+    }
+
+    @Test
+    void findUnassignedUsesIndex() {
+        assertUsesIndex("order_status_courier_idx",
+            "SELECT * FROM \"order_table\" o WHERE o.\"status\" = " + PREPARING + " AND o.\"courier_id\" IS NULL");
+    }
+
+    @Test
+    void findByVendorIdAndStatusAndCourierIdUsesIndex() {
+        assertUsesIndex("order_vendor_status_courier_idx",
+            "SELECT * FROM \"order_table\" o WHERE o.\"vendor_id\" = 4 AND o.\"status\" = " + PREPARING
+                + " AND o.\"courier_id\" = 4");
+    }
+
+    @Test
+    void findByCourierIdAndStatusUsesIndex() {
+        assertUsesIndex("order_courier_status_idx",
+            "SELECT * FROM \"order_table\" o WHERE o.\"courier_id\" = 4 AND o.\"status\" = " + PREPARING);
+    }
+
+    @Test
+    void existsByIdAndVendorIdUsesPrimaryKey() {
+        assertUsesIndex("primary_key",
+            "SELECT o.\"id\" FROM \"order_table\" o WHERE o.\"id\" = 4 AND o.\"vendor_id\" = 4 LIMIT 1");
+    }
+
+    @Test
+    void existsByIdAndCourierIdUsesPrimaryKey() {
+        assertUsesIndex("primary_key",
+            "SELECT o.\"id\" FROM \"order_table\" o WHERE o.\"id\" = 4 AND o.\"courier_id\" = 4 LIMIT 1");
+    }
+
+    @Test
+    void findOwnersByIdUsesPrimaryKey() {
+        assertUsesIndex("primary_key",
+            "SELECT o.\"courier_id\", o.\"vendor_id\" FROM \"order_table\" o WHERE o.\"id\" = 4");
+    }
+
+    @Test
+    void findExceptionByOrderUsesIndex() {
+        assertUsesIndex("exception_order_idx",
+            "SELECT * FROM \"exception_table\" e WHERE e.\"order_id\" = 50");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = String.valueOf(entityManager.getEntityManager()
+            .createNativeQuery("EXPLAIN " + sql).getSingleResult());
+
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toLowerCase().contains(index), plan);
+    }
+}
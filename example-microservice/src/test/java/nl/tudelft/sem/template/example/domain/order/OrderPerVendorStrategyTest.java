@@ -40,27 +40,27 @@ class OrderPerVendorStrategyTest {
         this.strategy = new OrderPerVendorStrategy(orderRepo);
     }
 
-    @Test
-    void availableOrdersFiltersNull() {
-        when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(null);
-        assertEquals(Optional.empty(), strategy.availableOrders(Optional.of(2L)));
-    }
-
     @Test
     void availableOrdersGetsFirstOne() {
-        when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of(order1, order2));
+        when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.of(order1));
         assertEquals(Optional.of(List.of(order1)), strategy.availableOrders(Optional.of(2L)));
     }
 
     @Test
     void availableOrdersEmptyList() {
-        when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of());
+        when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.empty());
         assertEquals(Optional.of(List.of()), strategy.availableOrders(Optional.of(2L)));
     }
 
     @Test
     void availableOrdersNoVendorId() {
-        when(orderRepo.findByVendorIdAndStatusAndCourierId(anyLong(), any(), any())).thenReturn(List.of());
+        when(orderRepo
+            .findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(anyLong(), any()))
+            .thenReturn(Optional.empty());
         assertEquals(Optional.empty(), strategy.availableOrders(Optional.empty()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.domain.JpaTestConfig;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Time;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+class OrderRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Vendor().id(1L).hasCouriers(false));
+        entityManager.persist(new Vendor().id(2L).hasCouriers(true));
+
+        entityManager.persist(new Order().id(10L).vendorId(1L).status(Order.StatusEnum.PREPARING));
+        entityManager.persist(new Order().id(11L).vendorId(1L).status(Order.StatusEnum.PREPARING).courierId(5L));
+        entityManager.persist(new Order().id(12L).vendorId(1L).status(Order.StatusEnum.ACCEPTED));
+        entityManager.persist(new Order().id(20L).vendorId(2L).status(Order.StatusEnum.PREPARING));
+        // vendor 3 does not exist, so it does not have couriers either
+        entityManager.persist(new Order().id(30L).vendorId(3L).status(Order.StatusEnum.PREPARING));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findOwnersByIdReadsVendorAndCourier() {
+        OrderOwners owners = orderRepo.findOwnersById(11L).get();
+
+        assertEquals(5L, owners.getCourierId());
+        assertEquals(1L, owners.getVendorId());
+        assertEquals(OrderRelationship.COURIER, OrderRelationship.of(owners, 5L));
+        assertEquals(OrderRelationship.VENDOR, OrderRelationship.of(owners, 1L));
+        assertEquals(OrderRelationship.NONE, OrderRelationship.of(owners, 2L));
+        assertTrue(orderRepo.findOwnersById(99L).isEmpty());
+    }
+
+    @Test
+    void findUnassignedIndependentOrdersFilters() {
+        List<Long> ids = orderRepo.findUnassignedIndependentOrders(Order.StatusEnum.PREPARING).stream()
+            .map(Order::getId)
+            .sorted()
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(10L, 30L), ids);
+    }
+
+    @Test
+    void findUnassignedIndependentOrdersOtherStatus() {
+        List<Order> orders = orderRepo.findUnassignedIndependentOrders(Order.StatusEnum.ACCEPTED);
+
+        assertEquals(1, orders.size());
+        assertEquals(12L, orders.get(0).getId());
+    }
+
+    @Test
+    void findByIdGreaterThanWalksPagesInOrder() {
+        List<Long> first = orderRepo.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 3)).stream()
+            .map(Order::getId)
+            .collect(Collectors.toList());
+        List<Long> second = orderRepo.findByIdGreaterThanOrderByIdAsc(first.get(2), PageRequest.of(0, 3)).stream()
+            .map(Order::getId)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(10L, 11L, 12L), first);
+        assertEquals(List.of(20L, 30L), second);
+    }
+
+    @Test
+    void findOldestUnassignedIndependentOrdersTakesOldestIndependent() {
+        List<Order> orders = orderRepo.findOldestUnassignedIndependentOrders(Order.StatusEnum.PREPARING,
+            PageRequest.of(0, 1));
+
+        assertEquals(1, orders.size());
+        assertEquals(10L, orders.get(0).getId());
+    }
+
+    @Test
+    void findOldestUnassignedVendorOrdersFilters() {
+        List<Long> ids = orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING, PageRequest.of(0, 5))
+            .stream()
+            .map(Order::getId)
+            .collect(Collectors.toList());
+
+        assertEquals(List.of(20L), ids);
+        // order 11 of vendor 1 already has a courier
+        assertEquals(1, orderRepo.findOldestUnassignedVendorOrders(1L, Order.StatusEnum.PREPARING, PageRequest.of(0, 5))
+            .size());
+    }
+
+    @Test
+    void findFirstByVendorOrdersByOrderTimeThenId() {
+        OffsetDateTime placed = OffsetDateTime.parse("2024-01-14T12:30:00Z");
+        entityManager.persist(new Order().id(60L).vendorId(6L).status(Order.StatusEnum.PREPARING)
+            .timeValues(new Time().orderTime(placed.plusMinutes(5))));
+        entityManager.persist(new Order().id(62L).vendorId(6L).status(Order.StatusEnum.PREPARING)
+            .timeValues(new Time().orderTime(placed)));
+        entityManager.persist(new Order().id(61L).vendorId(6L).status(Order.StatusEnum.PREPARING)
+            .timeValues(new Time().orderTime(placed)));
+        entityManager.persist(new Order().id(59L).vendorId(6L).status(Order.StatusEnum.PREPARING).courierId(1L)
+            .timeValues(new Time().orderTime(placed.minusMinutes(5))));
+        entityManager.flush();
+
+        Optional<Order> next = orderRepo.findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(
+            6L, Order.StatusEnum.PREPARING);
+
+        assertEquals(61L, next.get().getId());
+        assertTrue(orderRepo.findFirstByVendorIdAndStatusAndCourierIdIsNullOrderByTimeValuesOrderTimeAscIdAsc(
+            6L, Order.StatusEnum.DELIVERED).isEmpty());
+    }
+
+    @Test
+    void findCourierDeliveriesInWindow() {
+        OffsetDateTime expected = OffsetDateTime.parse("2024-01-14T12:30:00Z");
+        entityManager.persist(delivered(40L, 7L, expected, expected.minusSeconds(60)));
+        entityManager.persist(delivered(41L, 7L, expected, expected.plusSeconds(20)));
+        entityManager.persist(delivered(42L, 8L, expected, expected.plusSeconds(30)));
+        // outside of the window
+        entityManager.persist(delivered(43L, 8L, expected, expected.plusDays(40)));
+        // not delivered
+        entityManager.persist(new Order().id(44L).vendorId(1L).courierId(8L).status(Order.StatusEnum.IN_TRANSIT)
+            .timeValues(new Time().expectedDeliveryTime(expected).actualDeliveryTime(expected)));
+        entityManager.flush();
+
+        Map<Long, List<CourierDelivery>> res = orderRepo.findCourierDeliveries(Order.StatusEnum.DELIVERED,
+                expected.minusDays(1), expected.plusDays(1)).stream()
+            .collect(Collectors.groupingBy(CourierDelivery::getCourierId));
+
+        assertEquals(2, res.size());
+        assertEquals(2, res.get(7L).size());
+        assertEquals(1, res.get(8L).size());
+        assertEquals(expected.toInstant(), res.get(8L).get(0).getExpectedDeliveryTime().toInstant());
+        assertEquals(expected.plusSeconds(30).toInstant(), res.get(8L).get(0).getActualDeliveryTime().toInstant());
+    }
+
+    @Test
+    void updateStatusOnlyOnce() {
+        assertEquals(1, orderRepo.updateStatus(12L, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING));
+        // the second transition sees the new status and does not match anymore
+        assertEquals(0, orderRepo.updateStatus(12L, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING));
+        assertEquals(0, orderRepo.updateStatus(99L, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING));
+
+        entityManager.clear();
+        assertEquals(Order.StatusEnum.PREPARING, orderRepo.findById(12L).get().getStatus());
+    }
+
+    @Test
+    void updateStatusAndDeliveryTimeNeedsTimeValues() {
+        OffsetDateTime expected = OffsetDateTime.parse("2024-01-14T12:30:00Z");
+        entityManager.persist(new Order().id(50L).status(Order.StatusEnum.IN_TRANSIT)
+            .timeValues(new Time().expectedDeliveryTime(expected)));
+        entityManager.persist(new Order().id(51L).status(Order.StatusEnum.IN_TRANSIT));
+        entityManager.flush();
+
+        assertEquals(1, orderRepo.updateStatusAndDeliveryTime(50L, Order.StatusEnum.IN_TRANSIT,
+            Order.StatusEnum.DELIVERED, expected));
+        assertEquals(0, orderRepo.updateStatusAndDeliveryTime(51L, Order.StatusEnum.IN_TRANSIT,
+            Order.StatusEnum.DELIVERED, expected));
+
+        entityManager.clear();
+        Order order = orderRepo.findById(50L).get();
+        assertEquals(Order.StatusEnum.DELIVERED, order.getStatus());
+        assertEquals(expected.toInstant(), order.getTimeValues().getActualDeliveryTime().toInstant());
+    }
+
+    private static Order delivered(Long id, Long courierId, OffsetDateTime expected, OffsetDateTime actual) {
+        return new Order().id(id).vendorId(1L).courierId(courierId).status(Order.StatusEnum.DELIVERED)
+            .timeValues(new Time().expectedDeliveryTime(expected).actualDeliveryTime(actual));
+    }
+}
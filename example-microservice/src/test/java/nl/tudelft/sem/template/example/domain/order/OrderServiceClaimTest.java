@@ -0,0 +1,101 @@
+package nl.tudelft.sem.template.example.domain.order;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.example.domain.JpaTestConfig;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.navigation.HaversineDistanceCalculator;
+import nl.tudelft.sem.template.example.domain.user.CourierLocationStore;
+import nl.tudelft.sem.template.example.domain.user.CourierRepository;
+import nl.tudelft.sem.template.example.domain.user.VendorRepository;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lets couriers claim orders at the same time against the database, every claim in its own transactions
+ * like a request, so the conditional assignment is what keeps two couriers from getting the same order.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = {JpaTestConfig.class, OrderServiceClaimTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceClaimTest {
+
+    private static final int COURIERS = 4;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        OrderService orderService(OrderRepository orderRepo, VendorRepository vendorRepo,
+                                  CourierRepository courierRepo) {
+            return new OrderService(orderRepo, vendorRepo, courierRepo, new DispatchIndex(Runnable::run),
+                new HaversineDistanceCalculator(), Mockito.mock(EtaEngine.class),
+                CourierLocationStore.writeThrough(courierRepo));
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @AfterEach
+    void tearDown() {
+        orderRepo.deleteAll();
+    }
+
+    @Test
+    void couriersClaimingAtOnceGetDifferentOrders() throws Exception {
+        for (long id = 60; id < 60 + COURIERS; id++) {
+            orderRepo.saveAndFlush(new Order().id(id).vendorId(7L).status(Order.StatusEnum.PREPARING));
+        }
+
+        CyclicBarrier start = new CyclicBarrier(COURIERS);
+        ExecutorService couriers = Executors.newFixedThreadPool(COURIERS);
+        try {
+            List<Future<Optional<Order>>> claims = new ArrayList<>();
+            for (long courierId = 1; courierId <= COURIERS; courierId++) {
+                long id = courierId;
+                claims.add(couriers.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return orderService.claimNextOrder(id, 7L);
+                }));
+            }
+
+            Set<Long> claimed = new HashSet<>();
+            for (Future<Optional<Order>> claim : claims) {
+                claimed.add(claim.get(10, TimeUnit.SECONDS).orElseThrow().getId());
+            }
+            assertEquals(COURIERS, claimed.size());
+        } finally {
+            couriers.shutdownNow();
+        }
+
+        Set<Long> assignedCouriers = new HashSet<>();
+        for (Order order : orderRepo.findAll()) {
+            assignedCouriers.add(order.getCourierId());
+        }
+        assertEquals(Set.of(1L, 2L, 3L, 4L), assignedCouriers);
+        assertTrue(orderService.claimNextOrder(5L, 7L).isEmpty());
+    }
+}
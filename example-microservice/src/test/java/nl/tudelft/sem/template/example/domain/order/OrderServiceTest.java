@@ -2,20 +2,37 @@ package nl.tudelft.sem.template.example.domain.order;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.navigation.HaversineDistanceCalculator;
+import nl.tudelft.sem.template.example.domain.navigation.LocationHistory;
+import nl.tudelft.sem.template.example.domain.user.CourierLocationStore;
 import nl.tudelft.sem.template.example.domain.user.CourierRepository;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
-import nl.tudelft.sem.template.example.externalservices.NavigationMock;
 import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.CourierLocationResult;
+import nl.tudelft.sem.template.model.CourierLocationUpdate;
 import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Time;
@@ -23,6 +40,9 @@ import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 class OrderServiceTest {
     private OrderRepository orderRepo;
@@ -56,9 +76,9 @@ class OrderServiceTest {
         this.vendor1 = new Vendor().id(2L).location(new Location().latitude(22F).longitude(33F));
         this.eta = OffsetDateTime.of(2000, 1, 1,
             1, 30, 0, 0, ZoneOffset.ofTotalSeconds(0));
-        this.os = new OrderService(orderRepo, vendorRepo, courierRepo);
         this.courier1 = new Courier().id(21L).currentLocation(new Location().latitude(11F).longitude(16F));
-        this.os = new OrderService(orderRepo, vendorRepo, courierRepo);
+        this.os = new OrderService(orderRepo, vendorRepo, courierRepo, new DispatchIndex(Runnable::run),
+            new HaversineDistanceCalculator(), newEtaEngine(), CourierLocationStore.writeThrough(courierRepo));
     }
 
     @Test
@@ -232,6 +252,145 @@ class OrderServiceTest {
         assertEquals(res, Optional.empty());
     }
 
+    @Test
+    void getOrdersAfterFirstPage() {
+        List<Order> o = List.of(order1);
+        Mockito.when(orderRepo.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 10))).thenReturn(o);
+        assertEquals(o, os.getOrdersAfter(null, 10));
+    }
+
+    @Test
+    void getOrdersAfterCursorAndCappedSize() {
+        List<Order> o = List.of(order2);
+        Mockito.when(orderRepo.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, OrderService.MAX_PAGE_SIZE)))
+            .thenReturn(o);
+        assertEquals(o, os.getOrdersAfter(1L, 5000));
+    }
+
+    @Test
+    void claimNextIndependentOrder() {
+        Order free = new Order().id(5L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedIndependentOrders(Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(free));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(1);
+
+        Optional<Order> res = os.claimNextOrder(3L, null);
+        assertEquals(Optional.of(free), res);
+        assertEquals(3L, free.getCourierId());
+    }
+
+    @Test
+    void claimNextVendorOrder() {
+        Order free = new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(free));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(1);
+
+        Optional<Order> res = os.claimNextOrder(3L, 2L);
+        assertEquals(Optional.of(free), res);
+        assertEquals(3L, free.getCourierId());
+    }
+
+    @Test
+    void claimNextOrderMovesOnWhenAnotherCourierWasFirst() {
+        Order taken = new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Order free = new Order().id(6L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(taken, free));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(0);
+        Mockito.when(orderRepo.assignCourier(6L, Order.StatusEnum.PREPARING, 3L)).thenReturn(1);
+
+        Optional<Order> res = os.claimNextOrder(3L, 2L);
+        assertEquals(Optional.of(free), res);
+        assertNull(taken.getCourierId());
+    }
+
+    @Test
+    void claimNextOrderAllTaken() {
+        Order taken = new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(taken));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(0);
+
+        assertTrue(os.claimNextOrder(3L, 2L).isEmpty());
+    }
+
+    @Test
+    void claimNextOrderReadsAgainWhenAllCandidatesWereTaken() {
+        Order taken = new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Order free = new Order().id(9L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(taken), List.of(free));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(0);
+        Mockito.when(orderRepo.assignCourier(9L, Order.StatusEnum.PREPARING, 3L)).thenReturn(1);
+
+        assertEquals(Optional.of(free), os.claimNextOrder(3L, 2L));
+    }
+
+    @Test
+    void claimNextOrderLeavesTheIndexAloneUntilCommit() {
+        DispatchIndex index = Mockito.spy(new DispatchIndex(Runnable::run));
+        OrderService service = new OrderService(orderRepo, vendorRepo, courierRepo, index,
+            new HaversineDistanceCalculator(), newEtaEngine(), CourierLocationStore.writeThrough(courierRepo));
+        Order free = new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING);
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of(free));
+        Mockito.when(orderRepo.assignCourier(5L, Order.StatusEnum.PREPARING, 3L)).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(Optional.of(free), service.claimNextOrder(3L, 2L));
+            Mockito.verify(index, Mockito.never()).remove(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Mockito.verify(index).remove(5L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void claimNextOrderTwoCouriersGetDifferentOrders() throws Exception {
+        // both couriers read the same candidates
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenAnswer(invocation -> List.of(
+                new Order().id(5L).vendorId(2L).status(Order.StatusEnum.PREPARING),
+                new Order().id(6L).vendorId(2L).status(Order.StatusEnum.PREPARING)));
+        Map<Long, Long> assigned = new ConcurrentHashMap<>();
+        Mockito.when(orderRepo.assignCourier(anyLong(), any(), anyLong())).thenAnswer(invocation ->
+            assigned.putIfAbsent(invocation.getArgument(0), invocation.getArgument(2)) == null ? 1 : 0);
+
+        CyclicBarrier start = new CyclicBarrier(2);
+        ExecutorService couriers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<Order>> first = couriers.submit(() -> {
+                start.await(5, TimeUnit.SECONDS);
+                return os.claimNextOrder(3L, 2L);
+            });
+            Future<Optional<Order>> second = couriers.submit(() -> {
+                start.await(5, TimeUnit.SECONDS);
+                return os.claimNextOrder(4L, 2L);
+            });
+
+            Order firstClaim = first.get(5, TimeUnit.SECONDS).orElseThrow();
+            Order secondClaim = second.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertNotEquals(firstClaim.getId(), secondClaim.getId());
+            assertEquals(3L, assigned.get(firstClaim.getId()));
+            assertEquals(4L, assigned.get(secondClaim.getId()));
+        } finally {
+            couriers.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimNextOrderNoneAvailable() {
+        Mockito.when(orderRepo.findOldestUnassignedVendorOrders(2L, Order.StatusEnum.PREPARING,
+            PageRequest.of(0, OrderService.CLAIM_CANDIDATES))).thenReturn(List.of());
+
+        assertTrue(os.claimNextOrder(3L, 2L).isEmpty());
+        Mockito.verify(orderRepo, Mockito.never()).assignCourier(any(), any(), any());
+    }
+
     @Test
     void makeOrder200() {
         Mockito.when(orderRepo.saveAndFlush(order1)).thenReturn(order1);
@@ -376,9 +535,34 @@ class OrderServiceTest {
         Mockito.when(orderRepo.saveAndFlush(any())).thenReturn(order2);
         Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(order2));
 
+        // without a status or locations there is nothing to estimate from
         Optional<OffsetDateTime> res = os.getEta(1L);
+        assertTrue(res.isEmpty());
+        Mockito.verify(orderRepo, Mockito.never()).saveAndFlush(any());
+    }
+
+    @Test
+    void getEtaEstimatedAndPersistedOnce() {
+        EtaEngine etaEngine = newEtaEngine();
+        etaEngine.vendorMoved(vendor1);
+        OrderService withEngine = new OrderService(orderRepo, vendorRepo, courierRepo, new DispatchIndex(Runnable::run),
+            new HaversineDistanceCalculator(), etaEngine, CourierLocationStore.writeThrough(courierRepo));
+        Order order2 = new Order().id(1L).vendorId(2L).status(Order.StatusEnum.PREPARING)
+            .deliveryDestination(new Location().latitude(22.01F).longitude(33F))
+            .timeValues(new Time().prepTime("00:10:00"));
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(order2));
+        Mockito.when(orderRepo.saveAndFlush(any())).thenReturn(order2);
+
+        OffsetDateTime before = OffsetDateTime.now();
+        Optional<OffsetDateTime> res = withEngine.getEta(1L);
         assertFalse(res.isEmpty());
-        assertEquals(res.get(), new NavigationMock().getEta(1L, new Time()));
+        // ten minutes of preparation and about 1.1 km at the default speed
+        assertTrue(res.get().isAfter(before.plusMinutes(14)));
+        assertTrue(res.get().isBefore(OffsetDateTime.now().plusMinutes(15)));
+        assertEquals(res.get(), order2.getTimeValues().getExpectedDeliveryTime());
+
+        withEngine.getEta(1L);
+        Mockito.verify(orderRepo, Mockito.times(1)).saveAndFlush(any());
     }
 
     @Test
@@ -391,15 +575,26 @@ class OrderServiceTest {
 
     @Test
     void getDistanceValid() {
-        Courier courier1 = new Courier().currentLocation(new Location());
+        Courier courier1 = new Courier().currentLocation(new Location().latitude(52.0F).longitude(4.36F));
+        order2.setDeliveryDestination(new Location().latitude(52.01F).longitude(4.36F));
 
         Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(order2));
         Mockito.when(courierRepo.findById(2L)).thenReturn(Optional.of(courier1));
 
         Optional<Float> res = os.getDistance(1L);
-        Float expected = new NavigationMock().getDistance(new Location(), new Location());
         assertFalse(res.isEmpty());
-        assertEquals(res, Optional.of(expected));
+        // 0.01 degree of latitude
+        assertEquals(1112F, res.get(), 1F);
+    }
+
+    @Test
+    void getDistanceIncompleteLocation() {
+        Courier courier1 = new Courier().currentLocation(new Location());
+
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(order2));
+        Mockito.when(courierRepo.findById(2L)).thenReturn(Optional.of(courier1));
+
+        assertTrue(os.getDistance(1L).isEmpty());
     }
 
     @Test
@@ -528,7 +723,7 @@ class OrderServiceTest {
     @Test
     void updateLocationNoCourier() {
         Location newLocation = new Location().latitude(32F).longitude(23F);
-        Mockito.when(courierRepo.findById(anyLong())).thenReturn(Optional.empty());
+        Mockito.when(courierRepo.updateLocation(anyLong(), any(), any())).thenReturn(0);
 
         Optional<Location> res = os.updateLocation(order1, newLocation);
         assertTrue(res.isEmpty());
@@ -538,10 +733,8 @@ class OrderServiceTest {
     void updateLocationGivenToCourier() {
         order1.setStatus(Order.StatusEnum.GIVEN_TO_COURIER);
         Location newLocation = new Location().latitude(32F).longitude(23F);
-        Courier c2 = new Courier().currentLocation(newLocation);
 
-        Mockito.when(courierRepo.findById(anyLong())).thenReturn(Optional.of(courier1));
-        Mockito.when(courierRepo.saveAndFlush(courier1)).thenReturn(c2);
+        Mockito.when(courierRepo.updateLocation(anyLong(), any(), any())).thenReturn(1);
 
         Optional<Location> res = os.updateLocation(order1, newLocation);
         assertTrue(res.isPresent());
@@ -552,10 +745,8 @@ class OrderServiceTest {
     void updateLocationInTransit() {
         order1.setStatus(Order.StatusEnum.IN_TRANSIT);
         Location newLocation = new Location().latitude(32F).longitude(23F);
-        Courier c2 = new Courier().currentLocation(newLocation);
 
-        Mockito.when(courierRepo.findById(anyLong())).thenReturn(Optional.of(courier1));
-        Mockito.when(courierRepo.saveAndFlush(courier1)).thenReturn(c2);
+        Mockito.when(courierRepo.updateLocation(anyLong(), any(), any())).thenReturn(1);
 
         Optional<Location> res = os.updateLocation(order1, newLocation);
         assertTrue(res.isPresent());
@@ -573,4 +764,51 @@ class OrderServiceTest {
         assertTrue(res.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void updateLocationsResultPerUpdate() {
+        order1.setStatus(Order.StatusEnum.IN_TRANSIT);
+        Order pending = new Order().id(5L).courierId(21L).status(Order.StatusEnum.PENDING);
+        Mockito.when(orderRepo.findAllById(any())).thenReturn(List.of(order1, pending));
+        Mockito.when(courierRepo.updateLocation(eq(21L), any(), any())).thenReturn(1);
+        OffsetDateTime now = OffsetDateTime.of(2024, 1, 9, 11, 45, 0, 0, ZoneOffset.UTC);
+        Location latest = new Location().latitude(52.01F).longitude(4.36F);
+
+        List<CourierLocationResult> res = os.updateLocations(List.of(
+            update(21L, 1L, latest, now),
+            update(21L, 1L, new Location().latitude(52.0F).longitude(4.36F), now.minusSeconds(5)),
+            update(22L, 1L, latest, now),
+            update(21L, 5L, latest, now),
+            update(21L, 6L, latest, now),
+            update(21L, 1L, new Location(), now)));
+
+        assertEquals(List.of(200, 200, 403, 400, 404, 400),
+            res.stream().map(CourierLocationResult::getStatus).collect(Collectors.toList()));
+        assertEquals("Superseded by a later location", res.get(1).getMessage());
+        Mockito.verify(orderRepo).findAllById(Set.of(1L, 5L, 6L));
+        Mockito.verify(courierRepo).updateLocation(21L, 52.01F, 4.36F);
+        Mockito.verify(courierRepo, Mockito.never()).saveAll(any());
+        Mockito.verify(courierRepo, Mockito.never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateLocationsUnknownCourier() {
+        Order order = new Order().id(7L).courierId(30L).status(Order.StatusEnum.GIVEN_TO_COURIER);
+        Mockito.when(orderRepo.findAllById(any())).thenReturn(List.of(order));
+
+        List<CourierLocationResult> res = os.updateLocations(List.of(
+            update(30L, 7L, new Location().latitude(52.0F).longitude(4.36F), null)));
+
+        assertEquals(404, res.get(0).getStatus());
+        assertEquals(30L, res.get(0).getCourierId());
+    }
+
+    private static CourierLocationUpdate update(Long courierId, Long orderId, Location location, OffsetDateTime at) {
+        return new CourierLocationUpdate().courierId(courierId).orderId(orderId).location(location).timestamp(at);
+    }
+
+    private static EtaEngine newEtaEngine() {
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        return new EtaEngine(distanceCalculator,
+            new LocationHistory(distanceCalculator, LocationHistory.DEFAULT_CAPACITY));
+    }
+}
@@ -1,18 +1,23 @@
 package nl.tudelft.sem.template.example.domain.status;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Optional;
 import nl.tudelft.sem.template.example.domain.exception.DeliveryExceptionRepository;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.order.StatusService;
+import nl.tudelft.sem.template.example.domain.order.StatusTransition;
 import nl.tudelft.sem.template.model.DeliveryException;
 import nl.tudelft.sem.template.model.Order;
 import nl.tudelft.sem.template.model.Time;
@@ -28,97 +33,87 @@ public class StatusServiceTest {
 
     public OrderRepository orderRepo;
     public Order order1;
-    public Order order2;
-    public Order order3;
     public DeliveryException delException1;
-    public Order order4;
-    public Order order5;
-    public Order order6;
 
 
     public StatusService ss;
     private DeliveryExceptionRepository exceptionRepo;
+    private EtaEngine etaEngine;
 
     @BeforeEach
     void setUp() {
         this.orderRepo = mock(OrderRepository.class);
         this.exceptionRepo = mock(DeliveryExceptionRepository.class);
         this.order1 = new Order().id(1L).status(Order.StatusEnum.PENDING);
-        this.order2 = new Order().id(1L).status(Order.StatusEnum.GIVEN_TO_COURIER);
-        this.order3 = new Order().id(1L).status(Order.StatusEnum.PREPARING);
-        this.order4 = new Order().id(1L).status(Order.StatusEnum.IN_TRANSIT).timeValues(new Time().prepTime("00:22::00"));
-        this.order5 = new Order().id(1L).status(Order.StatusEnum.ACCEPTED);
-        this.order6 = new Order().id(1L).status(Order.StatusEnum.ACCEPTED).timeValues(new Time());
         this.delException1 =
             new DeliveryException().exceptionType(DeliveryException.ExceptionTypeEnum.OTHER).message("Test exception")
                 .isResolved(false).id(1L);
-        this.ss = new StatusService(orderRepo, exceptionRepo);
+        this.etaEngine = mock(EtaEngine.class);
+        this.ss = new StatusService(orderRepo, exceptionRepo, new DispatchIndex(Runnable::run), etaEngine);
     }
 
     @Test
     void updateStatusToAccepted200() {
-        Order order11 = new Order().id(1L).status(Order.StatusEnum.ACCEPTED);
+        Mockito.when(orderRepo.updateStatus(1L, Order.StatusEnum.PENDING, Order.StatusEnum.ACCEPTED)).thenReturn(1);
 
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order1));
-        Mockito.lenient().when(orderRepo.saveAndFlush(order1)).thenReturn(order11);
-
-        assertEquals(order1.getStatus(), Order.StatusEnum.PENDING);
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToAccepted(1L));
+        verify(orderRepo, never()).findById(anyLong());
+        verify(orderRepo, never()).saveAndFlush(any());
+    }
 
-        Optional<Order> res = ss.updateStatusToAccepted(order1.getId());
-        assertTrue(res.isPresent());
-        assertEquals(res.get().getStatus(), Order.StatusEnum.ACCEPTED);
+    @Test
+    void updateStatusToAccepted404() {
+        Mockito.when(orderRepo.existsById(1L)).thenReturn(false);
 
-        assertEquals(order1.getStatus(), Order.StatusEnum.ACCEPTED);
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToAccepted(1L));
     }
 
     @Test
-    void updateStatusToAccepted404() {
-        Mockito.when(orderRepo.getOne(anyLong())).thenThrow(new javax.persistence.EntityNotFoundException());
+    void updateStatusToAccepted400() {
+        Mockito.when(orderRepo.existsById(1L)).thenReturn(true);
 
-        Optional<Order> ret = ss.updateStatusToAccepted(order1.getId());
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.INVALID, ss.updateStatusToAccepted(1L));
     }
 
     @Test
     void updateStatusToRejected200() {
-        Order order11 = new Order().id(1L).status(Order.StatusEnum.REJECTED);
+        Mockito.when(orderRepo.updateStatus(1L, Order.StatusEnum.PENDING, Order.StatusEnum.REJECTED)).thenReturn(1);
+        Mockito.when(orderRepo.getOne(1L)).thenReturn(order1);
 
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order1));
-        Mockito.lenient().when(orderRepo.saveAndFlush(order1)).thenReturn(order11);
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToRejected(1L));
 
-        assertEquals(order1.getStatus(), Order.StatusEnum.PENDING);
+        ArgumentCaptor<DeliveryException> argumentCaptor = ArgumentCaptor.forClass(DeliveryException.class);
+        verify(exceptionRepo).saveAndFlush(argumentCaptor.capture());
+        DeliveryException e = argumentCaptor.getValue();
+        assertEquals(order1, e.getOrder());
+        assertEquals(DeliveryException.ExceptionTypeEnum.REJECTED, e.getExceptionType());
+        assertEquals(false, e.getIsResolved());
+    }
 
-        Optional<Order> res = ss.updateStatusToRejected(order1.getId());
-        assertTrue(res.isPresent());
-        assertEquals(res.get().getStatus(), Order.StatusEnum.REJECTED);
+    @Test
+    void updateStatusToRejected404() {
+        Mockito.when(orderRepo.existsById(1L)).thenReturn(false);
 
-        assertEquals(order1.getStatus(), Order.StatusEnum.REJECTED);
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToRejected(1L));
+        verify(exceptionRepo, never()).saveAndFlush(any());
     }
 
     @Test
-    void updateStatusToRejected404() {
-        Mockito.when(orderRepo.getOne(anyLong())).thenThrow(new javax.persistence.EntityNotFoundException());
+    void updateStatusToRejected400() {
+        Mockito.when(orderRepo.existsById(1L)).thenReturn(true);
 
-        Optional<Order> ret = ss.updateStatusToRejected(order1.getId());
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.INVALID, ss.updateStatusToRejected(1L));
+        verify(exceptionRepo, never()).saveAndFlush(any());
     }
 
     @Test
     void updateStatusToGivenToCourier200() {
-        Order order33 = new Order().id(1L).status(Order.StatusEnum.GIVEN_TO_COURIER).courierId(3L);
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
+        Mockito.when(orderRepo.updateStatusAndCourier(1L, Order.StatusEnum.PREPARING,
+            Order.StatusEnum.GIVEN_TO_COURIER, 3L)).thenReturn(1);
 
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order3));
-        Mockito.lenient().when(orderRepo.saveAndFlush(order3)).thenReturn(order33);
-
-        Optional<Order> ret = ss.updateStatusToGivenToCourier(order3.getId(), req);
-        assertTrue(ret.isPresent());
-        assertEquals(ret.get().getStatus(), Order.StatusEnum.GIVEN_TO_COURIER);
-        assertEquals(ret.get().getCourierId(), 3L);
-
-        assertEquals(order3.getStatus(), Order.StatusEnum.GIVEN_TO_COURIER);
-        assertEquals(order3.getCourierId(), 3L);
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToGivenToCourier(1L, req));
     }
 
     @Test
@@ -126,34 +121,20 @@ public class StatusServiceTest {
         UpdateToGivenToCourierRequest req = new UpdateToGivenToCourierRequest();
         req.courierId(3L);
 
-        Mockito.when(orderRepo.getOne(anyLong())).thenThrow(new javax.persistence.EntityNotFoundException());
-
-        Optional<Order> ret = ss.updateStatusToGivenToCourier(order3.getId(), req);
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToGivenToCourier(1L, req));
     }
 
     @Test
     void updateStatusToInTransit200() {
-        Order order22 = new Order().id(1L).status(Order.StatusEnum.IN_TRANSIT);
-
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order2));
-        Mockito.lenient().when(orderRepo.saveAndFlush(order2)).thenReturn(order22);
+        Mockito.when(orderRepo.updateStatus(1L, Order.StatusEnum.GIVEN_TO_COURIER, Order.StatusEnum.IN_TRANSIT))
+            .thenReturn(1);
 
-        assertEquals(order2.getStatus(), Order.StatusEnum.GIVEN_TO_COURIER);
-
-        Optional<Order> ret = ss.updateStatusToInTransit(order2.getId());
-        assertTrue(ret.isPresent());
-        assertEquals(ret.get().getStatus(), Order.StatusEnum.IN_TRANSIT);
-
-        assertEquals(order2.getStatus(), Order.StatusEnum.IN_TRANSIT);
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToInTransit(1L));
     }
 
     @Test
     void updateStatusToInTransit404() {
-        Mockito.when(orderRepo.getOne(anyLong())).thenThrow(new javax.persistence.EntityNotFoundException());
-
-        Optional<Order> ret = ss.updateStatusToInTransit(order2.getId());
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToInTransit(1L));
     }
 
     @Test
@@ -193,121 +174,101 @@ public class StatusServiceTest {
     void updateStatusToDelivered200() {
         OffsetDateTime deliveryTime = OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC);
         UpdateToDeliveredRequest req = new UpdateToDeliveredRequest().actualDeliveryTime(deliveryTime);
-        Order order44 = new Order().id(order4.getId()).status(Order.StatusEnum.DELIVERED)
-            .timeValues(new Time().actualDeliveryTime(deliveryTime).prepTime(order4.getTimeValues().getPrepTime()));
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order4));
-        Mockito.when(orderRepo.saveAndFlush(order4)).thenReturn(order44);
-
-        Optional<Order> ret = ss.updateStatusToDelivered(order4.getId(), req);
-
-        assertTrue(ret.isPresent());
-        assertEquals(Order.StatusEnum.DELIVERED, ret.get().getStatus());
-        assertNotNull(ret.get().getTimeValues().getActualDeliveryTime());
-        assertEquals(deliveryTime, ret.get().getTimeValues().getActualDeliveryTime());
-        assertEquals(order4.getTimeValues(), ret.get().getTimeValues());
-
-        ArgumentCaptor<Order> argumentCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepo).saveAndFlush(argumentCaptor.capture());
-        Order res = argumentCaptor.getValue();
-
-        assertEquals(res.getStatus(), Order.StatusEnum.DELIVERED);
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(new Order().id(1L).courierId(3L)
+            .status(Order.StatusEnum.IN_TRANSIT).timeValues(new Time().prepTime("00:22:00"))));
+        Mockito.when(orderRepo.updateStatusAndDeliveryTime(1L, Order.StatusEnum.IN_TRANSIT,
+            Order.StatusEnum.DELIVERED, deliveryTime)).thenReturn(1);
+
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToDelivered(1L, req));
+        // the engine gets the order with the new values, it is not read again after the update
+        ArgumentCaptor<Order> delivered = ArgumentCaptor.forClass(Order.class);
+        verify(etaEngine).deliveryCompleted(delivered.capture());
+        assertEquals(Order.StatusEnum.DELIVERED, delivered.getValue().getStatus());
+        assertEquals(deliveryTime, delivered.getValue().getTimeValues().getActualDeliveryTime());
+        verify(orderRepo, times(1)).findById(1L);
+        verify(orderRepo, never()).existsById(any());
     }
 
     @Test
-    void updateStatusToDeliveredNullTimeValues() {
-        order4.setTimeValues(null);
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order4));
-        Mockito.when(orderRepo.saveAndFlush(order4)).thenReturn(order4);
-
+    void updateStatusToDeliveredNotUpdated() {
         OffsetDateTime deliveryTime = OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC);
-        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest().actualDeliveryTime(deliveryTime);
-        Optional<Order> ret = ss.updateStatusToDelivered(order4.getId(), req);
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(new Order().id(1L)
+            .status(Order.StatusEnum.DELIVERED)));
 
-        assertTrue(ret.isEmpty());
+        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest().actualDeliveryTime(deliveryTime);
+        assertEquals(StatusTransition.INVALID, ss.updateStatusToDelivered(1L, req));
     }
 
     @Test
     void updateStatusToDeliveredNullDeliveryTime() {
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order4));
-        Mockito.when(orderRepo.saveAndFlush(order4)).thenReturn(order4);
+        Mockito.when(orderRepo.existsById(1L)).thenReturn(true);
 
         UpdateToDeliveredRequest req = new UpdateToDeliveredRequest();
-        Optional<Order> ret = ss.updateStatusToDelivered(order4.getId(), req);
-
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.INVALID, ss.updateStatusToDelivered(1L, req));
+        verify(orderRepo, never()).updateStatusAndDeliveryTime(any(), any(), any(), any());
     }
 
     @Test
-    void updateStatusToDeliveredDeliveryTimeAlreadySet() {
-        OffsetDateTime deliveryTime = OffsetDateTime.of(2023, 12, 17, 12, 30, 0, 0, ZoneOffset.UTC);
-        order4.setTimeValues(new Time().actualDeliveryTime(deliveryTime));
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order4));
-        Mockito.when(orderRepo.saveAndFlush(order4)).thenReturn(order4);
-
-        UpdateToDeliveredRequest req = new UpdateToDeliveredRequest().actualDeliveryTime(deliveryTime);
-        Optional<Order> ret = ss.updateStatusToDelivered(order4.getId(), req);
-
-        assertTrue(ret.isEmpty());
-    }
-
-    @Test
-    void updateStatusToPreparing200timeValuesNull() {
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order5));
+    void updateStatusToPreparing200() {
         UpdateToPreparingRequest updateToPreparingRequest = new UpdateToPreparingRequest().prepTime("00:22::00");
         OffsetDateTime currentDateTime = OffsetDateTime.now();
         updateToPreparingRequest.setExpectedDeliveryTime(currentDateTime);
-        Time timeValues = new Time().expectedDeliveryTime(updateToPreparingRequest.getExpectedDeliveryTime())
-            .prepTime(updateToPreparingRequest.getPrepTime());
-        Order order55 = new Order().id(order5.getId()).status(Order.StatusEnum.PREPARING).timeValues(timeValues);
-        Mockito.when(orderRepo.saveAndFlush(order5)).thenReturn(order55);
-
-        Optional<Order> ret = ss.updateStatusToPreparing(order5.getId(), updateToPreparingRequest);
-        assertTrue(ret.isPresent());
-        assertEquals(ret.get().getStatus(), Order.StatusEnum.PREPARING);
-        assertEquals(ret.get().getTimeValues(), timeValues);
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(new Order().id(1L).vendorId(2L)
+            .status(Order.StatusEnum.ACCEPTED)));
+        Mockito.when(orderRepo.updateStatusAndPrepTimes(1L, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING,
+            "00:22::00", currentDateTime)).thenReturn(1);
+
+        assertEquals(StatusTransition.UPDATED, ss.updateStatusToPreparing(1L, updateToPreparingRequest));
+        verify(orderRepo, times(1)).findById(1L);
+        verify(orderRepo, never()).existsById(any());
+    }
 
-        assertEquals(order5.getStatus(), Order.StatusEnum.PREPARING);
-        assertEquals(order5.getTimeValues(), timeValues);
+    @Test
+    void updateStatusToPreparingWrongStatus() {
+        UpdateToPreparingRequest req = new UpdateToPreparingRequest().prepTime("00:22:00");
+        Mockito.when(orderRepo.findById(1L)).thenReturn(Optional.of(new Order().id(1L)
+            .status(Order.StatusEnum.PENDING)));
 
+        assertEquals(StatusTransition.INVALID, ss.updateStatusToPreparing(1L, req));
     }
 
     @Test
-    void updateStatusToPreparing200timeValuesNotNull() {
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.of(order6));
-        UpdateToPreparingRequest updateToPreparingRequest = new UpdateToPreparingRequest().prepTime("00:22::00");
-        OffsetDateTime currentDateTime = OffsetDateTime.now();
-        updateToPreparingRequest.setExpectedDeliveryTime(currentDateTime);
-        Time timeValues = new Time().expectedDeliveryTime(updateToPreparingRequest.getExpectedDeliveryTime())
-            .prepTime(updateToPreparingRequest.getPrepTime());
-        Order order55 = new Order().id(order6.getId()).status(Order.StatusEnum.PREPARING).timeValues(timeValues);
-        Mockito.when(orderRepo.saveAndFlush(order6)).thenReturn(order55);
-
-        Optional<Order> ret = ss.updateStatusToPreparing(order6.getId(), updateToPreparingRequest);
-        assertTrue(ret.isPresent());
-        assertEquals(ret.get().getStatus(), Order.StatusEnum.PREPARING);
-        assertEquals(ret.get().getTimeValues(), timeValues);
+    void updateStatusToPreparingAddsToDispatchIndex() {
+        DispatchIndex index = new DispatchIndex(Runnable::run);
+        StatusService indexed = new StatusService(orderRepo, exceptionRepo, index, mock(EtaEngine.class));
+        UpdateToPreparingRequest req = new UpdateToPreparingRequest().prepTime("00:22:00");
+        Mockito.when(orderRepo.updateStatusAndPrepTimes(1L, Order.StatusEnum.ACCEPTED, Order.StatusEnum.PREPARING,
+            "00:22:00", null)).thenReturn(1);
+        Mockito.when(orderRepo.findById(1L))
+            .thenReturn(Optional.of(new Order().id(1L).vendorId(2L).status(Order.StatusEnum.ACCEPTED)));
+
+        assertEquals(StatusTransition.UPDATED, indexed.updateStatusToPreparing(1L, req));
+        Order indexedOrder = index.nextForVendor(2L).get();
+        assertEquals(1L, indexedOrder.getId());
+        assertEquals(Order.StatusEnum.PREPARING, indexedOrder.getStatus());
+        assertEquals("00:22:00", indexedOrder.getTimeValues().getPrepTime());
+
+        UpdateToGivenToCourierRequest given = new UpdateToGivenToCourierRequest().courierId(3L);
+        Mockito.when(orderRepo.updateStatusAndCourier(1L, Order.StatusEnum.PREPARING,
+            Order.StatusEnum.GIVEN_TO_COURIER, 3L)).thenReturn(1);
+
+        assertEquals(StatusTransition.UPDATED, indexed.updateStatusToGivenToCourier(1L, given));
+        assertEquals(0, index.size());
     }
 
     @Test
     void updateStatusToPreparing404() {
-        Mockito.when(orderRepo.findById(anyLong())).thenReturn(Optional.empty());
         UpdateToPreparingRequest updateToPreparingRequest = new UpdateToPreparingRequest().prepTime("00:22::00");
-        OffsetDateTime currentDateTime = OffsetDateTime.now();
-        updateToPreparingRequest.setExpectedDeliveryTime(currentDateTime);
-        Time timeValues = new Time().expectedDeliveryTime(updateToPreparingRequest.getExpectedDeliveryTime())
-            .prepTime(updateToPreparingRequest.getPrepTime());
-
+        updateToPreparingRequest.setExpectedDeliveryTime(OffsetDateTime.now());
 
-        Optional<Order> ret = ss.updateStatusToPreparing(order5.getId(), updateToPreparingRequest);
-        assertTrue(ret.isEmpty());
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToPreparing(1L, updateToPreparingRequest));
     }
 
     @Test
     void updateStatusToDeliveredEmpty() {
-        Mockito.when(orderRepo.findById(0L)).thenReturn(Optional.empty());
+        Mockito.when(orderRepo.existsById(0L)).thenReturn(false);
 
-        var res = ss.updateStatusToDelivered(0L, null);
-        assertTrue(res.isEmpty());
+        assertEquals(StatusTransition.NOT_FOUND, ss.updateStatusToDelivered(0L, null));
     }
 
 }
@@ -0,0 +1,81 @@
+package nl.tudelft.sem.template.example.domain.status;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import nl.tudelft.sem.template.example.domain.JpaTestConfig;
+import nl.tudelft.sem.template.example.domain.exception.DeliveryExceptionRepository;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.example.domain.order.OrderRepository;
+import nl.tudelft.sem.template.example.domain.order.StatusService;
+import nl.tudelft.sem.template.example.domain.order.StatusTransition;
+import nl.tudelft.sem.template.model.DeliveryException;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs the status transitions against the database without a surrounding transaction, like a request does now
+ * that open-in-view is turned off, so every transition has to open the transactions it needs itself.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = {JpaTestConfig.class, StatusServiceTransactionTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StatusServiceTransactionTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        StatusService statusService(OrderRepository orderRepo, DeliveryExceptionRepository exceptionRepo) {
+            return new StatusService(orderRepo, exceptionRepo, new DispatchIndex(Runnable::run),
+                Mockito.mock(EtaEngine.class));
+        }
+    }
+
+    @Autowired
+    private StatusService statusService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private DeliveryExceptionRepository exceptionRepo;
+
+    @AfterEach
+    void tearDown() {
+        exceptionRepo.deleteAll();
+        orderRepo.deleteAll();
+    }
+
+    @Test
+    void rejectLinksTheExceptionWithoutAnOpenSession() {
+        orderRepo.saveAndFlush(new Order().id(40L).vendorId(1L).status(Order.StatusEnum.PENDING));
+
+        assertEquals(StatusTransition.UPDATED, statusService.updateStatusToRejected(40L));
+
+        List<DeliveryException> exceptions = exceptionRepo.findAll();
+        assertEquals(1, exceptions.size());
+        assertEquals(DeliveryException.ExceptionTypeEnum.REJECTED, exceptions.get(0).getExceptionType());
+        assertEquals(40L, exceptions.get(0).getOrder().getId());
+        assertEquals(Order.StatusEnum.REJECTED, orderRepo.findById(40L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rejectTwiceOnlyRecordsOneException() {
+        orderRepo.saveAndFlush(new Order().id(41L).vendorId(1L).status(Order.StatusEnum.PENDING));
+
+        assertEquals(StatusTransition.UPDATED, statusService.updateStatusToRejected(41L));
+        assertEquals(StatusTransition.INVALID, statusService.updateStatusToRejected(41L));
+
+        assertEquals(1, exceptionRepo.findAll().size());
+    }
+}
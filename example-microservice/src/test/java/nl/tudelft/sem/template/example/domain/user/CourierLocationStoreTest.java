@@ -0,0 +1,200 @@
+package nl.tudelft.sem.template.example.domain.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import nl.tudelft.sem.template.model.Courier;
+import nl.tudelft.sem.template.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
+
+class CourierLocationStoreTest {
+
+    private CourierRepository courierRepo;
+    private CourierLocationStore store;
+    private Courier courier1;
+    private Courier courier2;
+
+    @BeforeEach
+    void setUp() {
+        courierRepo = mock(CourierRepository.class);
+        store = new CourierLocationStore(courierRepo, TransactionOperations.withoutTransaction(), false);
+        courier1 = new Courier().id(1L).currentLocation(location(52.0F, 4.36F));
+        courier2 = new Courier().id(2L);
+        Mockito.when(courierRepo.findById(1L)).thenReturn(Optional.of(courier1));
+        Mockito.when(courierRepo.findById(2L)).thenReturn(Optional.of(courier2));
+        Mockito.when(courierRepo.updateLocation(eq(1L), any(), any())).thenReturn(1);
+        Mockito.when(courierRepo.updateLocation(eq(2L), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void latestReadsTheCourierOnce() {
+        assertEquals(Optional.of(location(52.0F, 4.36F)), store.latest(1L));
+        assertEquals(Optional.of(location(52.0F, 4.36F)), store.latest(1L));
+        assertTrue(store.latest(2L).isEmpty());
+
+        verify(courierRepo, times(1)).findById(1L);
+    }
+
+    @Test
+    void latestUnknownCourier() {
+        assertTrue(store.latest(3L).isEmpty());
+        assertTrue(store.latest(null).isEmpty());
+    }
+
+    @Test
+    void updateUnknownCourier() {
+        assertFalse(store.update(3L, location(1F, 2F)));
+        assertFalse(store.update(1L, null));
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    void updatesAreCoalescedUntilTheFlush() {
+        assertTrue(store.update(1L, location(52.01F, 4.36F)));
+        assertTrue(store.update(1L, location(52.02F, 4.36F)));
+        assertTrue(store.update(2L, location(51.0F, 4.0F)));
+
+        verify(courierRepo, never()).saveAndFlush(any());
+        assertEquals(Optional.of(location(52.02F, 4.36F)), store.latest(1L));
+        assertEquals(Optional.of(location(52.02F, 4.36F)), store.unwritten(1L));
+        assertEquals(2, store.pendingCount());
+        assertEquals(3, store.updateCount());
+
+        assertEquals(2, store.flush());
+        verify(courierRepo).updateLocation(1L, 52.02F, 4.36F);
+        verify(courierRepo).updateLocation(2L, 51.0F, 4.0F);
+        verify(courierRepo, times(2)).updateLocation(any(), any(), any());
+        verify(courierRepo, never()).saveAll(anyIterable());
+        assertEquals(0, store.pendingCount());
+        assertEquals(2, store.writtenRowCount());
+        assertEquals(0, store.currentLagMillis());
+        assertTrue(store.unwritten(1L).isEmpty());
+
+        assertEquals(0, store.flush());
+    }
+
+    @Test
+    void updatesDuringTheFlushStayPending() {
+        Mockito.when(courierRepo.updateLocation(eq(1L), any(), any()))
+            .thenAnswer(invocation -> {
+                // both arrive after the batch was copied
+                store.update(1L, location(52.03F, 4.36F));
+                store.update(2L, location(51.0F, 4.0F));
+                return 1;
+            })
+            .thenReturn(1);
+
+        store.update(1L, location(52.01F, 4.36F));
+        assertEquals(1, store.flush());
+        assertEquals(2, store.pendingCount());
+        assertEquals(Optional.of(location(52.03F, 4.36F)), store.unwritten(1L));
+        assertTrue(store.currentLagMillis() >= 0);
+
+        assertEquals(2, store.flush());
+        assertEquals(0, store.pendingCount());
+        assertEquals(0, store.currentLagMillis());
+        assertEquals(0, store.flush());
+        assertEquals(0, store.currentLagMillis());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        Mockito.when(courierRepo.updateLocation(eq(1L), any(), any()))
+            .thenThrow(new RuntimeException("database down"))
+            .thenReturn(1);
+
+        store.update(1L, location(52.01F, 4.36F));
+        assertThrows(RuntimeException.class, store::flush);
+        assertEquals(1, store.pendingCount());
+        assertEquals(1, store.failedFlushCount());
+
+        assertEquals(1, store.flush());
+        verify(courierRepo, times(2)).updateLocation(1L, 52.01F, 4.36F);
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    void closeWritesWhatIsLeft() {
+        store.update(1L, location(52.01F, 4.36F));
+        store.close();
+
+        verify(courierRepo).updateLocation(1L, 52.01F, 4.36F);
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    void updateAllReadsUnseenCouriersOnce() {
+        Mockito.when(courierRepo.findAllById(anyIterable())).thenReturn(List.of(courier2));
+        store.latest(1L);
+
+        Set<Long> updated = store.updateAll(Map.of(1L, location(52.01F, 4.36F), 2L, location(51.0F, 4.0F),
+            3L, location(1F, 1F)));
+
+        assertEquals(Set.of(1L, 2L), updated);
+        verify(courierRepo).findAllById(Set.of(2L, 3L));
+        assertEquals(Optional.of(location(51.0F, 4.0F)), store.latest(2L));
+        assertEquals(2, store.pendingCount());
+        verify(courierRepo, never()).updateLocation(any(), any(), any());
+    }
+
+    @Test
+    void updateAllWriteThroughOnlyWritesLocations() {
+        CourierLocationStore writeThrough = CourierLocationStore.writeThrough(courierRepo);
+
+        Set<Long> updated = writeThrough.updateAll(Map.of(1L, location(52.01F, 4.36F), 2L, location(51.0F, 4.0F),
+            3L, location(1F, 1F)));
+
+        assertEquals(Set.of(1L, 2L), updated);
+        verify(courierRepo).updateLocation(1L, 52.01F, 4.36F);
+        verify(courierRepo).updateLocation(2L, 51.0F, 4.0F);
+        verify(courierRepo, never()).saveAll(anyIterable());
+        verify(courierRepo, never()).saveAndFlush(any());
+        assertEquals(Optional.of(location(51.0F, 4.0F)), writeThrough.latest(2L));
+        assertTrue(writeThrough.latest(3L).isEmpty());
+    }
+
+    @Test
+    void savedDoesNotOverwriteUnwrittenLocation() {
+        store.update(1L, location(52.01F, 4.36F));
+        store.saved(new Courier().id(1L).currentLocation(location(0F, 0F)));
+        store.saved(new Courier().id(4L).currentLocation(location(1F, 1F)));
+
+        assertEquals(Optional.of(location(52.01F, 4.36F)), store.latest(1L));
+        assertEquals(Optional.of(location(1F, 1F)), store.latest(4L));
+    }
+
+    @Test
+    void writeThroughWritesEveryUpdate() {
+        CourierLocationStore writeThrough = CourierLocationStore.writeThrough(courierRepo);
+
+        assertTrue(writeThrough.update(1L, location(52.01F, 4.36F)));
+        assertTrue(writeThrough.update(1L, location(52.02F, 4.36F)));
+
+        verify(courierRepo).updateLocation(1L, 52.01F, 4.36F);
+        verify(courierRepo).updateLocation(1L, 52.02F, 4.36F);
+        verify(courierRepo, never()).saveAndFlush(any());
+        assertEquals(Optional.of(location(52.02F, 4.36F)), writeThrough.latest(1L));
+        assertEquals(0, writeThrough.pendingCount());
+        assertFalse(writeThrough.update(3L, location(1F, 2F)));
+    }
+
+    private static Location location(Float latitude, Float longitude) {
+        return new Location().latitude(latitude).longitude(longitude);
+    }
+}
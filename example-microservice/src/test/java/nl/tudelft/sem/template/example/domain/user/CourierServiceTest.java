@@ -13,6 +13,7 @@ import nl.tudelft.sem.template.model.Location;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
 
 public class CourierServiceTest {
 
@@ -23,29 +24,23 @@ public class CourierServiceTest {
     @BeforeEach
     void setUp() {
         this.courierRepo = mock(CourierRepository.class);
-        this.courierService = new CourierService(courierRepo);
+        this.courierService = new CourierService(courierRepo, CourierLocationStore.writeThrough(courierRepo));
         this.courier1 = new Courier().id(100L).bossId(5L).currentLocation(new Location().latitude(0F).longitude(0F));
     }
 
     @Test
     void updateBossIdOfCourier200() {
-        Courier courier11 = new Courier().id(100L).bossId(6L)
-            .currentLocation(new Location().latitude(0F).longitude(0F));
-
-        Mockito.when(courierRepo.findById(anyLong())).thenReturn(Optional.of(courier1));
-        Mockito.lenient().when(courierRepo.saveAndFlush(courier1)).thenReturn(courier11);
-
-        assertEquals(5L, courier1.getBossId());
+        Mockito.when(courierRepo.updateBossId(100L, 6L)).thenReturn(1);
 
         var res = courierService.updateBossIdOfCourier(100L, 6L);
-        assertEquals(courier1.getBossId(), courier11.getBossId());
         assertTrue(res.isPresent());
         assertEquals(res.get(), 6L);
+        Mockito.verify(courierRepo, Mockito.never()).saveAndFlush(any());
     }
 
     @Test
     void updateBossIdOfCourier404() {
-        Mockito.when(courierRepo.getOne(anyLong())).thenThrow(new javax.persistence.EntityNotFoundException());
+        Mockito.when(courierRepo.updateBossId(anyLong(), anyLong())).thenReturn(0);
 
         Optional<Long> ret = courierService.updateBossIdOfCourier(courier1.getId(), 6L);
         assertTrue(ret.isEmpty());
@@ -59,6 +54,18 @@ public class CourierServiceTest {
         assertEquals(ret.get(), courier1);
     }
 
+    @Test
+    void getCourierByIdWithUnwrittenLocation() {
+        CourierLocationStore store = new CourierLocationStore(courierRepo,
+            TransactionOperations.withoutTransaction(), false);
+        CourierService withStore = new CourierService(courierRepo, store);
+        Mockito.when(courierRepo.findById(courier1.getId())).thenReturn(Optional.of(courier1));
+        store.update(courier1.getId(), new Location().latitude(1F).longitude(2F));
+
+        Optional<Courier> ret = withStore.getCourierById(courier1.getId());
+        assertEquals(new Location().latitude(1F).longitude(2F), ret.get().getCurrentLocation());
+    }
+
     @Test
     void getCourierById404() {
         Mockito.when(courierRepo.findById(courier1.getId())).thenReturn(Optional.empty());
@@ -7,7 +7,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 
+import java.util.List;
 import java.util.Optional;
+import nl.tudelft.sem.template.example.domain.navigation.EtaEngine;
+import nl.tudelft.sem.template.example.domain.order.DispatchIndex;
+import nl.tudelft.sem.template.model.Location;
 import nl.tudelft.sem.template.model.Vendor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,7 +26,8 @@ public class VendorServiceTest {
     @BeforeEach
     void setUp() {
         this.vendorRepo = mock(VendorRepository.class);
-        this.vendorService = new VendorService(vendorRepo);
+        this.vendorService = new VendorService(vendorRepo, new DispatchIndex(Runnable::run), new VendorSpatialIndex(),
+            mock(EtaEngine.class));
         this.vendor1 = new Vendor().id(2L);
     }
 
@@ -43,6 +48,20 @@ public class VendorServiceTest {
         assertEquals(res.get().getId(), vendor1.getId());
     }
 
+    @Test
+    void makeVendorByIdRemovesTheOldLocationFromTheSpatialIndex() {
+        VendorSpatialIndex spatialIndex = new VendorSpatialIndex();
+        Location location = new Location().latitude(52F).longitude(4.36F);
+        spatialIndex.rebuild(List.of(new Vendor().id(2L).radius(5.0).location(location)));
+        VendorService service = new VendorService(vendorRepo, new DispatchIndex(Runnable::run), spatialIndex,
+            mock(EtaEngine.class));
+        Mockito.when(vendorRepo.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.makeVendorById(2L);
+
+        assertTrue(spatialIndex.vendorsCovering(location).isEmpty());
+    }
+
     @Test
     void existsVendorTrue() {
         Mockito.when(vendorRepo.existsById(1L)).thenReturn(true);
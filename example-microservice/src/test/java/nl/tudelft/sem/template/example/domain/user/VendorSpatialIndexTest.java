@@ -0,0 +1,103 @@
+package nl.tudelft.sem.template.example.domain.user;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import nl.tudelft.sem.template.model.Location;
+import nl.tudelft.sem.template.model.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VendorSpatialIndexTest {
+
+    private VendorSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VendorSpatialIndex();
+        index.rebuild(List.of(
+            vendor(1L, 52.0F, 4.36F, 5.0),
+            vendor(2L, 52.05F, 4.36F, 10.0),
+            vendor(3L, 51.755F, 4.47F, 2.0),
+            // covers more cells than MAX_CELLS_PER_VENDOR
+            vendor(4L, 48.85F, 2.35F, 1000.0),
+            new Vendor().id(5L).radius(5.0),
+            new Vendor().id(6L).location(new Location().latitude(52.0F).longitude(4.36F))
+        ));
+    }
+
+    @Test
+    void rebuildSkipsVendorsWithoutLocationOrRadius() {
+        assertTrue(index.isLoaded());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void vendorsCoveringChecksTheRadius() {
+        assertEquals(List.of(1L, 2L, 4L), sorted(index.vendorsCovering(location(52.0F, 4.36F))));
+        // about 8.3 km north of vendor 1, still within the radius of vendor 2
+        assertEquals(List.of(2L, 4L), sorted(index.vendorsCovering(location(52.075F, 4.36F))));
+        assertEquals(List.of(), index.vendorsCovering(location(-33.9F, 18.4F)));
+    }
+
+    @Test
+    void vendorsCoveringAcrossCellBorder() {
+        // vendor 3 sits close to a cell border, the point is in the neighbouring cell
+        assertTrue(index.vendorsCovering(location(51.745F, 4.47F)).contains(3L));
+        assertFalse(index.vendorsCovering(location(51.72F, 4.47F)).contains(3L));
+    }
+
+    @Test
+    void vendorsCoveringAcrossAntimeridian() {
+        index.update(vendor(7L, 0F, 179.99F, 10.0));
+
+        assertEquals(List.of(7L), index.vendorsCovering(location(0F, -179.99F)));
+    }
+
+    @Test
+    void incompleteLocationCoversNothing() {
+        assertEquals(List.of(), index.vendorsCovering(null));
+        assertEquals(List.of(), index.vendorsCovering(new Location().latitude(52.0F)));
+    }
+
+    @Test
+    void updateMovesVendor() {
+        index.update(vendor(1L, -33.9F, 18.4F, 5.0));
+
+        assertEquals(List.of(2L, 4L), sorted(index.vendorsCovering(location(52.0F, 4.36F))));
+        assertEquals(List.of(1L), index.vendorsCovering(location(-33.9F, 18.4F)));
+
+        index.update(new Vendor().id(4L));
+        assertEquals(List.of(2L), index.vendorsCovering(location(52.0F, 4.36F)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void coversWithoutIndex() {
+        assertTrue(VendorSpatialIndex.covers(vendor(1L, 52.0F, 4.36F, 5.0), location(52.01F, 4.36F)));
+        assertFalse(VendorSpatialIndex.covers(vendor(1L, 52.0F, 4.36F, 0.5), location(52.01F, 4.36F)));
+        assertFalse(VendorSpatialIndex.covers(new Vendor().id(1L), location(52.01F, 4.36F)));
+    }
+
+    @Test
+    void notLoadedUntilRebuilt() {
+        assertFalse(new VendorSpatialIndex().isLoaded());
+    }
+
+    private static Vendor vendor(Long id, float lat, float lon, double radius) {
+        return new Vendor().id(id).radius(radius).location(location(lat, lon));
+    }
+
+    private static Location location(float lat, float lon) {
+        return new Location().latitude(lat).longitude(lon);
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        List<Long> res = new ArrayList<>(ids);
+        res.sort(null);
+        return res;
+    }
+}
@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.example.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+    @Test
+    void callsAboveTheLimitAreRejected() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("user-service", 2, Duration.ZERO);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            List<Future<String>> running = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                running.add(executor.submit(() -> bulkhead.execute(() -> {
+                    started.countDown();
+                    await(release);
+                    return "courier";
+                })));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(2, bulkhead.activeCount());
+            assertThrows(CallNotPermittedException.class, () -> bulkhead.execute(() -> "other"));
+            assertEquals(1, bulkhead.getRejectedCount());
+
+            release.countDown();
+            for (Future<String> call : running) {
+                assertEquals("courier", call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(0, bulkhead.activeCount());
+            assertEquals("other", bulkhead.execute(() -> "other"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void slotIsReleasedWhenTheCallFails() {
+        Bulkhead bulkhead = new Bulkhead("user-service", 1, Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.execute(() -> {
+            throw new IllegalStateException("user service down");
+        }));
+        assertEquals(0, bulkhead.activeCount());
+        assertEquals("courier", bulkhead.execute(() -> "courier"));
+    }
+
+    @Test
+    void disabledBulkheadNeverRejects() {
+        Bulkhead disabled = Bulkhead.disabled("user-service");
+
+        String result = disabled.execute(() -> disabled.execute(() -> "courier"));
+        assertEquals("courier", result);
+        assertEquals(0, disabled.getRejectedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package nl.tudelft.sem.template.example.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private AtomicLong now;
+    private AtomicInteger calls;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(0);
+        calls = new AtomicInteger(0);
+        breaker = new CircuitBreaker("user-service", 3, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> breaker.execute(failing()));
+        assertEquals(3, calls.get());
+        assertEquals(1, breaker.getRejectedCount());
+        assertEquals(1, breaker.getOpenedCount());
+    }
+
+    @Test
+    void successResetsTheFailures() {
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        assertEquals("courier", breaker.execute(() -> "courier"));
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void answersThatAreNoFailuresDoNotOpen() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.execute(failing(), e -> false));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(5, breaker.getSuccessCount());
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals("courier", breaker.execute(() -> "courier"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> breaker.execute(() -> "courier"));
+        assertEquals(2, breaker.getOpenedCount());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals("courier", breaker.execute(() -> "courier"));
+    }
+
+    @Test
+    void onlyOneProbeAtATime() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        String result = breaker.execute(() -> {
+            // a second call while the probe is in flight is rejected
+            assertThrows(CallNotPermittedException.class, () -> breaker.execute(() -> "other"));
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+            return "courier";
+        });
+
+        assertEquals("courier", result);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void slowSuccessDoesNotCloseACircuitThatOpenedMeanwhile() {
+        String result = breaker.execute(() -> {
+            // other calls open the circuit while this one is still running
+            open();
+            return "courier";
+        });
+
+        assertEquals("courier", result);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> breaker.execute(() -> "courier"));
+    }
+
+    @Test
+    void slowFailureDoesNotCountAfterTheCircuitClosedAgain() {
+        assertThrows(IllegalStateException.class, () -> breaker.execute(() -> {
+            open();
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            assertEquals("courier", breaker.execute(() -> "courier"));
+            throw new IllegalStateException("user service down");
+        }));
+
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        CircuitBreaker disabled = CircuitBreaker.disabled("user-service");
+        for (int i = 0; i < 10; i++) {
+            assertThrows(IllegalStateException.class, () -> disabled.execute(failing()));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+        assertEquals(10, disabled.getFailureCount());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.execute(failing()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private Supplier<String> failing() {
+        return () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("user service down");
+        };
+    }
+}
@@ -1,12 +1,21 @@
 package nl.tudelft.sem.template.example.utils;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
+import java.time.Duration;
+import java.util.Optional;
+import nl.tudelft.sem.template.example.authorization.Authorization;
+import nl.tudelft.sem.template.example.authorization.UserTypeCache;
+import nl.tudelft.sem.template.example.domain.order.OrderOwners;
+import nl.tudelft.sem.template.example.domain.order.OrderRelationship;
 import nl.tudelft.sem.template.example.domain.order.OrderRepository;
 import nl.tudelft.sem.template.example.domain.user.CourierRepository;
 import nl.tudelft.sem.template.example.domain.user.VendorRepository;
@@ -24,6 +33,7 @@ public class DbUtilsTest {
     private OrderRepository orderRepo;
     private VendorRepository vendorRepo;
     private CourierRepository courierRepo;
+    private UserTypeCache userTypeCache;
 
     @BeforeEach
     void setUp() {
@@ -31,13 +41,13 @@ public class DbUtilsTest {
         orderRepo = mock(OrderRepository.class);
         vendorRepo = mock(VendorRepository.class);
         courierRepo = mock(CourierRepository.class);
-        dbUtils = new DbUtils(orderRepo, vendorRepo, courierRepo, orderExternalService);
+        userTypeCache = new UserTypeCache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        dbUtils = new DbUtils(orderRepo, vendorRepo, courierRepo, orderExternalService, userTypeCache);
     }
 
     @Test
     void testCustomerBelongsToOrder() {
-        Mockito.when(orderRepo.existsByIdAndCourierId(11L, 1L)).thenReturn(false);
-        Mockito.when(orderRepo.existsByIdAndVendorId(11L, 1L)).thenReturn(false);
+        Mockito.when(orderRepo.findOwnersById(11L)).thenReturn(Optional.of(owners(5L, 6L)));
 
         WireMockConfig.orderMicroservice.stubFor(WireMock.get(urlPathMatching("/order/11"))
             .withHeader("userId", WireMock.equalTo("1"))
@@ -49,8 +59,7 @@ public class DbUtilsTest {
 
     @Test
     void testCustomerDoesNotBelongToOrder() {
-        Mockito.when(orderRepo.existsByIdAndCourierId(11L, 1L)).thenReturn(false);
-        Mockito.when(orderRepo.existsByIdAndVendorId(11L, 1L)).thenReturn(false);
+        Mockito.when(orderRepo.findOwnersById(11L)).thenReturn(Optional.of(owners(5L, 6L)));
 
         WireMockConfig.orderMicroservice.stubFor(WireMock.get(urlPathMatching("/order/11"))
             .withHeader("userId", WireMock.equalTo("1"))
@@ -60,22 +69,80 @@ public class DbUtilsTest {
         assertFalse(dbUtils.userBelongsToOrder(1L, 11L));
     }
 
+    @Test
+    void testOrderServiceOnlyAskedForCustomers() {
+        Mockito.when(orderRepo.findOwnersById(11L)).thenReturn(Optional.of(owners(5L, 6L)));
+        WireMockConfig.orderMicroservice.stubFor(WireMock.get(urlPathMatching("/order/11"))
+            .willReturn(aResponse()
+                .withStatus(200)));
+        userTypeCache.put(1L, Authorization.UserType.VENDOR);
+        userTypeCache.put(2L, Authorization.UserType.CUSTOMER);
+
+        assertFalse(dbUtils.userBelongsToOrder(1L, 11L));
+        WireMockConfig.orderMicroservice.verify(0, getRequestedFor(urlPathMatching("/order/11")));
+
+        assertTrue(dbUtils.userBelongsToOrder(2L, 11L));
+        WireMockConfig.orderMicroservice.verify(1, getRequestedFor(urlPathMatching("/order/11")));
+    }
+
+    @Test
+    void testRejectedCustomerCheckIsNoAnswer() {
+        OrderExternalService rejecting = mock(OrderExternalService.class);
+        Mockito.when(rejecting.getOrder(1L, 11L))
+            .thenThrow(new CallNotPermittedException("Circuit breaker of order-service is open"));
+        DbUtils guarded = new DbUtils(orderRepo, vendorRepo, courierRepo, rejecting, userTypeCache);
+
+        assertThrows(CallNotPermittedException.class, () -> guarded.customerBelongsToOrder(11L, 1L));
+    }
+
     @Test
     void testCourierBelongsToOrder() {
-        Mockito.when(orderRepo.existsByIdAndCourierId(11L, 1L)).thenReturn(true);
-        Mockito.when(orderRepo.existsByIdAndVendorId(11L, 1L)).thenReturn(false);
+        Mockito.when(orderRepo.findOwnersById(11L)).thenReturn(Optional.of(owners(1L, 6L)));
         Mockito.when(courierRepo.existsByIdAndBossId(11L, 1L)).thenReturn(false);
         assertTrue(dbUtils.userBelongsToOrder(1L, 11L));
     }
 
+    @Test
+    void testRelationshipToOrder() {
+        Mockito.when(orderRepo.findOwnersById(11L)).thenReturn(Optional.of(owners(1L, 6L)));
+
+        assertEquals(OrderRelationship.COURIER, dbUtils.relationshipToOrder(1L, 11L));
+        assertEquals(OrderRelationship.VENDOR, dbUtils.relationshipToOrder(6L, 11L));
+        assertEquals(OrderRelationship.NONE, dbUtils.relationshipToOrder(7L, 11L));
+        assertEquals(OrderRelationship.NONE, dbUtils.relationshipToOrder(1L, 12L));
+        Mockito.verify(orderRepo, Mockito.never()).existsByIdAndCourierId(Mockito.any(), Mockito.any());
+    }
+
     @Test
     void testCourierDoesNotBelongToVendor() {
         Mockito.when(courierRepo.existsByIdAndBossId(11L, 1L)).thenReturn(false);
         assertFalse(dbUtils.courierBelongsToVendor(11L, 1L));
     }
 
+    @Test
+    void testUserIsCourierOrTheirVendor() {
+        Mockito.when(courierRepo.existsByIdAndBossId(11L, 1L)).thenReturn(true);
+        assertTrue(dbUtils.userIsCourierOrTheirVendor(11L, 11L));
+        assertTrue(dbUtils.userIsCourierOrTheirVendor(1L, 11L));
+        assertFalse(dbUtils.userIsCourierOrTheirVendor(2L, 11L));
+    }
+
     @AfterEach()
     void tearDown() {
         WireMockConfig.stopOrderServer();
     }
+
+    private static OrderOwners owners(Long courierId, Long vendorId) {
+        return new OrderOwners() {
+            @Override
+            public Long getCourierId() {
+                return courierId;
+            }
+
+            @Override
+            public Long getVendorId() {
+                return vendorId;
+            }
+        };
+    }
 }